@@ -15,30 +15,40 @@
  */
 package com.epam.reportportal.cucumber;
 
-import com.epam.reportportal.annotations.TestCaseId;
 import com.epam.reportportal.annotations.attribute.Attributes;
+import com.epam.reportportal.cucumber.util.CopyOnWriteAttributeSet;
+import com.epam.reportportal.cucumber.util.FailureIndex;
+import com.epam.reportportal.cucumber.util.FeatureDurationHistory;
+import com.epam.reportportal.cucumber.util.ImageUtils;
+import com.epam.reportportal.cucumber.util.LruCache;
+import com.epam.reportportal.cucumber.util.ScenarioHistory;
+import com.epam.reportportal.cucumber.util.ScenarioSampler;
+import com.epam.reportportal.cucumber.util.StackTraceCompactor;
+import com.epam.reportportal.cucumber.util.TagAttributeCache;
 import com.epam.reportportal.listeners.ItemStatus;
 import com.epam.reportportal.listeners.ListenerParameters;
 import com.epam.reportportal.message.ReportPortalMessage;
 import com.epam.reportportal.service.Launch;
 import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
 import com.epam.reportportal.service.item.TestCaseIdEntry;
 import com.epam.reportportal.service.tree.TestItemTree;
-import com.epam.reportportal.utils.AttributeParser;
 import com.epam.reportportal.utils.MemoizingSupplier;
 import com.epam.reportportal.utils.ParameterUtils;
 import com.epam.reportportal.utils.TestCaseIdUtils;
+import com.epam.reportportal.utils.properties.PropertiesLoader;
 import com.epam.reportportal.utils.properties.SystemAttributesExtractor;
 import com.epam.ta.reportportal.ws.model.FinishExecutionRQ;
 import com.epam.ta.reportportal.ws.model.FinishTestItemRQ;
+import com.epam.ta.reportportal.ws.model.OperationCompletionRS;
 import com.epam.ta.reportportal.ws.model.ParameterResource;
 import com.epam.ta.reportportal.ws.model.StartTestItemRQ;
 import com.epam.ta.reportportal.ws.model.attribute.ItemAttributesRQ;
 import com.epam.ta.reportportal.ws.model.launch.StartLaunchRQ;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
 import cucumber.api.*;
 import cucumber.api.event.*;
 import cucumber.api.formatter.Formatter;
-import cucumber.runtime.StepDefinitionMatch;
 import gherkin.ast.Feature;
 import gherkin.ast.Step;
 import gherkin.ast.Tag;
@@ -46,9 +56,10 @@ import gherkin.pickles.PickleCell;
 import gherkin.pickles.PickleString;
 import gherkin.pickles.PickleTable;
 import gherkin.pickles.PickleTag;
+import io.reactivex.Completable;
 import io.reactivex.Maybe;
 import org.apache.commons.lang3.tuple.Pair;
-import org.apache.tika.Tika;
+import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 import org.apache.tika.mime.MimeTypeException;
 import org.apache.tika.mime.MimeTypes;
@@ -59,13 +70,36 @@ import rp.com.google.common.io.ByteSource;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.lang.reflect.Field;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -88,16 +122,43 @@ public abstract class AbstractReporter implements Formatter {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractReporter.class);
 	private static final String AGENT_PROPERTIES_FILE = "agent.properties";
-	private static final String STEP_DEFINITION_FIELD_NAME = "stepDefinition";
-	private static final String GET_LOCATION_METHOD_NAME = "getLocation";
-	private static final String METHOD_OPENING_BRACKET = "(";
 	private static final String TABLE_SEPARATOR = "|";
 	private static final String DOCSTRING_DECORATOR = "\n\"\"\"\n";
+	private static final int WARM_UP_THREAD_NUMBER = 3;
+	private static final String ATTACHMENT_HASH_ALGORITHM = "SHA-1";
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private static final String SPOOL_FILE_PREFIX = "rp-attachment-";
+	private static final String SPOOL_FILE_SUFFIX = ".bin";
+	private static final String GZIP_MIME_TYPE = "application/gzip";
+	private static final String MIME_TYPE_WILDCARD = "/*";
+	private static final String IMAGE_MIME_TYPE_PREFIX = "image/";
+	private static final int STACK_TRACE_CACHE_SIZE = 1000;
+	private static final int TAG_ATTRIBUTE_CACHE_SIZE = 1000;
+	private static final int FAILURE_FINGERPRINT_FRAME_NUMBER = 3;
+	private static final int FAILURE_CLUSTER_SCENARIO_NUMBER = 5;
+	private static final String JPEG_MIME_TYPE = "image/jpeg";
+	private static final String SAMPLED_OUT_ATTRIBUTE_KEY = "sampled.out";
 
+	/**
+	 * @deprecated the item tree is per launch now, use {@link #getCurrentSession()} and {@link LaunchSession#getItemTree()}. The
+	 * static tree is still populated for compatibility, but it's shared by all reporters of the JVM.
+	 */
+	@Deprecated
 	public static final TestItemTree ITEM_TREE = new TestItemTree();
 	private static volatile ReportPortal REPORT_PORTAL = ReportPortal.builder().build();
+	private static final ThreadLocal<LaunchSession> CURRENT_SESSION = new ThreadLocal<>();
+	private static final Set<LaunchSession> ACTIVE_SESSIONS = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	private final LaunchSession session = new LaunchSession();
 
 	protected Supplier<Launch> launch;
+	protected final Supplier<PropertiesLoader> properties = new MemoizingSupplier<>(PropertiesLoader::load);
+	private Supplier<ReportPortal> reportPortalSupplier;
+	private volatile ReporterConfig config;
+	private volatile LaunchRendezvous launchRendezvous;
+	private volatile ScenarioHistory scenarioHistory;
+	// the thread which started the launch, the session stays bound to it until the launch is finished
+	private volatile Thread launchThread;
 	protected static final String COLON_INFIX = ": ";
 	protected static final String SKIPPED_ISSUE_KEY = "skippedIssue";
 
@@ -107,19 +168,126 @@ public abstract class AbstractReporter implements Formatter {
 
 	private final ThreadLocal<RunningContext.ScenarioContext> currentScenarioContext = new ThreadLocal<>();
 
+	// Item and time of a buffered log which is being replayed
+	private final ThreadLocal<LogTarget> logTarget = new ThreadLocal<>();
+
+	// Events of a scenario which is out of sample, they are reported only if the scenario does not pass
+	private final ThreadLocal<List<Runnable>> deferredScenarioEvents = new ThreadLocal<>();
+	// Time of a deferred event which is being replayed
+	private final ThreadLocal<Date> eventTime = new ThreadLocal<>();
+
 	// There is no event for recognizing end of feature in Cucumber.
 	// This map is used to record the last scenario time and its feature uri.
-	// End of feature occurs once launch is finished.
+	// End of feature occurs once all its pickles are finished, or once launch is finished if some of them are filtered out.
 	private final Map<String, Date> featureEndTime = new ConcurrentHashMap<>();
 
+	// Total scenario durations per feature URI in milliseconds, recorded into the feature duration history
+	private final Map<String, Long> featureDurations = new ConcurrentHashMap<>();
+
+	// Content hashes of attachments uploaded within the launch, mapped to the place where they were embedded first
+	private final Map<String, String> attachmentHashes = new ConcurrentHashMap<>();
+
+	// Temporary files with large attachments, they are removed once the launch is finished
+	private final Queue<Path> spooledAttachments = new ConcurrentLinkedQueue<>();
+
+	// Attachment budget usage within the launch
+	private final AtomicLong launchAttachmentCount = new AtomicLong();
+	private final AtomicLong launchAttachmentSize = new AtomicLong();
+	private final AtomicInteger launchDroppedAttachmentCount = new AtomicInteger();
+	private final AtomicLong launchDroppedAttachmentSize = new AtomicLong();
+
+	// Set once the shard left the launch rendezvous: true if it was the last one and should finish the launch
+	private final AtomicReference<Boolean> lastShard = new AtomicReference<>();
+
+	private final Supplier<StackTraceCompactor> stackTraceCompactor = new MemoizingSupplier<>(() -> new StackTraceCompactor(
+			getConfig().getStackTraceFilters(),
+			STACK_TRACE_CACHE_SIZE
+	));
+
+	private final Supplier<TagAttributeCache> tagAttributes = new MemoizingSupplier<>(() -> new TagAttributeCache(
+			getConfig() != null && getConfig().isTagKeyValueParsing(),
+			TAG_ATTRIBUTE_CACHE_SIZE
+	));
+
+	// Test Case IDs and parameters of steps by code reference and argument values
+	private final Supplier<LruCache<List<Object>, TestCaseIdEntry>> stepTestCaseIds = new MemoizingSupplier<>(this::buildStepCache);
+	private final Supplier<LruCache<List<Object>, List<ParameterResource>>> stepParameters = new MemoizingSupplier<>(this::buildStepCache);
+
+	private final Supplier<ScenarioSampler> scenarioSampler = new MemoizingSupplier<>(() -> getConfig() == null ?
+			new ScenarioSampler(-1, -1L) :
+			new ScenarioSampler(getConfig().getScenarioSamplingRate(), getConfig().getScenarioSamplingInterval()));
+
+	private final Supplier<FailureIndex> failureIndex = new MemoizingSupplier<>(() -> new FailureIndex(
+			getConfig().getStackTraceFilters(),
+			FAILURE_FINGERPRINT_FRAME_NUMBER,
+			FAILURE_CLUSTER_SCENARIO_NUMBER
+	));
+
+	// Threads are created on demand, so the executor costs nothing if image processing is disabled
+	private final ExecutorService imageExecutor = Executors.newFixedThreadPool(Math.max(1,
+			Runtime.getRuntime().availableProcessors() / 2
+	), daemonThreadFactory("rp-cucumber-image"));
+
+	private final ExecutorService glueExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+			daemonThreadFactory("rp-cucumber-glue")
+	);
+
+	private final ExecutorService parserExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+			daemonThreadFactory("rp-cucumber-parser")
+	);
+
+	// Reflection metadata of step definitions
+	private final Supplier<StepDefinitionRegistry> stepDefinitions = new MemoizingSupplier<>(() -> new StepDefinitionRegistry(
+			glueExecutor,
+			getConfig() != null && getConfig().isGluePreScan() && getConfig().getGluePackages().isEmpty()
+	));
+
+	/**
+	 * Returns ReportPortal instance of the launch which is reported on the current thread, e.g. to report callback items from a
+	 * step definition
+	 *
+	 * @return ReportPortal instance
+	 */
 	public static ReportPortal getReportPortal() {
-		return REPORT_PORTAL;
+		return ofNullable(getCurrentSession()).map(LaunchSession::getReportPortal).orElse(REPORT_PORTAL);
 	}
 
 	protected static void setReportPortal(ReportPortal reportPortal) {
 		REPORT_PORTAL = reportPortal;
 	}
 
+	/**
+	 * Returns the session of the launch which is reported on the current thread, it's available in step definitions and hooks.
+	 * <p>
+	 * Events of a reporter which is not a {@link ConcurrentEventListener} are not delivered on Cucumber's worker threads if the
+	 * run is parallel ('--threads' option), so there is no session bound to these threads. In that case the only active session
+	 * of the JVM is returned, if several reporters are running at the same time it's not possible to tell which one the thread
+	 * belongs to.
+	 *
+	 * @return the launch session or null if there is no launch on the thread and no single active launch in the JVM
+	 */
+	@Nullable
+	public static LaunchSession getCurrentSession() {
+		LaunchSession current = CURRENT_SESSION.get();
+		if (current != null) {
+			return current;
+		}
+		Iterator<LaunchSession> active = ACTIVE_SESSIONS.iterator();
+		if (!active.hasNext()) {
+			return null;
+		}
+		LaunchSession session = active.next();
+		return active.hasNext() ? null : session;
+	}
+
+	/**
+	 * @return the session of the launch, which is reported by this reporter
+	 */
+	@Nonnull
+	protected LaunchSession getSession() {
+		return session;
+	}
+
 	/**
 	 * Registers an event handler for a specific event.
 	 * <p>
@@ -157,9 +325,91 @@ public abstract class AbstractReporter implements Formatter {
 	 * Manipulations before the launch starts
 	 */
 	protected void beforeLaunch() {
+		launchThread = Thread.currentThread();
+		CURRENT_SESSION.set(session);
+		ACTIVE_SESSIONS.add(session);
 		startLaunch();
-		Maybe<String> launchId = launch.get().start();
-		ITEM_TREE.setLaunchId(launchId);
+		config = buildReporterConfig(properties.get(), getReporterParameters());
+		openScenarioHistory();
+		if (config.isGluePreScan() && !config.getGluePackages().isEmpty()) {
+			stepDefinitions.get().scan(config.getGluePackages(), getClass().getClassLoader());
+		}
+		if (config.isWarmUp()) {
+			final Supplier<Launch> myLaunch = launch;
+			CompletableFuture<Launch> startedLaunch = CompletableFuture.supplyAsync(() -> {
+				Launch l = myLaunch.get();
+				Maybe<String> launchId = l.start();
+				updateItemTrees(tree -> tree.setLaunchId(launchId));
+				return l;
+			});
+			launch = () -> join(startedLaunch);
+		} else {
+			Maybe<String> launchId = launch.get().start();
+			updateItemTrees(tree -> tree.setLaunchId(launchId));
+		}
+	}
+
+	// in warm-up mode the client is still being built, so the parameters are loaded from agent properties instead of waiting for it
+	@Nonnull
+	private ListenerParameters getReporterParameters() {
+		if (reportPortalSupplier == null) {
+			return launch.get().getParameters();
+		}
+		return isWarmUpEnabled() ? new ListenerParameters(properties.get()) : reportPortalSupplier.get().getParameters();
+	}
+
+	/**
+	 * Returns if the launch, ReportPortal client and mime-type detectors should be initialized in parallel and in background, see
+	 * {@link ReporterProperty#WARM_UP}. In that case {@link #buildReportPortal()} is called outside of Cucumber's thread, and
+	 * {@link ReporterConfig} is resolved from agent properties, so client parameters customized in {@link #buildReportPortal()}
+	 * are not taken into account by the configuration.
+	 *
+	 * @return true if warm-up is enabled
+	 */
+	protected boolean isWarmUpEnabled() {
+		return ReporterProperty.WARM_UP.getValue(properties.get(), false);
+	}
+
+	/**
+	 * Extension point to customize reporter configuration, which is resolved once on launch start
+	 *
+	 * @param properties agent properties
+	 * @param parameters ReportPortal client parameters
+	 * @return reporter configuration
+	 */
+	@Nonnull
+	protected ReporterConfig buildReporterConfig(@Nonnull PropertiesLoader properties, @Nonnull ListenerParameters parameters) {
+		return new ReporterConfig(properties, parameters);
+	}
+
+	/**
+	 * Returns reporter configuration resolved on launch start
+	 *
+	 * @return reporter configuration
+	 */
+	protected ReporterConfig getConfig() {
+		return config;
+	}
+
+	@Nonnull
+	private static ThreadFactory daemonThreadFactory(@Nonnull String name) {
+		return r -> {
+			Thread t = new Thread(r, name);
+			t.setDaemon(true);
+			return t;
+		};
+	}
+
+	private static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw e;
+		}
 	}
 
 	/**
@@ -175,14 +425,126 @@ public abstract class AbstractReporter implements Formatter {
 	 * Finish RP launch
 	 */
 	protected void afterLaunch() {
+		closeScenarioHistory();
+		if (getConfig().isFailureClustering() && !failureIndex.get().isEmpty()) {
+			ReportPortal.emitLaunchLog(failureIndex.get().summary(), "INFO", Calendar.getInstance().getTime());
+		}
+		// a shard leaves the rendezvous when the client sends the launch finish request, which happens only after all items and
+		// logs of the shard are reported, see suppressibleLaunchFinish(ReportPortalClient)
 		FinishExecutionRQ finishLaunchRq = new FinishExecutionRQ();
 		finishLaunchRq.setEndTime(Calendar.getInstance().getTime());
 		launch.get().finish(finishLaunchRq);
+		boolean finishLaunch = true;
+		LaunchRendezvous rendezvous = launchRendezvous;
+		if (rendezvous != null) {
+			if (lastShard.get() == null) {
+				LOGGER.warn("Test items were not reported in time, leaving the shared launch without finishing it");
+			}
+			finishLaunch = leaveLaunchRendezvous(rendezvous);
+		}
+		recordFeatureDurations();
+		if (finishLaunch) {
+			compactScenarioHistory();
+		}
+		if (launchDroppedAttachmentCount.get() > 0) {
+			LOGGER.warn("{} attachment(s) with total size of {} bytes were not reported since attachment budget was exceeded",
+					launchDroppedAttachmentCount.get(),
+					launchDroppedAttachmentSize.get()
+			);
+		}
+		attachmentHashes.clear();
+		stackTraceCompactor.get().clear();
+		tagAttributes.get().clear();
+		stepTestCaseIds.get().clear();
+		stepParameters.get().clear();
+		stepDefinitions.get().clear();
+		failureIndex.get().clear();
+		scenarioSampler.get().clear();
+		removeSpooledAttachments();
+		imageExecutor.shutdown();
+		parserExecutor.shutdown();
+		glueExecutor.shutdown();
+		session.clear();
+		ACTIVE_SESSIONS.remove(session);
+		CURRENT_SESSION.remove();
+	}
+
+	private void openScenarioHistory() {
+		String file = getConfig().getScenarioHistoryFile();
+		if (file == null) {
+			return;
+		}
+		try {
+			scenarioHistory = ScenarioHistory.open(Paths.get(file));
+		} catch (IOException e) {
+			LOGGER.warn("Unable to open scenario history: " + file, e);
+		}
+	}
+
+	private void recordScenarioHistory(@Nonnull String uri, int line, @Nonnull Result result, @Nullable Date endTime) {
+		ScenarioHistory history = scenarioHistory;
+		String status = mapItemStatus(result.getStatus());
+		if (history == null || status == null) {
+			return;
+		}
+		long duration = ofNullable(result.getDuration()).map(TimeUnit.NANOSECONDS::toMillis).orElse(0L);
+		long time = ofNullable(endTime).map(Date::getTime).orElseGet(System::currentTimeMillis);
+		try {
+			history.record(getCodeRef(uri, line), status, duration, time);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to record scenario history", e);
+		}
+	}
+
+	// should be called before leaving a launch rendezvous, so the last shard can compact the history safely
+	private void closeScenarioHistory() {
+		ScenarioHistory history = scenarioHistory;
+		if (history == null) {
+			return;
+		}
+		try {
+			history.close();
+		} catch (IOException e) {
+			LOGGER.warn("Unable to close scenario history", e);
+		}
+	}
+
+	private void compactScenarioHistory() {
+		String file = getConfig().getScenarioHistoryFile();
+		if (file == null || scenarioHistory == null) {
+			return;
+		}
+		scenarioHistory = null;
+		try {
+			ScenarioHistory.compact(Paths.get(file));
+		} catch (IOException e) {
+			LOGGER.warn("Unable to compact scenario history: " + file, e);
+		}
+	}
+
+	private void recordFeatureDurations() {
+		String file = getConfig().getFeatureDurationFile();
+		if (file == null || featureDurations.isEmpty()) {
+			return;
+		}
+		try {
+			FeatureDurationHistory.update(Paths.get(file), featureDurations);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to record feature durations to: " + file, e);
+		}
+		featureDurations.clear();
+	}
+
+	// the deprecated static tree is updated along with the session one, so callback steps written against it keep working
+	@SuppressWarnings("deprecation")
+	private void updateItemTrees(@Nonnull Consumer<TestItemTree> update) {
+		update.accept(session.getItemTree());
+		update.accept(ITEM_TREE);
 	}
 
 	private void addToTree(RunningContext.FeatureContext featureContext, RunningContext.ScenarioContext scenarioContext) {
-		retrieveLeaf(featureContext.getUri(), ITEM_TREE).ifPresent(suiteLeaf -> suiteLeaf.getChildItems()
-				.put(createKey(scenarioContext.getLine()), TestItemTree.createTestItemLeaf(scenarioContext.getId())));
+		updateItemTrees(tree -> retrieveLeaf(featureContext.getUri(), tree).ifPresent(suiteLeaf -> suiteLeaf.getChildItems()
+				.put(createKey(scenarioContext.getLine()), TestItemTree.createTestItemLeaf(scenarioContext.getId()))));
 	}
 
 	/**
@@ -201,7 +563,7 @@ public abstract class AbstractReporter implements Formatter {
 		String codeRef = getCodeRef(uri, line);
 		rq.setCodeRef(codeRef);
 		rq.setAttributes(extractPickleTags(testCase.getTags()));
-		rq.setStartTime(Calendar.getInstance().getTime());
+		rq.setStartTime(getEventTime());
 		String type = getScenarioTestItemType();
 		rq.setType(type);
 		if ("STEP".equals(type)) {
@@ -223,14 +585,14 @@ public abstract class AbstractReporter implements Formatter {
 				buildStartScenarioRequest(scenarioContext.getTestCase(), scenarioName, featureContext.getUri(), scenarioContext.getLine())
 		);
 		scenarioContext.setId(id);
-		if (myLaunch.getParameters().isCallbackReportingEnabled()) {
+		if (getConfig().isCallbackReportingEnabled()) {
 			addToTree(featureContext, scenarioContext);
 		}
 	}
 
 	private void removeFromTree(RunningContext.FeatureContext featureContext, RunningContext.ScenarioContext scenarioContext) {
-		retrieveLeaf(featureContext.getUri(), ITEM_TREE).ifPresent(suiteLeaf -> suiteLeaf.getChildItems()
-				.remove(createKey(scenarioContext.getLine())));
+		updateItemTrees(tree -> retrieveLeaf(featureContext.getUri(), tree).ifPresent(suiteLeaf -> suiteLeaf.getChildItems()
+				.remove(createKey(scenarioContext.getLine()))));
 	}
 
 	/**
@@ -241,18 +603,49 @@ public abstract class AbstractReporter implements Formatter {
 	 */
 	protected void afterScenario(TestCaseFinished event) {
 		RunningContext.ScenarioContext context = getCurrentScenarioContext();
+		reportSkippedSteps(context);
+		flushLogBuffer(context, event.result.getStatus());
+		if (context.getDroppedAttachmentCount() > 0) {
+			sendLog(String.format("%d attachment(s) with total size of %d bytes were not reported since attachment budget was exceeded",
+					context.getDroppedAttachmentCount(),
+					context.getDroppedAttachmentSize()
+			), "WARN");
+		}
 		String featureUri = context.getFeatureUri();
 		currentScenarioContextMap.remove(Pair.of(context.getLine(), featureUri));
 		Date endTime = finishTestItem(context.getId(), event.result.getStatus());
 		featureEndTime.put(featureUri, endTime);
+		if (getConfig().getFeatureDurationFile() != null && event.result.getDuration() != null) {
+			featureDurations.merge(featureUri, TimeUnit.NANOSECONDS.toMillis(event.result.getDuration()), Long::sum);
+		}
+		recordScenarioHistory(featureUri, context.getLine(), event.result, endTime);
 		currentScenarioContext.set(null);
 		removeFromTree(currentFeatureContextMap.get(context.getFeatureUri()), context);
+		context.clear();
 	}
 
 	/**
 	 * Start RP launch
 	 */
 	protected void startLaunch() {
+		final Supplier<ReportPortal> reportPortalSupplier;
+		final Supplier<Set<ItemAttributesRQ>> systemAttributesSupplier;
+		if (isWarmUpEnabled()) {
+			ExecutorService warmUpExecutor = Executors.newFixedThreadPool(WARM_UP_THREAD_NUMBER, daemonThreadFactory("rp-cucumber-warm-up"));
+			CompletableFuture<ReportPortal> reportPortal = CompletableFuture.supplyAsync(this::buildReportPortal, warmUpExecutor);
+			CompletableFuture<Set<ItemAttributesRQ>> systemAttributes = CompletableFuture.supplyAsync(this::getSystemAttributes,
+					warmUpExecutor
+			);
+			CompletableFuture.runAsync(this::warmUpMimeTypes, warmUpExecutor);
+			warmUpExecutor.shutdown();
+			reportPortalSupplier = () -> join(reportPortal);
+			systemAttributesSupplier = () -> join(systemAttributes);
+		} else {
+			reportPortalSupplier = new MemoizingSupplier<>(this::buildReportPortal);
+			systemAttributesSupplier = this::getSystemAttributes;
+		}
+		this.reportPortalSupplier = reportPortalSupplier;
+
 		launch = new MemoizingSupplier<>(new Supplier<Launch>() {
 
 			/* should not be lazy */
@@ -260,8 +653,13 @@ public abstract class AbstractReporter implements Formatter {
 
 			@Override
 			public Launch get() {
-				final ReportPortal reportPortal = buildReportPortal();
+				ReportPortal reportPortal = reportPortalSupplier.get();
 				ListenerParameters parameters = reportPortal.getParameters();
+				LaunchRendezvous rendezvous = Boolean.FALSE.equals(parameters.getEnable()) ? null : buildLaunchRendezvous();
+				if (rendezvous != null) {
+					reportPortal = ReportPortal.create(suppressibleLaunchFinish(reportPortal.getClient()), parameters);
+				}
+				session.setReportPortal(reportPortal);
 
 				StartLaunchRQ rq = new StartLaunchRQ();
 				rq.setName(parameters.getLaunchName());
@@ -269,7 +667,7 @@ public abstract class AbstractReporter implements Formatter {
 				rq.setMode(parameters.getLaunchRunningMode());
 				Set<ItemAttributesRQ> attributes = new HashSet<>(parameters.getAttributes());
 				rq.setAttributes(attributes);
-				attributes.addAll(SystemAttributesExtractor.extract(AGENT_PROPERTIES_FILE, AbstractReporter.class.getClassLoader()));
+				attributes.addAll(systemAttributesSupplier.get());
 				rq.setDescription(parameters.getDescription());
 				rq.setRerun(parameters.isRerun());
 				if (isNotBlank(parameters.getRerunOf())) {
@@ -284,11 +682,96 @@ public abstract class AbstractReporter implements Formatter {
 					attributes.add(skippedIssueAttribute);
 				}
 
-				return reportPortal.newLaunch(rq);
+				if (rendezvous == null) {
+					return reportPortal.newLaunch(rq);
+				}
+				launchRendezvous = rendezvous;
+				ReportPortal shardReportPortal = reportPortal;
+				String launchUuid = rendezvous.join(() -> shardReportPortal.newLaunch(rq).start().blockingGet());
+				return reportPortal.withLaunch(Maybe.just(launchUuid));
 			}
 		});
 	}
 
+	/**
+	 * Wraps the client so the shard leaves the launch rendezvous right before the launch finish request. The client sends the
+	 * request only after all items and logs of the launch are reported, and the request is not sent if the shard is not the
+	 * last one. All other calls are passed through.
+	 *
+	 * @param client ReportPortal client
+	 * @return the wrapped client
+	 */
+	@Nonnull
+	private ReportPortalClient suppressibleLaunchFinish(@Nonnull ReportPortalClient client) {
+		return (ReportPortalClient) Proxy.newProxyInstance(ReportPortalClient.class.getClassLoader(),
+				new Class<?>[] { ReportPortalClient.class },
+				(proxy, method, args) -> {
+					LaunchRendezvous rendezvous = launchRendezvous;
+					if ("finishLaunch".equals(method.getName()) && rendezvous != null && !leaveLaunchRendezvous(rendezvous)) {
+						return Maybe.just(new OperationCompletionRS());
+					}
+					try {
+						return method.invoke(client, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				}
+		);
+	}
+
+	/**
+	 * Extension point to customize how parallel shards of the run (e.g. JVM forks) share one launch. By default a
+	 * {@link FileLaunchRendezvous} is used if {@link ReporterProperty#SHARD_FILE} is set, or a {@link FixedLaunchRendezvous}
+	 * if only {@link ReporterProperty#SHARD_LAUNCH_UUID} is set. If both are set shards report into the given launch and the last
+	 * one finishes it.
+	 *
+	 * @return the rendezvous or null if the launch is not shared
+	 */
+	@Nullable
+	protected LaunchRendezvous buildLaunchRendezvous() {
+		ReporterConfig myConfig = getConfig();
+		String launchUuid = myConfig.getShardLaunchUuid();
+		if (isNotBlank(myConfig.getShardFile())) {
+			LaunchRendezvous fileRendezvous = new FileLaunchRendezvous(Paths.get(myConfig.getShardFile()),
+					myConfig.getShardNumber(),
+					myConfig.getShardStaleTimeout()
+			);
+			return isNotBlank(launchUuid) ? new LaunchRendezvous() {
+				@Nonnull
+				@Override
+				public String join(@Nonnull Supplier<String> launchStarter) {
+					return fileRendezvous.join(() -> launchUuid);
+				}
+
+				@Override
+				public boolean leave() {
+					return fileRendezvous.leave();
+				}
+			} : fileRendezvous;
+		}
+		return isNotBlank(launchUuid) ? new FixedLaunchRendezvous(launchUuid) : null;
+	}
+
+	/**
+	 * Leaves the launch rendezvous once, subsequent calls return the result of the first one
+	 *
+	 * @param rendezvous the launch rendezvous
+	 * @return true if the shard is the last one and should finish the launch
+	 */
+	private boolean leaveLaunchRendezvous(@Nonnull LaunchRendezvous rendezvous) {
+		synchronized (lastShard) {
+			if (lastShard.get() == null) {
+				lastShard.set(rendezvous.leave());
+			}
+			return lastShard.get();
+		}
+	}
+
+	@Nonnull
+	private Set<ItemAttributesRQ> getSystemAttributes() {
+		return SystemAttributesExtractor.extract(AGENT_PROPERTIES_FILE, AbstractReporter.class.getClassLoader());
+	}
+
 	/**
 	 * Extension point to customize test creation event/request
 	 *
@@ -301,7 +784,7 @@ public abstract class AbstractReporter implements Formatter {
 		StartTestItemRQ rq = new StartTestItemRQ();
 		rq.setName(Utils.buildName(stepPrefix, keyword, getStepName(testStep)));
 		rq.setDescription(buildMultilineArgument(testStep));
-		rq.setStartTime(Calendar.getInstance().getTime());
+		rq.setStartTime(getEventTime());
 		rq.setType("STEP");
 		String codeRef = getCodeRef(testStep);
 		rq.setParameters(getParameters(codeRef, testStep));
@@ -326,7 +809,7 @@ public abstract class AbstractReporter implements Formatter {
 		String stepText = step.getText();
 		context.setCurrentText(stepText);
 
-		if (myLaunch.getParameters().isCallbackReportingEnabled()) {
+		if (getConfig().isCallbackReportingEnabled()) {
 			addToTree(context, stepText, stepId);
 		}
 	}
@@ -339,6 +822,10 @@ public abstract class AbstractReporter implements Formatter {
 	protected void afterStep(Result result) {
 		reportResult(result, null);
 		RunningContext.ScenarioContext context = getCurrentScenarioContext();
+		if (result.getStatus() == Result.Type.FAILED) {
+			context.setFailed(true);
+			indexFailure(context, result);
+		}
 		launch.get().getStepReporter().finishPreviousStep();
 		finishTestItem(context.getCurrentStepId(), result.getStatus());
 		context.setCurrentStepId(null);
@@ -355,7 +842,7 @@ public abstract class AbstractReporter implements Formatter {
 		Pair<String, String> typeName = getHookTypeAndName(hookType);
 		rq.setType(typeName.getKey());
 		rq.setName(typeName.getValue());
-		rq.setStartTime(Calendar.getInstance().getTime());
+		rq.setStartTime(getEventTime());
 		return rq;
 	}
 
@@ -397,7 +884,18 @@ public abstract class AbstractReporter implements Formatter {
 	 */
 	protected void hookFinished(HookTestStep step, Result result, Boolean isBefore) {
 		reportResult(result, (isBefore ? "Before" : "After") + " hook: " + step.getCodeLocation());
-		getCurrentScenarioContext().setHookStatus(result.getStatus());
+		RunningContext.ScenarioContext context = getCurrentScenarioContext();
+		context.setHookStatus(result.getStatus());
+		if (result.getStatus() == Result.Type.FAILED) {
+			context.setFailed(true);
+			indexFailure(context, result);
+		}
+	}
+
+	private void indexFailure(@Nonnull RunningContext.ScenarioContext context, @Nonnull Result result) {
+		if (result.getError() != null && getConfig().isFailureClustering()) {
+			failureIndex.get().add(result.getError(), getCodeRef(context.getFeatureUri(), context.getLine()));
+		}
 	}
 
 	/**
@@ -427,6 +925,10 @@ public abstract class AbstractReporter implements Formatter {
 		if (message != null) {
 			sendLog(message, level);
 		}
+		if (result.getError() != null && getConfig().isStackTraceCompaction()) {
+			sendLog(stackTraceCompactor.get().compact(result.getError()), level);
+			return;
+		}
 		String errorMessage = result.getErrorMessage();
 		if (errorMessage != null) {
 			sendLog(errorMessage, level);
@@ -435,15 +937,21 @@ public abstract class AbstractReporter implements Formatter {
 		}
 	}
 
-	private static final ThreadLocal<Tika> TIKA_THREAD_LOCAL = ThreadLocal.withInitial(Tika::new);
+	/**
+	 * Lazy holder of the shared mime-type registry. {@link MimeTypes} is immutable once loaded and is a thread-safe
+	 * {@link org.apache.tika.detect.Detector} by itself, so there is no need to build a full {@link org.apache.tika.Tika}
+	 * facade (and its detector configuration) for every thread.
+	 */
+	private static final class MimeTypesHolder {
+		private static final MimeTypes MIME_TYPES = MimeTypes.getDefaultMimeTypes();
+	}
 
-	private volatile MimeTypes mimeTypes = null;
+	private static MimeTypes getMimeTypes() {
+		return MimeTypesHolder.MIME_TYPES;
+	}
 
-	private MimeTypes getMimeTypes() {
-		if (mimeTypes == null) {
-			mimeTypes = MimeTypes.getDefaultMimeTypes();
-		}
-		return mimeTypes;
+	private void warmUpMimeTypes() {
+		getMimeTypes();
 	}
 
 	/**
@@ -453,9 +961,21 @@ public abstract class AbstractReporter implements Formatter {
 	 * @param data     data to attach
 	 */
 	protected void embedding(String mimeType, byte[] data) {
+		ReporterConfig myConfig = getConfig();
+		String hash = myConfig.isAttachmentDeduplication() ? hash(data) : null;
+		if (hash != null && logDuplicate(hash, attachmentHashes.get(hash))) {
+			return;
+		}
+		if (!isWithinAttachmentBudget(mimeType, data.length)) {
+			return;
+		}
+		// an attachment is registered only once it's accepted, so duplicates never point to an attachment which was not sent
+		if (hash != null && logDuplicate(hash, attachmentHashes.putIfAbsent(hash, getEmbeddingLocation()))) {
+			return;
+		}
 		String type = mimeType;
 		try {
-			type = TIKA_THREAD_LOCAL.get().detect(new ByteArrayInputStream(data));
+			type = getMimeTypes().detect(new ByteArrayInputStream(data), new Metadata()).toString();
 		} catch (IOException e) {
 			// nothing to do we will use bypassed mime type
 			LOGGER.warn("Mime-type not found", e);
@@ -467,7 +987,366 @@ public abstract class AbstractReporter implements Formatter {
 		} catch (MimeTypeException e) {
 			LOGGER.warn("Mime-type not found", e);
 		}
-		ReportPortal.emitLog(new ReportPortalMessage(ByteSource.wrap(data), type, prefix), "UNKNOWN", Calendar.getInstance().getTime());
+		Date time = getEventTime();
+		ByteSource source = null;
+		if (isCompressible(type, data.length)) {
+			try {
+				source = compress(data);
+				type = GZIP_MIME_TYPE;
+				prefix = prefix + " (gzip)";
+			} catch (IOException | RuntimeException e) {
+				LOGGER.warn("Unable to compress an attachment, it will be sent as is", e);
+			}
+		} else if (isImageProcessingApplicable(type)) {
+			String targetType = myConfig.getImageQuality() > 0 ? JPEG_MIME_TYPE : type;
+			emitLog(prefix, "UNKNOWN", time, processImage(data, type, targetType));
+			return;
+		}
+		if (source == null) {
+			source = toByteSource(data);
+		}
+		emitLog(prefix, "UNKNOWN", time, source, type);
+	}
+
+	/**
+	 * Reports a reference to the first copy of an attachment instead of the attachment
+	 *
+	 * @param hash           the attachment hash
+	 * @param firstEmbedding location of the first copy or null if the attachment was not sent yet
+	 * @return true if the attachment is a duplicate and the reference was reported
+	 */
+	private boolean logDuplicate(@Nonnull String hash, @Nullable String firstEmbedding) {
+		if (firstEmbedding == null) {
+			return false;
+		}
+		sendLog(String.format("Attachment (%s: %s) is a duplicate of the one attached in: %s",
+				ATTACHMENT_HASH_ALGORITHM,
+				hash,
+				firstEmbedding
+		));
+		return true;
+	}
+
+	private boolean isCompressible(@Nullable String mimeType, int size) {
+		long threshold = getConfig().getAttachmentCompressionThreshold();
+		if (mimeType == null || threshold <= 0 || size < threshold) {
+			return false;
+		}
+		String baseType = mimeType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+		return getConfig().getAttachmentCompressionTypes().stream().anyMatch(t -> {
+			if (t.endsWith(MIME_TYPE_WILDCARD)) {
+				return baseType.startsWith(t.substring(0, t.length() - 1));
+			}
+			return baseType.equals(t);
+		});
+	}
+
+	/**
+	 * Compresses attachment data with gzip. The data is compressed directly into a temporary file if it should be spooled (see
+	 * {@link ReporterConfig#getAttachmentSpoolThreshold()}), or into memory otherwise.
+	 *
+	 * @param data attachment data
+	 * @return a byte source with compressed data
+	 * @throws IOException in case of compression or file errors
+	 */
+	@Nonnull
+	protected ByteSource compress(@Nonnull byte[] data) throws IOException {
+		int level = getConfig().getAttachmentCompressionLevel();
+		long spoolThreshold = getConfig().getAttachmentSpoolThreshold();
+		if (spoolThreshold > 0 && data.length >= spoolThreshold) {
+			Path file = createSpoolFile();
+			try (OutputStream os = new LevelGzipOutputStream(Channels.newOutputStream(FileChannel.open(file, StandardOpenOption.WRITE)),
+					level
+			)) {
+				os.write(data);
+			} catch (IOException | RuntimeException e) {
+				Files.deleteIfExists(file);
+				throw e;
+			}
+			return new FileByteSource(file, Files.size(file));
+		}
+		ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(data.length / 4, 512));
+		try (OutputStream os = new LevelGzipOutputStream(result, level)) {
+			os.write(data);
+		}
+		return ByteSource.wrap(result.toByteArray());
+	}
+
+	private boolean isImageProcessingApplicable(@Nullable String mimeType) {
+		if (mimeType == null || !mimeType.startsWith(IMAGE_MIME_TYPE_PREFIX) || (getConfig().getImageMaxDimension() <= 0
+				&& getConfig().getImageQuality() <= 0)) {
+			return false;
+		}
+		// keep original screenshots of failures
+		RunningContext.ScenarioContext context = getCurrentScenarioContext();
+		return context == null || !context.isFailed();
+	}
+
+	/**
+	 * Downscales and re-encodes an image in background. The result is spooled like any other attachment, see
+	 * {@link #toByteSource(byte[])}. If the image can't be processed the original data is sent with its original mime type.
+	 *
+	 * @param data           image data
+	 * @param mimeType       mime type of the image data
+	 * @param targetMimeType target mime type
+	 * @return a future of the processed image and its actual mime type
+	 */
+	@Nonnull
+	protected CompletableFuture<Attachment> processImage(@Nonnull byte[] data, @Nonnull String mimeType,
+			@Nonnull String targetMimeType) {
+		int maxDimension = getConfig().getImageMaxDimension();
+		int quality = getConfig().getImageQuality();
+		return CompletableFuture.supplyAsync(() -> {
+			ImageUtils.Image image;
+			try {
+				image = ImageUtils.process(data, mimeType, targetMimeType, maxDimension, quality);
+			} catch (IOException | RuntimeException e) {
+				LOGGER.warn("Unable to process an image attachment, it will be sent as is", e);
+				image = new ImageUtils.Image(data, mimeType);
+			}
+			return new Attachment(toByteSource(image.getData()), image.getMimeType());
+		}, imageExecutor);
+	}
+
+	/**
+	 * Attachment data with its mime type
+	 */
+	protected static final class Attachment {
+		private final ByteSource data;
+		private final String mimeType;
+
+		public Attachment(@Nonnull ByteSource data, @Nullable String mimeType) {
+			this.data = data;
+			this.mimeType = mimeType;
+		}
+
+		@Nonnull
+		public ByteSource getData() {
+			return data;
+		}
+
+		@Nullable
+		public String getMimeType() {
+			return mimeType;
+		}
+	}
+
+	private static final class LevelGzipOutputStream extends GZIPOutputStream {
+		private LevelGzipOutputStream(@Nonnull OutputStream out, int level) throws IOException {
+			super(out);
+			def.setLevel(level);
+		}
+	}
+
+	/**
+	 * Wraps attachment data into a source which is passed to ReportPortal client. Data bigger than
+	 * {@link ReporterConfig#getAttachmentSpoolThreshold()} is written to a temporary file, so the client does not hold the byte
+	 * array until the attachment is sent.
+	 *
+	 * @param data attachment data
+	 * @return memory or file based byte source
+	 */
+	@Nonnull
+	protected ByteSource toByteSource(@Nonnull byte[] data) {
+		long threshold = getConfig().getAttachmentSpoolThreshold();
+		if (threshold <= 0 || data.length < threshold) {
+			return ByteSource.wrap(data);
+		}
+		try {
+			Path file = createSpoolFile();
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				ByteBuffer buffer = ByteBuffer.wrap(data);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			return new FileByteSource(file, data.length);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to spool an attachment to a temporary file, it will be kept in memory", e);
+			return ByteSource.wrap(data);
+		}
+	}
+
+	/**
+	 * Creates a temporary file for a spooled attachment. The file is removed once the launch is finished.
+	 *
+	 * @return an empty temporary file
+	 * @throws IOException in case of file creation errors
+	 */
+	@Nonnull
+	protected Path createSpoolFile() throws IOException {
+		Path file = Files.createTempFile(SPOOL_FILE_PREFIX, SPOOL_FILE_SUFFIX);
+		file.toFile().deleteOnExit();
+		spooledAttachments.add(file);
+		return file;
+	}
+
+	private void removeSpooledAttachments() {
+		Path file;
+		while ((file = spooledAttachments.poll()) != null) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				LOGGER.warn("Unable to remove a temporary attachment file: " + file, e);
+			}
+		}
+	}
+
+	/**
+	 * A byte source which reads an attachment from a file through a {@link FileChannel}
+	 */
+	private static final class FileByteSource extends ByteSource {
+		private final Path file;
+		private final long size;
+
+		private FileByteSource(@Nonnull Path file, long size) {
+			this.file = file;
+			this.size = size;
+		}
+
+		@Override
+		public InputStream openStream() throws IOException {
+			return Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ));
+		}
+
+		@Override
+		public long size() {
+			return size;
+		}
+	}
+
+	private static boolean isWithinLimits(long count, long size, long addition, long countLimit, long sizeLimit) {
+		return (countLimit <= 0 || count < countLimit) && (sizeLimit <= 0 || size + addition <= sizeLimit);
+	}
+
+	/**
+	 * Adds a value to a counter if the result does not exceed the limit. The check and the update are done in one CAS loop, so
+	 * concurrent threads can't exceed the limit together.
+	 *
+	 * @param counter  a counter to update
+	 * @param addition a value to add
+	 * @param limit    the limit, '0' or less means no limit
+	 * @return true if the value was added
+	 */
+	private static boolean reserve(@Nonnull AtomicLong counter, long addition, long limit) {
+		if (limit <= 0) {
+			counter.addAndGet(addition);
+			return true;
+		}
+		long current;
+		do {
+			current = counter.get();
+			if (current + addition > limit) {
+				return false;
+			}
+		} while (!counter.compareAndSet(current, current + addition));
+		return true;
+	}
+
+	/**
+	 * Reserves an attachment in the launch budget, which is shared by all Cucumber threads
+	 *
+	 * @param config reporter configuration
+	 * @param size   an attachment size in bytes
+	 * @return true if the attachment is within the budget and was counted into it
+	 */
+	private boolean reserveLaunchAttachment(@Nonnull ReporterConfig config, int size) {
+		if (!reserve(launchAttachmentCount, 1, config.getLaunchAttachmentCount())) {
+			return false;
+		}
+		if (!reserve(launchAttachmentSize, size, config.getLaunchAttachmentSize())) {
+			launchAttachmentCount.decrementAndGet();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks scenario and launch attachment budgets and applies {@link ReporterConfig#getAttachmentOverflowPolicy()} if any of them is
+	 * exceeded. Accepted attachments are counted into the budgets, attachments which the policy does not send are counted as
+	 * dropped.
+	 *
+	 * @param mimeType an attachment type
+	 * @param size     an attachment size in bytes
+	 * @return true if the attachment should be reported
+	 */
+	protected boolean isWithinAttachmentBudget(@Nullable String mimeType, int size) {
+		ReporterConfig myConfig = getConfig();
+		RunningContext.ScenarioContext context = getCurrentScenarioContext();
+		// a scenario context is used by one thread at a time, so only the launch budget needs an atomic reservation
+		boolean scenarioBudget = context == null || isWithinLimits(context.getAttachmentCount(),
+				context.getAttachmentSize(),
+				size,
+				myConfig.getScenarioAttachmentCount(),
+				myConfig.getScenarioAttachmentSize()
+		);
+		if (scenarioBudget && reserveLaunchAttachment(myConfig, size)) {
+			if (context != null) {
+				context.addAttachment(size);
+			}
+			return true;
+		}
+
+		AttachmentOverflowPolicy policy = myConfig.getAttachmentOverflowPolicy();
+		if (policy == AttachmentOverflowPolicy.SAMPLE && context != null) {
+			int rate = myConfig.getAttachmentOverflowSampleRate();
+			if (rate > 0 && context.nextOverflowAttachment() % rate == 0) {
+				return true;
+			}
+		}
+		dropAttachment(context, mimeType, size, policy);
+		return false;
+	}
+
+	/**
+	 * Counts an attachment which was not sent by the overflow policy into scenario and launch dropped counters
+	 *
+	 * @param context  current scenario context if any
+	 * @param mimeType an attachment type
+	 * @param size     an attachment size in bytes
+	 * @param policy   the overflow policy
+	 */
+	private void dropAttachment(@Nullable RunningContext.ScenarioContext context, @Nullable String mimeType, int size,
+			@Nonnull AttachmentOverflowPolicy policy) {
+		if (context != null) {
+			context.addDroppedAttachment(size);
+		}
+		launchDroppedAttachmentCount.incrementAndGet();
+		launchDroppedAttachmentSize.addAndGet(size);
+		if (policy == AttachmentOverflowPolicy.SUMMARIZE) {
+			sendLog(String.format("Attachment of type '%s' and size of %d bytes was not reported since attachment budget was exceeded",
+					mimeType,
+					size
+			), "WARN");
+		}
+	}
+
+	@Nonnull
+	private String getEmbeddingLocation() {
+		RunningContext.ScenarioContext context = getCurrentScenarioContext();
+		if (context == null) {
+			return "unknown location";
+		}
+		String location = getCodeRef(context.getFeatureUri(), context.getLine());
+		String stepText = context.getCurrentText();
+		return stepText == null ? location : location + " (" + stepText + ")";
+	}
+
+	@Nullable
+	private static String hash(@Nonnull byte[] data) {
+		byte[] digest;
+		try {
+			digest = MessageDigest.getInstance(ATTACHMENT_HASH_ALGORITHM).digest(data);
+		} catch (NoSuchAlgorithmException e) {
+			LOGGER.warn("Unable to calculate attachment hash", e);
+			return null;
+		}
+		char[] result = new char[digest.length * 2];
+		for (int i = 0; i < digest.length; i++) {
+			result[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+			result[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+		}
+		return new String(result);
 	}
 
 	/**
@@ -497,7 +1376,130 @@ public abstract class AbstractReporter implements Formatter {
 	 * @param level   a log level, see standard Log4j / logback logging levels
 	 */
 	protected void sendLog(final String message, final String level) {
-		ReportPortal.emitLog(message, level, Calendar.getInstance().getTime());
+		sendLog(message, level, getEventTime());
+	}
+
+	/**
+	 * Send a text log entry to Report Portal
+	 *
+	 * @param message a text message
+	 * @param level   a log level, see standard Log4j / logback logging levels
+	 * @param time    a log timestamp
+	 */
+	protected void sendLog(final String message, final String level, final Date time) {
+		emitLog(message, level, time, null, null);
+	}
+
+	/**
+	 * Emits a log to the current item, or to the item of the log target if a buffered log is replayed
+	 *
+	 * @param message  a log message
+	 * @param level    a log level
+	 * @param time     a log time, a replayed log uses the time of the log target instead
+	 * @param data     attachment data or null if there is no attachment
+	 * @param mimeType attachment mime type
+	 */
+	private void emitLog(@Nullable String message, @Nonnull String level, @Nonnull Date time, @Nullable ByteSource data,
+			@Nullable String mimeType) {
+		emitLog(message, level, time, data == null ? null : CompletableFuture.completedFuture(new Attachment(data, mimeType)));
+	}
+
+	/**
+	 * Emits a log with an attachment which may still be in progress, the log request is built once the attachment is ready
+	 *
+	 * @param message    a log message
+	 * @param level      a log level
+	 * @param time       a log time, a replayed log uses the time of the log target instead
+	 * @param attachment a future of the attachment or null if there is no attachment
+	 */
+	private void emitLog(@Nullable String message, @Nonnull String level, @Nonnull Date time,
+			@Nullable CompletableFuture<Attachment> attachment) {
+		LogTarget target = logTarget.get();
+		if (target == null && (attachment == null || attachment.isDone())) {
+			if (attachment == null) {
+				ReportPortal.emitLog(message, level, time);
+			} else {
+				Attachment a = join(attachment);
+				ReportPortal.emitLog(new ReportPortalMessage(a.getData(), a.getMimeType(), message), level, time);
+			}
+			return;
+		}
+		Maybe<String> targetItemId = target == null ? null : target.itemId;
+		Date logTime = target == null ? time : target.time;
+		ReportPortal.emitLog(itemUuid -> {
+			SaveLogRQ rq = new SaveLogRQ();
+			rq.setItemUuid(targetItemId == null ? itemUuid : targetItemId.blockingGet());
+			rq.setLevel(level);
+			rq.setLogTime(logTime);
+			rq.setMessage(message);
+			if (attachment != null) {
+				try {
+					Attachment a = join(attachment);
+					SaveLogRQ.File file = new SaveLogRQ.File();
+					file.setName(UUID.randomUUID().toString());
+					file.setContentType(a.getMimeType());
+					file.setContent(a.getData().read());
+					rq.setFile(file);
+				} catch (IOException | RuntimeException e) {
+					LOGGER.warn("Unable to read an attachment, the log will be sent without it", e);
+				}
+			}
+			return rq;
+		});
+	}
+
+	/**
+	 * Puts a log into the current scenario buffer if failure-only logging is enabled. The current step (or hook) item and time
+	 * are remembered with the log, so once it's replayed it's reported to the same item with the same time.
+	 *
+	 * @param log  a deferred log action
+	 * @param size size of the log data in bytes, it's counted against {@link ReporterConfig#getLogBufferBytes()}
+	 * @return true if the log was buffered, false if it should be reported immediately
+	 */
+	private boolean bufferLog(@Nonnull Runnable log, long size) {
+		if (!getConfig().isFailureOnlyLogging()) {
+			return false;
+		}
+		RunningContext.ScenarioContext context = getCurrentScenarioContext();
+		if (context == null) {
+			return false;
+		}
+		Maybe<String> itemId = ofNullable(context.getHookStepId()).orElseGet(() -> ofNullable(context.getCurrentStepId()).orElse(
+				context.getId()));
+		LogTarget target = new LogTarget(itemId, getEventTime());
+		context.bufferLog(() -> {
+			logTarget.set(target);
+			try {
+				log.run();
+			} finally {
+				logTarget.remove();
+			}
+		}, size, getConfig().getLogBufferSize(), getConfig().getLogBufferBytes());
+		return true;
+	}
+
+	/**
+	 * An item and a time of a buffered log
+	 */
+	private static final class LogTarget {
+		private final Maybe<String> itemId;
+		private final Date time;
+
+		private LogTarget(@Nonnull Maybe<String> itemId, @Nonnull Date time) {
+			this.itemId = itemId;
+			this.time = time;
+		}
+	}
+
+	private void flushLogBuffer(@Nonnull RunningContext.ScenarioContext context, @Nullable Result.Type status) {
+		List<Runnable> logs = context.drainLogBuffer();
+		if (status == null || !getConfig().getLogFlushStatuses().contains(status)) {
+			return;
+		}
+		if (context.getDiscardedLogCount() > 0) {
+			sendLog(String.format("%d earlier log entries were discarded due to log buffer overflow", context.getDiscardedLogCount()), "WARN");
+		}
+		logs.forEach(Runnable::run);
 	}
 
 	private boolean isBefore(TestStep step) {
@@ -539,23 +1541,132 @@ public abstract class AbstractReporter implements Formatter {
 	}
 
 	protected EventHandler<TestSourceRead> getTestSourceReadHandler() {
-		return event -> RunningContext.FeatureContext.addTestSourceReadEvent(event.uri, event);
+		return event -> {
+			if (getConfig() != null && getConfig().isFeaturePreParsing()) {
+				CompletableFuture<FeatureIndex> index = CompletableFuture.supplyAsync(() -> FeatureIndex.parse(event.uri, event.source),
+						parserExecutor
+				);
+				session.addFeatureIndex(event.uri, index::join);
+			} else {
+				session.addFeatureSource(event.uri, event.source);
+			}
+		};
 	}
 
 	protected EventHandler<TestCaseStarted> getTestCaseStartedHandler() {
-		return this::handleStartOfTestCase;
+		return event -> {
+			if (!scenarioSampler.get().isEnabled()) {
+				handleStartOfTestCase(event);
+				return;
+			}
+			// the feature is started anyway to keep its place in the launch and to hold the summary of dropped scenarios
+			getFeatureContext(event.testCase);
+			if (scenarioSampler.get().isSampled(event.testCase.getUri())) {
+				handleStartOfTestCase(event);
+			} else {
+				List<Runnable> events = new ArrayList<>();
+				events.add(withEventTime(() -> handleStartOfTestCase(event)));
+				deferredScenarioEvents.set(events);
+			}
+		};
 	}
 
 	protected EventHandler<TestStepStarted> getTestStepStartedHandler() {
-		return this::handleTestStepStarted;
+		return event -> {
+			if (!deferScenarioEvent(() -> handleTestStepStarted(event))) {
+				handleTestStepStarted(event);
+			}
+		};
 	}
 
 	protected EventHandler<TestStepFinished> getTestStepFinishedHandler() {
-		return this::handleTestStepFinished;
+		return event -> {
+			if (!deferScenarioEvent(() -> handleTestStepFinished(event))) {
+				handleTestStepFinished(event);
+			}
+		};
 	}
 
 	protected EventHandler<TestCaseFinished> getTestCaseFinishedHandler() {
-		return this::afterScenario;
+		return event -> {
+			try {
+				List<Runnable> events = deferredScenarioEvents.get();
+				if (events == null) {
+					afterScenario(event);
+				} else {
+					deferredScenarioEvents.remove();
+					if (event.result.getStatus() == Result.Type.PASSED) {
+						dropScenario(event);
+					} else {
+						events.forEach(Runnable::run);
+						afterScenario(event);
+					}
+				}
+				finishCompletedFeature(event.testCase);
+			} finally {
+				// worker threads are pooled and may outlive the launch, so they don't keep the session between test cases
+				if (Thread.currentThread() != launchThread) {
+					CURRENT_SESSION.remove();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Puts an event into the deferred events of the current scenario if it's out of sample
+	 *
+	 * @param event a deferred event handling action
+	 * @return true if the event was deferred, false if it should be handled immediately
+	 */
+	private boolean deferScenarioEvent(@Nonnull Runnable event) {
+		List<Runnable> events = deferredScenarioEvents.get();
+		if (events == null) {
+			return false;
+		}
+		events.add(withEventTime(event));
+		return true;
+	}
+
+	/**
+	 * Wraps a deferred event handling action, so once it's replayed its items and logs get the time the event happened
+	 *
+	 * @param event a deferred event handling action
+	 * @return the wrapped action
+	 */
+	@Nonnull
+	private Runnable withEventTime(@Nonnull Runnable event) {
+		Date time = Calendar.getInstance().getTime();
+		return () -> {
+			eventTime.set(time);
+			try {
+				event.run();
+			} finally {
+				eventTime.remove();
+			}
+		};
+	}
+
+	/**
+	 * Returns the time of the event which is being handled: the time the event happened if it was deferred and is replayed
+	 * now, or the current time otherwise
+	 *
+	 * @return the event time
+	 */
+	@Nonnull
+	protected Date getEventTime() {
+		return ofNullable(eventTime.get()).orElseGet(() -> Calendar.getInstance().getTime());
+	}
+
+	private void dropScenario(@Nonnull TestCaseFinished event) {
+		String featureUri = event.testCase.getUri();
+		scenarioSampler.get().addDropped(featureUri);
+		Date endTime = Calendar.getInstance().getTime();
+		featureEndTime.put(featureUri, endTime);
+		if (getConfig().getFeatureDurationFile() != null && event.result.getDuration() != null) {
+			featureDurations.merge(featureUri, TimeUnit.NANOSECONDS.toMillis(event.result.getDuration()), Long::sum);
+		}
+		// the scenario is not reported, but it was run, so it's recorded for fail-fast ordering and flakiness analysis
+		recordScenarioHistory(featureUri, event.testCase.getLine(), event.result, endTime);
 	}
 
 	protected EventHandler<TestRunFinished> getTestRunFinishedHandler() {
@@ -566,41 +1677,110 @@ public abstract class AbstractReporter implements Formatter {
 	}
 
 	protected EventHandler<EmbedEvent> getEmbedEventHandler() {
-		return event -> embedding(event.mimeType, event.data);
+		return event -> {
+			Runnable log = () -> {
+				if (!bufferLog(() -> embedding(event.mimeType, event.data), event.data.length)) {
+					embedding(event.mimeType, event.data);
+				}
+			};
+			if (!deferScenarioEvent(log)) {
+				log.run();
+			}
+		};
 	}
 
 	protected EventHandler<WriteEvent> getWriteEventHandler() {
-		return event -> sendLog(event.text);
+		return event -> {
+			Date time = Calendar.getInstance().getTime();
+			Runnable log = () -> {
+				if (!bufferLog(() -> sendLog(event.text, "INFO", time), event.text == null ? 0 : event.text.length())) {
+					sendLog(event.text, "INFO", time);
+				}
+			};
+			if (!deferScenarioEvent(log)) {
+				log.run();
+			}
+		};
 	}
 
 	private void removeFromTree(RunningContext.FeatureContext featureContext) {
-		ITEM_TREE.getTestItems().remove(createKey(featureContext.getUri()));
+		updateItemTrees(tree -> tree.getTestItems().remove(createKey(featureContext.getUri())));
 	}
 
 	protected void handleEndOfFeature() {
-		currentFeatureContextMap.values().forEach(f -> {
-			Date featureCompletionDateTime = featureEndTime.get(f.getUri());
-			finishFeature(f.getFeatureId(), featureCompletionDateTime);
-			removeFromTree(f);
-		});
+		currentFeatureContextMap.values().forEach(this::finishFeatureContext);
 		currentFeatureContextMap.clear();
+		featureEndTime.clear();
+	}
+
+	/**
+	 * Finishes a feature as soon as all its pickles are finished, see {@link ReporterProperty#FEATURE_EARLY_FINISH}. Features with
+	 * filtered out pickles are finished with the launch in {@link #handleEndOfFeature()}. The parsed feature source is kept until
+	 * the launch is finished, so a pickle which runs again starts a new feature context.
+	 *
+	 * @param testCase a finished test case
+	 */
+	private void finishCompletedFeature(@Nonnull TestCase testCase) {
+		if (!getConfig().isFeatureEarlyFinish()) {
+			return;
+		}
+		String uri = testCase.getUri();
+		RunningContext.FeatureContext featureContext = currentFeatureContextMap.get(uri);
+		if (featureContext != null && featureContext.finishPickle(testCase.getLine()) && currentFeatureContextMap.remove(uri,
+				featureContext
+		)) {
+			finishFeatureContext(featureContext);
+		}
+	}
+
+	private void finishFeatureContext(@Nonnull RunningContext.FeatureContext featureContext) {
+		String uri = featureContext.getUri();
+		int droppedCount = scenarioSampler.get().getDroppedCount(uri);
+		finishFeature(featureContext.getFeatureId(),
+				featureEndTime.remove(uri),
+				droppedCount > 0 ?
+						Collections.singleton(new ItemAttributesRQ(SAMPLED_OUT_ATTRIBUTE_KEY, String.valueOf(droppedCount))) :
+						null
+		);
+		scenarioSampler.get().remove(uri);
+		removeFromTree(featureContext);
 	}
 
 	private void addToTree(RunningContext.FeatureContext context) {
-		ITEM_TREE.getTestItems().put(createKey(context.getUri()), TestItemTree.createTestItemLeaf(context.getFeatureId()));
+		updateItemTrees(tree -> tree.getTestItems()
+				.put(createKey(context.getUri()), TestItemTree.createTestItemLeaf(context.getFeatureId())));
 	}
 
-	protected void handleStartOfTestCase(TestCaseStarted event) {
-		TestCase testCase = event.testCase;
-		RunningContext.FeatureContext newFeatureContext = new RunningContext.FeatureContext(testCase);
-		String featureUri = newFeatureContext.getUri();
-		RunningContext.FeatureContext featureContext = currentFeatureContextMap.computeIfAbsent(featureUri, u -> {
+	/**
+	 * Returns a context of the feature of the test case, the feature is started on the first call
+	 *
+	 * @param testCase a Cucumber's TestCase object
+	 * @return the feature context
+	 */
+	@Nonnull
+	private RunningContext.FeatureContext getFeatureContext(@Nonnull TestCase testCase) {
+		CURRENT_SESSION.set(session);
+		RunningContext.FeatureContext featureContext = currentFeatureContextMap.get(testCase.getUri());
+		if (featureContext != null) {
+			return featureContext;
+		}
+		FeatureIndex featureIndex = session.getFeatureIndex(testCase.getUri());
+		if (featureIndex == null) {
+			throw new IllegalStateException("Source of the feature was not read: " + testCase.getUri());
+		}
+		RunningContext.FeatureContext newFeatureContext = new RunningContext.FeatureContext(featureIndex);
+		return currentFeatureContextMap.computeIfAbsent(newFeatureContext.getUri(), u -> {
 			RunningContext.FeatureContext c = startFeatureContext(newFeatureContext);
-			if (launch.get().getParameters().isCallbackReportingEnabled()) {
+			if (getConfig().isCallbackReportingEnabled()) {
 				addToTree(c);
 			}
 			return c;
 		});
+	}
+
+	protected void handleStartOfTestCase(TestCaseStarted event) {
+		TestCase testCase = event.testCase;
+		RunningContext.FeatureContext featureContext = getFeatureContext(testCase);
 
 		if (!featureContext.getUri().equals(testCase.getUri())) {
 			throw new IllegalStateException("Scenario URI does not match Feature URI.");
@@ -609,48 +1789,125 @@ public abstract class AbstractReporter implements Formatter {
 		RunningContext.ScenarioContext newScenarioContext = featureContext.getScenarioContext(testCase);
 
 		Pair<Integer, String> scenarioLineFeatureURI = Pair.of(newScenarioContext.getLine(), featureContext.getUri());
-		RunningContext.ScenarioContext scenarioContext = currentScenarioContextMap.computeIfAbsent(scenarioLineFeatureURI, k -> {
-			currentScenarioContext.set(newScenarioContext);
-			return newScenarioContext;
-		});
+		RunningContext.ScenarioContext scenarioContext = currentScenarioContextMap.computeIfAbsent(scenarioLineFeatureURI,
+				k -> newScenarioContext
+		);
+		// events of a scenario are published on the thread which runs it, see ConcurrentStepReporter
+		currentScenarioContext.set(scenarioContext);
 
 		beforeScenario(featureContext, scenarioContext);
 	}
 
 	protected void handleTestStepStarted(TestStepStarted event) {
 		TestStep testStep = event.testStep;
+		RunningContext.ScenarioContext context = getCurrentScenarioContext();
 		if (testStep instanceof HookTestStep) {
-			beforeHooks(((HookTestStep) testStep).getHookType());
+			HookType hookType = ((HookTestStep) testStep).getHookType();
+			if (isCollapsed(context, hookType)) {
+				context.addSkippedHook(getHookTypeAndName(hookType).getValue() + ": " + testStep.getCodeLocation());
+				return;
+			}
+			if (hookType == HookType.After) {
+				reportSkippedSteps(context);
+			}
+			beforeHooks(hookType);
 		} else {
-			if (getCurrentScenarioContext().withBackground()) {
-				getCurrentScenarioContext().nextBackgroundStep();
+			if (context.withBackground()) {
+				context.nextBackgroundStep();
+			}
+			if (getConfig().isSkippedStepCollapsing() && context.isSkippingSteps()) {
+				Step step = context.getStep(testStep);
+				context.addSkippedStep(Utils.buildName(context.getStepPrefix(), step.getKeyword(), getStepName(testStep)));
+				return;
 			}
 			beforeStep(testStep);
 		}
 	}
 
 	protected void handleTestStepFinished(TestStepFinished event) {
+		RunningContext.ScenarioContext context = getCurrentScenarioContext();
 		if (event.testStep instanceof HookTestStep) {
 			HookTestStep testStep = (HookTestStep) event.testStep;
+			if (isCollapsed(context, testStep.getHookType())) {
+				return;
+			}
 			hookFinished(testStep, event.result, isBefore(event.testStep));
 			afterHooks(testStep.getHookType());
 		} else {
+			if (context.isSkippedStepCollapsing()) {
+				return;
+			}
 			afterStep(event.result);
 		}
+		if (isSkippingCause(event.result.getStatus())) {
+			context.setSkippingSteps(true);
+		}
+	}
+
+	/**
+	 * Cucumber skips the remaining steps of a scenario after any step or hook which neither passed nor was skipped itself: failed,
+	 * undefined, pending or ambiguous.
+	 */
+	private static boolean isSkippingCause(@Nonnull Result.Type status) {
+		return status != Result.Type.PASSED && status != Result.Type.SKIPPED;
+	}
+
+	/**
+	 * Step hooks of steps which are skipped after a failure are skipped too, so they are collapsed together with the steps.
+	 * Before-step hooks are collapsed once the remaining steps are skipped, after-step hooks - once their step is collapsed,
+	 * after-step hooks of the failed step itself are executed and reported.
+	 */
+	private boolean isCollapsed(@Nonnull RunningContext.ScenarioContext context, @Nonnull HookType hookType) {
+		if (hookType == HookType.BeforeStep) {
+			return getConfig().isSkippedStepCollapsing() && context.isSkippingSteps();
+		}
+		return hookType == HookType.AfterStep && context.isSkippedStepCollapsing();
+	}
+
+	/**
+	 * Extension point to customize the request of an item which replaces steps skipped after a failure
+	 *
+	 * @param stepCount number of skipped steps, without hooks
+	 * @param stepNames names of skipped steps and their step hooks in execution order
+	 * @return Request to ReportPortal
+	 */
+	@Nonnull
+	protected StartTestItemRQ buildStartSkippedStepsRequest(int stepCount, @Nonnull List<String> stepNames) {
+		StartTestItemRQ rq = new StartTestItemRQ();
+		rq.setName(String.format("%d skipped step(s)", stepCount));
+		rq.setDescription(String.join("\n", stepNames));
+		rq.setStartTime(getEventTime());
+		rq.setType("STEP");
+		return rq;
+	}
+
+	/**
+	 * Reports steps skipped after a failure as one skipped item, see {@link ReporterProperty#SKIPPED_STEP_COLLAPSING}
+	 *
+	 * @param context current scenario context
+	 */
+	protected void reportSkippedSteps(@Nonnull RunningContext.ScenarioContext context) {
+		int stepCount = context.getSkippedStepCount();
+		List<String> stepNames = context.drainSkippedSteps();
+		if (stepNames.isEmpty()) {
+			return;
+		}
+		Maybe<String> itemId = launch.get().startTestItem(context.getId(), buildStartSkippedStepsRequest(stepCount, stepNames));
+		finishTestItem(itemId, Result.Type.SKIPPED);
 	}
 
 	protected void addToTree(RunningContext.ScenarioContext scenarioContext, String text, Maybe<String> stepId) {
-		retrieveLeaf(scenarioContext.getFeatureUri(),
+		updateItemTrees(tree -> retrieveLeaf(scenarioContext.getFeatureUri(),
 				scenarioContext.getLine(),
-				ITEM_TREE
-		).ifPresent(scenarioLeaf -> scenarioLeaf.getChildItems().put(createKey(text), TestItemTree.createTestItemLeaf(stepId)));
+				tree
+		).ifPresent(scenarioLeaf -> scenarioLeaf.getChildItems().put(createKey(text), TestItemTree.createTestItemLeaf(stepId))));
 	}
 
 	protected void removeFromTree(RunningContext.ScenarioContext scenarioContext, String text) {
-		retrieveLeaf(scenarioContext.getFeatureUri(),
+		updateItemTrees(tree -> retrieveLeaf(scenarioContext.getFeatureUri(),
 				scenarioContext.getLine(),
-				ITEM_TREE
-		).ifPresent(scenarioLeaf -> scenarioLeaf.getChildItems().remove(createKey(text)));
+				tree
+		).ifPresent(scenarioLeaf -> scenarioLeaf.getChildItems().remove(createKey(text))));
 	}
 
 	/**
@@ -678,12 +1935,26 @@ public abstract class AbstractReporter implements Formatter {
 	 * @param dateTime a date and time object to use as feature end time
 	 */
 	protected void finishFeature(Maybe<String> itemId, Date dateTime) {
+		finishFeature(itemId, dateTime, null);
+	}
+
+	/**
+	 * Finish a feature item with attributes, which are known only at the end of the feature
+	 *
+	 * @param itemId     an ID of the item
+	 * @param dateTime   a date and time object to use as feature end time
+	 * @param attributes attributes to add to the feature item
+	 */
+	protected void finishFeature(Maybe<String> itemId, Date dateTime, @Nullable Set<ItemAttributesRQ> attributes) {
 		if (itemId == null) {
 			LOGGER.error("BUG: Trying to finish unspecified test item.");
 			return;
 		}
 		FinishTestItemRQ rq = new FinishTestItemRQ();
 		rq.setEndTime(dateTime);
+		if (attributes != null && !attributes.isEmpty()) {
+			rq.setAttributes(attributes);
+		}
 		launch.get().finishTestItem(itemId, rq);
 	}
 
@@ -710,8 +1981,8 @@ public abstract class AbstractReporter implements Formatter {
 		}
 		FinishTestItemRQ rq = new FinishTestItemRQ();
 		rq.setStatus(mapItemStatus(status));
-		Date currentDate = Calendar.getInstance().getTime();
-		rq.setEndTime(Calendar.getInstance().getTime());
+		Date currentDate = getEventTime();
+		rq.setEndTime(currentDate);
 		launch.get().finishTestItem(itemId, rq);
 		return currentDate;
 	}
@@ -788,56 +2059,49 @@ public abstract class AbstractReporter implements Formatter {
 	}
 
 	/**
-	 * Transform tags from Cucumber to RP format
+	 * Transform tags from Cucumber to RP format. Attributes are cached by tag names and shared between items, the result is a
+	 * copy-on-write view of the cached ones: it can be modified, and the attributes are copied only on the first modification.
 	 *
 	 * @param tags - Cucumber tags
 	 * @return set of tags
 	 */
 	@Nonnull
 	protected Set<ItemAttributesRQ> extractPickleTags(@Nonnull List<PickleTag> tags) {
-		Set<ItemAttributesRQ> attributes = new HashSet<>();
+		List<String> names = new ArrayList<>(tags.size());
 		for (PickleTag tag : tags) {
-			attributes.add(new ItemAttributesRQ(null, tag.getName()));
+			names.add(tag.getName());
 		}
-		return attributes;
+		return new CopyOnWriteAttributeSet(tagAttributes.get().get(names));
 	}
 
 	/**
-	 * Transform tags from Cucumber to RP format
+	 * Transform tags from Cucumber to RP format. Attributes are cached by tag names and shared between items, the result is a
+	 * copy-on-write view of the cached ones: it can be modified, and the attributes are copied only on the first modification.
 	 *
 	 * @param tags - Cucumber tags
 	 * @return set of attributes
 	 */
 	@Nonnull
 	protected Set<ItemAttributesRQ> extractAttributes(@Nonnull List<Tag> tags) {
-		Set<ItemAttributesRQ> attributes = new HashSet<>();
+		List<String> names = new ArrayList<>(tags.size());
 		for (Tag tag : tags) {
-			attributes.add(new ItemAttributesRQ(null, tag.getName()));
+			names.add(tag.getName());
 		}
-		return attributes;
+		return new CopyOnWriteAttributeSet(tagAttributes.get().get(names));
 	}
 
 	/**
-	 * Returns static attributes defined by {@link Attributes} annotation in code.
+	 * Returns static attributes defined by {@link Attributes} annotation in code. The annotation is parsed once per step
+	 * definition, the result is a copy-on-write view of the parsed attributes, see {@link CopyOnWriteAttributeSet}.
 	 *
 	 * @param testStep - Cucumber's TestStep object
 	 * @return a set of attributes or null if no such method provided by the match object
 	 */
 	@Nullable
 	protected Set<ItemAttributesRQ> getAttributes(@Nonnull TestStep testStep) {
-		Field definitionMatchField = getDefinitionMatchField(testStep);
-		if (definitionMatchField != null) {
-			try {
-				Method method = retrieveMethod(definitionMatchField, testStep);
-				Attributes attributesAnnotation = method.getAnnotation(Attributes.class);
-				if (attributesAnnotation != null) {
-					return AttributeParser.retrieveAttributes(attributesAnnotation);
-				}
-			} catch (NoSuchFieldException | IllegalAccessException e) {
-				return null;
-			}
-		}
-		return null;
+		return ofNullable(stepDefinitions.get().get(testStep)).map(StepDefinitionMetadata::getAttributes)
+				.map(CopyOnWriteAttributeSet::new)
+				.orElse(null);
 	}
 
 	/**
@@ -848,23 +2112,7 @@ public abstract class AbstractReporter implements Formatter {
 	 */
 	@Nullable
 	protected String getCodeRef(@Nonnull TestStep testStep) {
-		Field definitionMatchField = getDefinitionMatchField(testStep);
-		if (definitionMatchField != null) {
-			try {
-				StepDefinitionMatch stepDefinitionMatch = (StepDefinitionMatch) definitionMatchField.get(testStep);
-				Field stepDefinitionField = stepDefinitionMatch.getClass().getDeclaredField(STEP_DEFINITION_FIELD_NAME);
-				stepDefinitionField.setAccessible(true);
-				Object javaStepDefinition = stepDefinitionField.get(stepDefinitionMatch);
-				Method getLocationMethod = javaStepDefinition.getClass().getDeclaredMethod(GET_LOCATION_METHOD_NAME, boolean.class);
-				getLocationMethod.setAccessible(true);
-				String fullCodeRef = String.valueOf(getLocationMethod.invoke(javaStepDefinition, true));
-				return !"null".equals(fullCodeRef) ? fullCodeRef.substring(0, fullCodeRef.indexOf(METHOD_OPENING_BRACKET)) : null;
-			} catch (NoSuchFieldException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-				return null;
-			}
-		} else {
-			return null;
-		}
+		return ofNullable(stepDefinitions.get().get(testStep)).map(StepDefinitionMetadata::getCodeRef).orElse(null);
 	}
 
 	/**
@@ -887,20 +2135,52 @@ public abstract class AbstractReporter implements Formatter {
 	 * @return Test Case ID entity or null if it's not possible to calculate
 	 */
 	@Nullable
-	@SuppressWarnings("unchecked")
 	protected TestCaseIdEntry getTestCaseId(@Nonnull TestStep testStep, @Nullable String codeRef) {
-		Field definitionMatchField = getDefinitionMatchField(testStep);
 		List<cucumber.api.Argument> arguments = ((PickleStepTestStep) testStep).getDefinitionArgument();
-		if (definitionMatchField != null) {
-			try {
-				Method method = retrieveMethod(definitionMatchField, testStep);
-				return TestCaseIdUtils.getTestCaseId(method.getAnnotation(TestCaseId.class),
-						method,
-						codeRef,
-						(List<Object>) ARGUMENTS_TRANSFORM.apply(arguments)
-				);
-			} catch (NoSuchFieldException | IllegalAccessException ignore) {
-			}
+		return stepTestCaseIds.get().computeIfAbsent(getStepCacheKey(testStep, codeRef, arguments),
+				k -> buildTestCaseId(testStep, codeRef, arguments)
+		);
+	}
+
+	@Nonnull
+	private <T> LruCache<List<Object>, T> buildStepCache() {
+		return new LruCache<>(getConfig() != null ? getConfig().getStepCacheSize() : 0);
+	}
+
+	/**
+	 * Builds a cache key of a step: steps of the same step definition with the same code reference and argument values have the
+	 * same Test Case ID and parameters. The step definition is identified by its method, since overloaded methods share one code
+	 * reference, or by its metadata if it's not a method.
+	 *
+	 * @param testStep  Cucumber's TestStep object
+	 * @param codeRef   a code reference
+	 * @param arguments step definition arguments
+	 * @return the key
+	 */
+	@Nonnull
+	private List<Object> getStepCacheKey(@Nonnull TestStep testStep, @Nullable String codeRef,
+			@Nullable List<cucumber.api.Argument> arguments) {
+		List<Object> key = new ArrayList<>(arguments == null ? 2 : arguments.size() + 2);
+		StepDefinitionMetadata definition = stepDefinitions.get().get(testStep);
+		key.add(definition == null || definition.getMethod() == null ? definition : definition.getMethod());
+		key.add(codeRef);
+		if (arguments != null) {
+			arguments.forEach(a -> key.add(a.getValue()));
+		}
+		return key;
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private TestCaseIdEntry buildTestCaseId(@Nonnull TestStep testStep, @Nullable String codeRef,
+			@Nullable List<cucumber.api.Argument> arguments) {
+		StepDefinitionMetadata metadata = stepDefinitions.get().get(testStep);
+		if (metadata != null && metadata.getMethod() != null) {
+			return TestCaseIdUtils.getTestCaseId(metadata.getTestCaseId(),
+					metadata.getMethod(),
+					codeRef,
+					(List<Object>) ARGUMENTS_TRANSFORM.apply(arguments)
+			);
 		}
 		return getTestCaseId(codeRef, arguments);
 	}
@@ -919,7 +2199,8 @@ public abstract class AbstractReporter implements Formatter {
 	}
 
 	/**
-	 * Returns a list of parameters for a step
+	 * Returns a list of parameters for a step. Parameters of steps without doc strings and data tables are cached by code
+	 * reference and argument values, the result is a copy which can be modified.
 	 *
 	 * @param codeRef  a method code reference to retrieve parameter types
 	 * @param testStep Cucumber's Step object
@@ -932,6 +2213,32 @@ public abstract class AbstractReporter implements Formatter {
 		}
 
 		PickleStepTestStep pickleStepTestStep = (PickleStepTestStep) testStep;
+		List<Argument> arguments = pickleStepTestStep.getDefinitionArgument();
+		List<gherkin.pickles.Argument> stepArguments = pickleStepTestStep.getPickleStep().getArgument();
+		if (stepArguments == null || stepArguments.isEmpty()) {
+			// doc strings and data tables are not cached, their keys would cost as much as the parameters
+			return copyParameters(stepParameters.get().computeIfAbsent(getStepCacheKey(testStep, codeRef, arguments),
+					k -> Collections.unmodifiableList(buildParameters(codeRef, pickleStepTestStep))
+			));
+		}
+		return buildParameters(codeRef, pickleStepTestStep);
+	}
+
+	// cached parameters are shared between steps, so every request gets its own copies
+	@Nonnull
+	private static List<ParameterResource> copyParameters(@Nonnull List<ParameterResource> parameters) {
+		List<ParameterResource> result = new ArrayList<>(parameters.size());
+		for (ParameterResource parameter : parameters) {
+			ParameterResource copy = new ParameterResource();
+			copy.setKey(parameter.getKey());
+			copy.setValue(parameter.getValue());
+			result.add(copy);
+		}
+		return result;
+	}
+
+	@Nonnull
+	private List<ParameterResource> buildParameters(@Nullable String codeRef, @Nonnull PickleStepTestStep pickleStepTestStep) {
 		List<Argument> arguments = pickleStepTestStep.getDefinitionArgument();
 		List<Pair<String, String>> params = ofNullable(arguments).map(a -> IntStream.range(0, a.size())
 				.mapToObj(i -> Pair.of("arg" + i, a.get(i).getValue()))
@@ -0,0 +1,34 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+/**
+ * What to do with attachments which exceed scenario or launch attachment budget
+ */
+public enum AttachmentOverflowPolicy {
+	/**
+	 * Drop the attachment, dropped attachments are reported with a single warning at the end of the scenario
+	 */
+	DROP,
+	/**
+	 * Send every N-th attachment over the budget and drop the others
+	 */
+	SAMPLE,
+	/**
+	 * Replace every dropped attachment with a short warning log which describes it
+	 */
+	SUMMARIZE
+}
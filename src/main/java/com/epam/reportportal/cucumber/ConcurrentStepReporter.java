@@ -0,0 +1,29 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+import cucumber.api.event.ConcurrentEventListener;
+
+/**
+ * A {@link StepReporter} which receives Cucumber events right when they happen, including parallel execution.
+ * <p>
+ * Regular formatters get events of a parallel run replayed in canonical order only after the run, so nothing is reported until
+ * the end and all the events, including embedded data, are kept in memory. This reporter handles events on the threads which
+ * execute scenarios: scenario state is kept per thread, and reporting overlaps with execution. Note that Cucumber still buffers
+ * events if any other plugin of the run is not a {@link ConcurrentEventListener}, e.g. 'pretty'.
+ */
+public class ConcurrentStepReporter extends StepReporter implements ConcurrentEventListener {
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.util.FailFastOrder;
+import com.epam.reportportal.cucumber.util.ScenarioHistory;
+import com.epam.reportportal.utils.properties.PropertiesLoader;
+import cucumber.api.event.EventPublisher;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.formatter.Formatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * An optional Cucumber plugin which writes a fail-fast execution order at the end of a run, see {@link FailFastOrder}. It reads
+ * the scenario history recorded by the reporter, so {@link ReporterProperty#SCENARIO_HISTORY_FILE} should be set. Usage:
+ * <pre>
+ * --plugin com.epam.reportportal.cucumber.ScenarioReporter --plugin com.epam.reportportal.cucumber.FailFastOrderPlugin:target/rp-order.txt
+ * </pre>
+ * And the next run is started with '@target/rp-order.txt' as the features path. Cucumber 3 sorts features of a rerun file by URI,
+ * so the runner should also sort them with {@link FailFastOrder#featureOrder(Path)} to run them in the fail-fast order.
+ */
+public class FailFastOrderPlugin implements Formatter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FailFastOrderPlugin.class);
+
+	private final Path outputFile;
+
+	public FailFastOrderPlugin(File outputFile) {
+		this.outputFile = outputFile.toPath();
+	}
+
+	@Override
+	public void setEventPublisher(EventPublisher publisher) {
+		publisher.registerHandlerFor(TestRunFinished.class, event -> writeOrder());
+	}
+
+	/**
+	 * Writes scenario history in fail-fast order into the output file
+	 */
+	protected void writeOrder() {
+		String historyFile = ReporterProperty.SCENARIO_HISTORY_FILE.getValue(PropertiesLoader.load());
+		if (historyFile == null) {
+			LOGGER.warn("Unable to write fail-fast execution order: '{}' property is not set",
+					ReporterProperty.SCENARIO_HISTORY_FILE.getPropertyName()
+			);
+			return;
+		}
+		try {
+			FailFastOrder.writeRerunFile(ScenarioHistory.read(Paths.get(historyFile)).values(), outputFile);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to write fail-fast execution order to: " + outputFile, e);
+		}
+	}
+}
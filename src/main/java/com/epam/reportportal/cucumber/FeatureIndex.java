@@ -0,0 +1,180 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.util.IntObjectMap;
+import gherkin.AstBuilder;
+import gherkin.Parser;
+import gherkin.ParserException;
+import gherkin.TokenMatcher;
+import gherkin.ast.*;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * An immutable parsed feature file: Gherkin AST together with indices which are needed to map Cucumber test cases to the AST.
+ * It's built once per feature and shared by all scenarios of the feature, so a feature is parsed only once, possibly in
+ * background right when its source is read.
+ */
+public class FeatureIndex {
+
+	private final String uri;
+	private final Feature feature;
+	private final Background background;
+	// scenario definitions by scenario line and by outline example row lines
+	private final Map<Integer, ScenarioDefinition> scenarios;
+	// zero-based iteration indices of outline example rows by row line
+	private final Map<Integer, Integer> outlineIterations;
+	// background and scenario steps by line, shared by all scenarios of the feature
+	private final IntObjectMap<Step> steps;
+	// number of pickles compiled from the feature: scenarios and outline example rows
+	private final int pickleNumber;
+
+	private FeatureIndex(@Nonnull String uri, @Nullable Feature feature) {
+		this.uri = uri;
+		this.feature = feature;
+		Background featureBackground = null;
+		Map<Integer, ScenarioDefinition> scenarioMap = new HashMap<>();
+		Map<Integer, Integer> iterationMap = new HashMap<>();
+		IntObjectMap.Builder<Step> stepMap = IntObjectMap.builder();
+		int pickles = 0;
+		if (feature != null) {
+			List<ScenarioDefinition> children = feature.getChildren();
+			if (!children.isEmpty() && children.get(0) instanceof Background) {
+				featureBackground = (Background) children.get(0);
+			}
+			for (ScenarioDefinition scenario : children) {
+				scenario.getSteps().forEach(s -> stepMap.put(s.getLocation().getLine(), s));
+				if (scenario instanceof Background) {
+					continue;
+				}
+				scenarioMap.putIfAbsent(scenario.getLocation().getLine(), scenario);
+				if (scenario instanceof ScenarioOutline) {
+					List<Integer> rows = getExampleRowLines((ScenarioOutline) scenario);
+					pickles += rows.size();
+					for (int i = 0; i < rows.size(); i++) {
+						scenarioMap.putIfAbsent(rows.get(i), scenario);
+						iterationMap.put(rows.get(i), i);
+					}
+				} else {
+					pickles++;
+				}
+			}
+		}
+		background = featureBackground;
+		scenarios = Collections.unmodifiableMap(scenarioMap);
+		outlineIterations = Collections.unmodifiableMap(iterationMap);
+		steps = stepMap.build();
+		pickleNumber = pickles;
+	}
+
+	/**
+	 * Parses a feature source and builds its indices
+	 *
+	 * @param uri    the feature URI
+	 * @param source the feature source
+	 * @return the feature index, with a null feature if the source can't be parsed
+	 */
+	@Nonnull
+	public static FeatureIndex parse(@Nonnull String uri, @Nonnull String source) {
+		return new FeatureIndex(uri, parseFeature(source));
+	}
+
+	/**
+	 * Parses a feature source
+	 *
+	 * @param source the feature source
+	 * @return the feature or null if the source can't be parsed
+	 */
+	@Nullable
+	public static Feature parseFeature(@Nonnull String source) {
+		Parser<GherkinDocument> parser = new Parser<>(new AstBuilder());
+		TokenMatcher matcher = new TokenMatcher();
+		try {
+			return parser.parse(source, matcher).getFeature();
+		} catch (ParserException e) {
+			// Ignore exceptions
+			return null;
+		}
+	}
+
+	/**
+	 * Returns lines of all example rows of a scenario outline, in the order they are executed
+	 *
+	 * @param outline the scenario outline
+	 * @return example row lines
+	 */
+	@Nonnull
+	public static List<Integer> getExampleRowLines(@Nonnull ScenarioOutline outline) {
+		List<Integer> result = new ArrayList<>();
+		for (Examples examples : outline.getExamples()) {
+			if (examples.getTableBody() != null) {
+				examples.getTableBody().forEach(r -> result.add(r.getLocation().getLine()));
+			}
+		}
+		return result;
+	}
+
+	@Nonnull
+	public String getUri() {
+		return uri;
+	}
+
+	@Nullable
+	public Feature getFeature() {
+		return feature;
+	}
+
+	@Nullable
+	public Background getBackground() {
+		return background;
+	}
+
+	/**
+	 * @param line a scenario line or an outline example row line
+	 * @return the scenario definition or null if there is no scenario at the line
+	 */
+	@Nullable
+	public ScenarioDefinition getScenario(int line) {
+		return scenarios.get(line);
+	}
+
+	/**
+	 * @return steps of the feature background and all its scenarios by step line
+	 */
+	@Nonnull
+	public IntObjectMap<Step> getSteps() {
+		return steps;
+	}
+
+	/**
+	 * @return number of pickles compiled from the feature: scenarios and outline example rows
+	 */
+	public int getPickleNumber() {
+		return pickleNumber;
+	}
+
+	/**
+	 * @param line an outline example row line
+	 * @return zero-based iteration index of the row or null if there is no example row at the line
+	 */
+	@Nullable
+	public Integer getOutlineIteration(int line) {
+		return outlineIterations.get(line);
+	}
+}
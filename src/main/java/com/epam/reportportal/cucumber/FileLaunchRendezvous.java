@@ -0,0 +1,164 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+/**
+ * A rendezvous through a local file, shared by all shards of the run. Access to the file is serialized with an exclusive file
+ * lock, so it works for JVM forks on the same host (or on a shared file system which supports locks). The file keeps launch
+ * UUID and numbers of joined and finished shards, and it's truncated by the last shard, so it can be reused by the next run.
+ * <p>
+ * If the number of shards is known it's better to pass it: otherwise the last shard is the one which leaves when all joined
+ * shards have left, and a fast shard may finish the launch before a slow one joins.
+ * <p>
+ * A shard which crashed never leaves, so the launch is not finished and the file is not truncated. Such a file is considered
+ * stale once it was not updated for the given timeout: the next shard which joins discards it and starts a new launch. The
+ * launch of the crashed run has to be finished (or stopped) in ReportPortal manually.
+ */
+public class FileLaunchRendezvous implements LaunchRendezvous {
+
+	private static final String LAUNCH_UUID_KEY = "launch.uuid";
+	private static final String JOINED_KEY = "joined";
+	private static final String FINISHED_KEY = "finished";
+	private static final String UPDATED_KEY = "updated";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FileLaunchRendezvous.class);
+
+	// file locks are held on behalf of the whole JVM, so threads of the same JVM are serialized separately
+	private static final Object JVM_LOCK = new Object();
+
+	private final Path file;
+	private final int shardNumber;
+	private final long staleTimeout;
+
+	/**
+	 * @param file        path to the rendezvous file, created if it doesn't exist
+	 * @param shardNumber total number of shards, non-positive if unknown
+	 */
+	public FileLaunchRendezvous(@Nonnull Path file, int shardNumber) {
+		this(file, shardNumber, -1L);
+	}
+
+	/**
+	 * @param file         path to the rendezvous file, created if it doesn't exist
+	 * @param shardNumber  total number of shards, non-positive if unknown
+	 * @param staleTimeout time in milliseconds since the last update after which the file is considered left by a crashed
+	 *                     run, non-positive value means the file is never stale
+	 */
+	public FileLaunchRendezvous(@Nonnull Path file, int shardNumber, long staleTimeout) {
+		this.file = file;
+		this.shardNumber = shardNumber;
+		this.staleTimeout = staleTimeout;
+	}
+
+	private boolean isStale(@Nonnull Properties state) {
+		if (staleTimeout <= 0 || state.getProperty(LAUNCH_UUID_KEY) == null) {
+			return false;
+		}
+		String updated = state.getProperty(UPDATED_KEY);
+		return updated == null || System.currentTimeMillis() - Long.parseLong(updated) > staleTimeout;
+	}
+
+	@Nonnull
+	@Override
+	public String join(@Nonnull Supplier<String> launchStarter) {
+		synchronized (JVM_LOCK) {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+					FileLock ignored = channel.lock()) {
+				Properties state = read(channel);
+				if (isStale(state)) {
+					LOGGER.warn("Launch rendezvous file {} is stale, it's left by a run which did not finish the launch {}. "
+							+ "A new launch will be started.", file, state.getProperty(LAUNCH_UUID_KEY));
+					state = new Properties();
+				}
+				String launchUuid = state.getProperty(LAUNCH_UUID_KEY);
+				if (launchUuid == null) {
+					launchUuid = launchStarter.get();
+					if (launchUuid == null) {
+						throw new IllegalStateException("Unable to start a launch for shards");
+					}
+					state.setProperty(LAUNCH_UUID_KEY, launchUuid);
+				}
+				state.setProperty(JOINED_KEY, String.valueOf(getNumber(state, JOINED_KEY) + 1));
+				write(channel, state);
+				return launchUuid;
+			} catch (IOException e) {
+				throw new IllegalStateException("Unable to join launch rendezvous: " + file, e);
+			}
+		}
+	}
+
+	@Override
+	public boolean leave() {
+		synchronized (JVM_LOCK) {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+					FileLock ignored = channel.lock()) {
+				Properties state = read(channel);
+				int finished = getNumber(state, FINISHED_KEY) + 1;
+				int expected = shardNumber > 0 ? shardNumber : getNumber(state, JOINED_KEY);
+				if (finished >= expected) {
+					channel.truncate(0);
+					return true;
+				}
+				state.setProperty(FINISHED_KEY, String.valueOf(finished));
+				write(channel, state);
+				return false;
+			} catch (IOException e) {
+				throw new IllegalStateException("Unable to leave launch rendezvous: " + file, e);
+			}
+		}
+	}
+
+	private static int getNumber(@Nonnull Properties state, @Nonnull String key) {
+		String value = state.getProperty(key);
+		return value == null ? 0 : Integer.parseInt(value);
+	}
+
+	@Nonnull
+	private static Properties read(@Nonnull FileChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+		channel.read(buffer, 0);
+		Properties result = new Properties();
+		result.load(new StringReader(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8)));
+		return result;
+	}
+
+	private static void write(@Nonnull FileChannel channel, @Nonnull Properties state) throws IOException {
+		state.setProperty(UPDATED_KEY, String.valueOf(System.currentTimeMillis()));
+		channel.truncate(0);
+		StringBuilder builder = new StringBuilder();
+		state.stringPropertyNames().forEach(k -> builder.append(k).append('=').append(state.getProperty(k)).append('\n'));
+		ByteBuffer buffer = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+		long position = 0;
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+import javax.annotation.Nonnull;
+import java.util.function.Supplier;
+
+/**
+ * A rendezvous around a launch started outside of the run, e.g. by a CI step which passes launch UUID to all shards through
+ * an environment variable. Shards never start or finish the launch, it's up to the launch owner.
+ */
+public class FixedLaunchRendezvous implements LaunchRendezvous {
+
+	private final String launchUuid;
+
+	public FixedLaunchRendezvous(@Nonnull String launchUuid) {
+		this.launchUuid = launchUuid;
+	}
+
+	@Nonnull
+	@Override
+	public String join(@Nonnull Supplier<String> launchStarter) {
+		return launchUuid;
+	}
+
+	@Override
+	public boolean leave() {
+		return false;
+	}
+}
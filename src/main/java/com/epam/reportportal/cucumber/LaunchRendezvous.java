@@ -0,0 +1,44 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+import javax.annotation.Nonnull;
+import java.util.function.Supplier;
+
+/**
+ * A meeting point of several reporters (shards) which report into one launch, e.g. parallel JVM forks of the same run. The
+ * first shard joined (the leader) starts the launch and shares its UUID with the others (followers), which attach to the
+ * launch instead of starting a new one. The last shard left finishes the launch, the others only wait until their items and
+ * logs are sent.
+ */
+public interface LaunchRendezvous {
+
+	/**
+	 * Joins the rendezvous
+	 *
+	 * @param launchStarter starts a new launch and returns its UUID, called only if the caller is the leader
+	 * @return UUID of the launch to report into
+	 */
+	@Nonnull
+	String join(@Nonnull Supplier<String> launchStarter);
+
+	/**
+	 * Leaves the rendezvous. Should be called once the shard reported all its items.
+	 *
+	 * @return true if the caller is the last shard and should finish the launch
+	 */
+	boolean leave();
+}
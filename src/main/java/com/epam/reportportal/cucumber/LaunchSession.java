@@ -0,0 +1,97 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.tree.TestItemTree;
+import com.epam.reportportal.utils.MemoizingSupplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * State of one launch which is owned by a reporter instance: the item tree for callback reporting, ReportPortal client and
+ * feature sources. Since nothing here is static, several Cucumber runtimes can report in one JVM without mixing up their
+ * items, and the state is collected together with the reporter.
+ */
+public class LaunchSession {
+	private final TestItemTree itemTree = new TestItemTree();
+	private final Map<String, Supplier<FeatureIndex>> features = new ConcurrentHashMap<>();
+	private volatile ReportPortal reportPortal;
+
+	/**
+	 * @return the item tree of the launch for callback reporting
+	 */
+	@Nonnull
+	public TestItemTree getItemTree() {
+		return itemTree;
+	}
+
+	/**
+	 * @return ReportPortal instance of the launch or null if the launch is not started yet
+	 */
+	@Nullable
+	public ReportPortal getReportPortal() {
+		return reportPortal;
+	}
+
+	public void setReportPortal(@Nullable ReportPortal reportPortal) {
+		this.reportPortal = reportPortal;
+	}
+
+	/**
+	 * Registers a feature source, it's parsed lazily once its first scenario starts
+	 *
+	 * @param path   the feature path
+	 * @param source the feature source
+	 */
+	public void addFeatureSource(@Nonnull String path, @Nonnull String source) {
+		features.put(path, new MemoizingSupplier<>(() -> FeatureIndex.parse(path, source)));
+	}
+
+	/**
+	 * Registers a feature which is being parsed already, e.g. in background
+	 *
+	 * @param path  the feature path
+	 * @param index a supplier which returns the parsed feature, it may block until parsing is finished
+	 */
+	public void addFeatureIndex(@Nonnull String path, @Nonnull Supplier<FeatureIndex> index) {
+		features.put(path, index);
+	}
+
+	/**
+	 * Returns a parsed feature, waits for parsing if it's not finished yet
+	 *
+	 * @param path the feature path
+	 * @return the feature or null if its source was not read
+	 */
+	@Nullable
+	public FeatureIndex getFeatureIndex(@Nonnull String path) {
+		Supplier<FeatureIndex> index = features.get(path);
+		return index == null ? null : index.get();
+	}
+
+	/**
+	 * Releases all launch state, called once the launch is finished
+	 */
+	public void clear() {
+		features.clear();
+		itemTree.getTestItems().clear();
+	}
+}
@@ -0,0 +1,470 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.utils.properties.PropertiesLoader;
+import cucumber.api.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * An immutable snapshot of all the settings the reporter reads while handling Cucumber events. It's resolved once on launch
+ * start from {@link ReporterProperty} values and client's {@link ListenerParameters}, so reads on the hot path are plain field
+ * reads.
+ */
+public class ReporterConfig {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReporterConfig.class);
+
+	private static final String DEFAULT_COMPRESSION_TYPES = "text/*,application/json,application/xml";
+	private static final int DEFAULT_LOG_BUFFER_SIZE = 100;
+	private static final long DEFAULT_LOG_BUFFER_BYTES = 10 * 1024 * 1024;
+	private static final int DEFAULT_STEP_CACHE_SIZE = 1000;
+	private static final int DEFAULT_SAMPLE_RATE = 10;
+	private static final long DEFAULT_SHARD_STALE_TIMEOUT = TimeUnit.HOURS.toMillis(24);
+	private static final String SHARD_LAUNCH_UUID_VARIABLE = "RP_CUCUMBER_SHARD_LAUNCH_UUID";
+	private static final String DEFAULT_STACK_TRACE_FILTERS = "java.lang.reflect.,sun.reflect.,jdk.internal.reflect.,cucumber.runtime.,"
+			+ "cucumber.api.,org.junit.,org.testng.,org.springframework.,org.openqa.selenium.remote.";
+
+	private final boolean callbackReportingEnabled;
+	private final boolean warmUp;
+	private final boolean attachmentDeduplication;
+	private final long attachmentSpoolThreshold;
+	private final long attachmentCompressionThreshold;
+	private final int attachmentCompressionLevel;
+	private final List<String> attachmentCompressionTypes;
+	private final int imageMaxDimension;
+	private final int imageQuality;
+	private final long scenarioAttachmentCount;
+	private final long scenarioAttachmentSize;
+	private final long launchAttachmentCount;
+	private final long launchAttachmentSize;
+	private final AttachmentOverflowPolicy attachmentOverflowPolicy;
+	private final int attachmentOverflowSampleRate;
+	private final boolean failureOnlyLogging;
+	private final int logBufferSize;
+	private final long logBufferBytes;
+	private final Set<Result.Type> logFlushStatuses;
+	private final boolean stackTraceCompaction;
+	private final List<String> stackTraceFilters;
+	private final boolean failureClustering;
+	private final String shardFile;
+	private final int shardNumber;
+	private final long shardStaleTimeout;
+	private final String shardLaunchUuid;
+	private final String featureDurationFile;
+	private final String scenarioHistoryFile;
+	private final boolean featurePreParsing;
+	private final boolean featureEarlyFinish;
+	private final boolean tagKeyValueParsing;
+	private final int stepCacheSize;
+	private final boolean gluePreScan;
+	private final List<String> gluePackages;
+	private final boolean skippedStepCollapsing;
+	private final int scenarioSamplingRate;
+	private final long scenarioSamplingInterval;
+
+	public ReporterConfig(@Nonnull PropertiesLoader properties, @Nonnull ListenerParameters parameters) {
+		callbackReportingEnabled = parameters.isCallbackReportingEnabled();
+		warmUp = ReporterProperty.WARM_UP.getValue(properties, false);
+		attachmentDeduplication = ReporterProperty.ATTACHMENT_DEDUPLICATION.getValue(properties, false);
+		attachmentSpoolThreshold = ReporterProperty.ATTACHMENT_SPOOL_THRESHOLD.getValue(properties, -1L);
+		attachmentCompressionThreshold = ReporterProperty.ATTACHMENT_COMPRESSION_THRESHOLD.getValue(properties, -1L);
+		attachmentCompressionLevel = parseCompressionLevel(ReporterProperty.ATTACHMENT_COMPRESSION_LEVEL.getValue(properties,
+				Deflater.DEFAULT_COMPRESSION
+		));
+		attachmentCompressionTypes = parseList(ofNullable(ReporterProperty.ATTACHMENT_COMPRESSION_TYPES.getValue(properties)).orElse(
+				DEFAULT_COMPRESSION_TYPES)).stream().map(t -> t.toLowerCase(Locale.ROOT)).collect(Collectors.toList());
+		imageMaxDimension = ReporterProperty.IMAGE_MAX_DIMENSION.getValue(properties, -1);
+		imageQuality = ReporterProperty.IMAGE_QUALITY.getValue(properties, -1);
+		scenarioAttachmentCount = ReporterProperty.SCENARIO_ATTACHMENT_COUNT.getValue(properties, -1L);
+		scenarioAttachmentSize = ReporterProperty.SCENARIO_ATTACHMENT_SIZE.getValue(properties, -1L);
+		launchAttachmentCount = ReporterProperty.LAUNCH_ATTACHMENT_COUNT.getValue(properties, -1L);
+		launchAttachmentSize = ReporterProperty.LAUNCH_ATTACHMENT_SIZE.getValue(properties, -1L);
+		attachmentOverflowPolicy = parsePolicy(ReporterProperty.ATTACHMENT_OVERFLOW_POLICY.getValue(properties));
+		attachmentOverflowSampleRate = ReporterProperty.ATTACHMENT_OVERFLOW_SAMPLE_RATE.getValue(properties, DEFAULT_SAMPLE_RATE);
+		failureOnlyLogging = ReporterProperty.FAILURE_ONLY_LOGGING.getValue(properties, false);
+		logBufferSize = ReporterProperty.LOG_BUFFER_SIZE.getValue(properties, DEFAULT_LOG_BUFFER_SIZE);
+		logBufferBytes = ReporterProperty.LOG_BUFFER_BYTES.getValue(properties, DEFAULT_LOG_BUFFER_BYTES);
+		logFlushStatuses = parseStatuses(ReporterProperty.LOG_FLUSH_STATUSES.getValue(properties));
+		stackTraceCompaction = ReporterProperty.STACK_TRACE_COMPACTION.getValue(properties, false);
+		stackTraceFilters = parseList(ofNullable(ReporterProperty.STACK_TRACE_FILTERS.getValue(properties)).orElse(
+				DEFAULT_STACK_TRACE_FILTERS));
+		failureClustering = ReporterProperty.FAILURE_CLUSTERING.getValue(properties, false);
+		shardFile = ReporterProperty.SHARD_FILE.getValue(properties);
+		shardNumber = ReporterProperty.SHARD_NUMBER.getValue(properties, -1);
+		shardStaleTimeout = ReporterProperty.SHARD_STALE_TIMEOUT.getValue(properties, DEFAULT_SHARD_STALE_TIMEOUT);
+		shardLaunchUuid = ofNullable(ReporterProperty.SHARD_LAUNCH_UUID.getValue(properties)).orElseGet(() -> System.getenv(
+				SHARD_LAUNCH_UUID_VARIABLE));
+		featureDurationFile = ReporterProperty.FEATURE_DURATION_FILE.getValue(properties);
+		scenarioHistoryFile = ReporterProperty.SCENARIO_HISTORY_FILE.getValue(properties);
+		featurePreParsing = ReporterProperty.FEATURE_PRE_PARSING.getValue(properties, false);
+		featureEarlyFinish = ReporterProperty.FEATURE_EARLY_FINISH.getValue(properties, true);
+		tagKeyValueParsing = ReporterProperty.TAG_KEY_VALUE_PARSING.getValue(properties, false);
+		stepCacheSize = ReporterProperty.STEP_CACHE_SIZE.getValue(properties, DEFAULT_STEP_CACHE_SIZE);
+		gluePreScan = ReporterProperty.GLUE_PRE_SCAN.getValue(properties, false);
+		gluePackages = parseList(ofNullable(ReporterProperty.GLUE_PACKAGES.getValue(properties)).orElse(""));
+		skippedStepCollapsing = ReporterProperty.SKIPPED_STEP_COLLAPSING.getValue(properties, false);
+		scenarioSamplingRate = ReporterProperty.SCENARIO_SAMPLING_RATE.getValue(properties, -1);
+		scenarioSamplingInterval = ReporterProperty.SCENARIO_SAMPLING_INTERVAL.getValue(properties, -1L);
+	}
+
+	@Nonnull
+	private static List<String> parseList(@Nonnull String value) {
+		return Collections.unmodifiableList(Arrays.stream(value.split(","))
+				.map(String::trim)
+				.filter(v -> !v.isEmpty())
+				.collect(Collectors.toList()));
+	}
+
+	private static int parseCompressionLevel(int value) {
+		if (value == Deflater.DEFAULT_COMPRESSION || (value >= Deflater.NO_COMPRESSION && value <= Deflater.BEST_COMPRESSION)) {
+			return value;
+		}
+		LOGGER.warn("Invalid attachment compression level: {}, falling back to the default one", value);
+		return Deflater.DEFAULT_COMPRESSION;
+	}
+
+	@Nonnull
+	private static AttachmentOverflowPolicy parsePolicy(@Nullable String value) {
+		if (value == null) {
+			return AttachmentOverflowPolicy.DROP;
+		}
+		try {
+			return AttachmentOverflowPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			LOGGER.warn("Unknown attachment overflow policy: {}, falling back to {}", value, AttachmentOverflowPolicy.DROP);
+			return AttachmentOverflowPolicy.DROP;
+		}
+	}
+
+	@Nonnull
+	private static Set<Result.Type> parseStatuses(@Nullable String value) {
+		if (value == null) {
+			return Collections.unmodifiableSet(EnumSet.of(Result.Type.FAILED));
+		}
+		Set<Result.Type> result = EnumSet.noneOf(Result.Type.class);
+		for (String status : parseList(value)) {
+			try {
+				result.add(Result.Type.valueOf(status.toUpperCase(Locale.ROOT)));
+			} catch (IllegalArgumentException e) {
+				LOGGER.warn("Unknown Cucumber status: {}", status);
+			}
+		}
+		return Collections.unmodifiableSet(result);
+	}
+
+	/**
+	 * @return true if callback reporting is enabled in client's parameters
+	 */
+	public boolean isCallbackReportingEnabled() {
+		return callbackReportingEnabled;
+	}
+
+	/**
+	 * @return true if warm-up is enabled, see {@link ReporterProperty#WARM_UP}
+	 */
+	public boolean isWarmUp() {
+		return warmUp;
+	}
+
+	/**
+	 * @return true if the same attachments should be uploaded only once per launch, see
+	 * {@link ReporterProperty#ATTACHMENT_DEDUPLICATION}
+	 */
+	public boolean isAttachmentDeduplication() {
+		return attachmentDeduplication;
+	}
+
+	/**
+	 * @return attachment size in bytes starting from which attachments are spooled to temporary files, or a non-positive number
+	 * if spooling is disabled, see {@link ReporterProperty#ATTACHMENT_SPOOL_THRESHOLD}
+	 */
+	public long getAttachmentSpoolThreshold() {
+		return attachmentSpoolThreshold;
+	}
+
+	/**
+	 * @return attachment size in bytes starting from which text-like attachments are compressed, or a non-positive number if
+	 * compression is disabled, see {@link ReporterProperty#ATTACHMENT_COMPRESSION_THRESHOLD}
+	 */
+	public long getAttachmentCompressionThreshold() {
+		return attachmentCompressionThreshold;
+	}
+
+	/**
+	 * @return gzip compression level, see {@link ReporterProperty#ATTACHMENT_COMPRESSION_LEVEL}
+	 */
+	public int getAttachmentCompressionLevel() {
+		return attachmentCompressionLevel;
+	}
+
+	/**
+	 * @return lower-case mime types or mime type wildcards of attachments to compress, see
+	 * {@link ReporterProperty#ATTACHMENT_COMPRESSION_TYPES}
+	 */
+	@Nonnull
+	public List<String> getAttachmentCompressionTypes() {
+		return attachmentCompressionTypes;
+	}
+
+	/**
+	 * @return maximum dimension of image attachments in pixels, or a non-positive number if images should not be downscaled,
+	 * see {@link ReporterProperty#IMAGE_MAX_DIMENSION}
+	 */
+	public int getImageMaxDimension() {
+		return imageMaxDimension;
+	}
+
+	/**
+	 * @return JPEG quality to re-encode image attachments with, or a non-positive number if images should not be re-encoded,
+	 * see {@link ReporterProperty#IMAGE_QUALITY}
+	 */
+	public int getImageQuality() {
+		return imageQuality;
+	}
+
+	/**
+	 * @return maximum number of attachments per scenario, non-positive means unlimited
+	 */
+	public long getScenarioAttachmentCount() {
+		return scenarioAttachmentCount;
+	}
+
+	/**
+	 * @return maximum total size of attachments per scenario in bytes, non-positive means unlimited
+	 */
+	public long getScenarioAttachmentSize() {
+		return scenarioAttachmentSize;
+	}
+
+	/**
+	 * @return maximum number of attachments per launch, non-positive means unlimited
+	 */
+	public long getLaunchAttachmentCount() {
+		return launchAttachmentCount;
+	}
+
+	/**
+	 * @return maximum total size of attachments per launch in bytes, non-positive means unlimited
+	 */
+	public long getLaunchAttachmentSize() {
+		return launchAttachmentSize;
+	}
+
+	/**
+	 * @return what to do with attachments over the budget
+	 */
+	@Nonnull
+	public AttachmentOverflowPolicy getAttachmentOverflowPolicy() {
+		return attachmentOverflowPolicy;
+	}
+
+	/**
+	 * @return N for 'every N-th attachment over the budget is sent' in case of {@link AttachmentOverflowPolicy#SAMPLE} policy
+	 */
+	public int getAttachmentOverflowSampleRate() {
+		return attachmentOverflowSampleRate;
+	}
+
+	/**
+	 * @return true if 'scenario.write' and 'scenario.embed' logs should be buffered, see
+	 * {@link ReporterProperty#FAILURE_ONLY_LOGGING}
+	 */
+	public boolean isFailureOnlyLogging() {
+		return failureOnlyLogging;
+	}
+
+	/**
+	 * @return maximum number of buffered logs per scenario
+	 */
+	public int getLogBufferSize() {
+		return logBufferSize;
+	}
+
+	/**
+	 * @return maximum total size in bytes of buffered logs per scenario, see {@link ReporterProperty#LOG_BUFFER_BYTES}
+	 */
+	public long getLogBufferBytes() {
+		return logBufferBytes;
+	}
+
+	/**
+	 * @return statuses of scenarios which buffered logs should be reported for
+	 */
+	@Nonnull
+	public Set<Result.Type> getLogFlushStatuses() {
+		return logFlushStatuses;
+	}
+
+	/**
+	 * @return true if failure stack traces should be compacted, see {@link ReporterProperty#STACK_TRACE_COMPACTION}
+	 */
+	public boolean isStackTraceCompaction() {
+		return stackTraceCompaction;
+	}
+
+	/**
+	 * @return package prefixes of framework stack trace frames, see {@link ReporterProperty#STACK_TRACE_FILTERS}
+	 */
+	@Nonnull
+	public List<String> getStackTraceFilters() {
+		return stackTraceFilters;
+	}
+
+	/**
+	 * @return true if failures should be grouped by fingerprint, see {@link ReporterProperty#FAILURE_CLUSTERING}
+	 */
+	public boolean isFailureClustering() {
+		return failureClustering;
+	}
+
+	/**
+	 * @return path to the shard rendezvous file or null if the launch is not shared, see {@link ReporterProperty#SHARD_FILE}
+	 */
+	@Nullable
+	public String getShardFile() {
+		return shardFile;
+	}
+
+	/**
+	 * @return total number of shards, or a non-positive number if unknown
+	 */
+	public int getShardNumber() {
+		return shardNumber;
+	}
+
+	/**
+	 * @return time in milliseconds after which a shard file is considered stale, see {@link ReporterProperty#SHARD_STALE_TIMEOUT}
+	 */
+	public long getShardStaleTimeout() {
+		return shardStaleTimeout;
+	}
+
+	/**
+	 * @return UUID of an already started launch to report into, see {@link ReporterProperty#SHARD_LAUNCH_UUID}
+	 */
+	@Nullable
+	public String getShardLaunchUuid() {
+		return shardLaunchUuid;
+	}
+
+	/**
+	 * @return path to the feature duration history file or null if durations are not recorded, see
+	 * {@link ReporterProperty#FEATURE_DURATION_FILE}
+	 */
+	@Nullable
+	public String getFeatureDurationFile() {
+		return featureDurationFile;
+	}
+
+	/**
+	 * @return path to the scenario history file or null if the history is not recorded, see
+	 * {@link ReporterProperty#SCENARIO_HISTORY_FILE}
+	 */
+	@Nullable
+	public String getScenarioHistoryFile() {
+		return scenarioHistoryFile;
+	}
+
+	/**
+	 * @return true if features should be parsed in parallel as soon as their sources are read, see
+	 * {@link ReporterProperty#FEATURE_PRE_PARSING}
+	 */
+	public boolean isFeaturePreParsing() {
+		return featurePreParsing;
+	}
+
+	/**
+	 * @return true if features should be finished as soon as all their scenarios are finished, see
+	 * {@link ReporterProperty#FEATURE_EARLY_FINISH}
+	 */
+	public boolean isFeatureEarlyFinish() {
+		return featureEarlyFinish;
+	}
+
+	/**
+	 * @return true if tags like '@key:value' should be reported as key-value attributes, see
+	 * {@link ReporterProperty#TAG_KEY_VALUE_PARSING}
+	 */
+	public boolean isTagKeyValueParsing() {
+		return tagKeyValueParsing;
+	}
+
+	/**
+	 * @return maximum number of cached step Test Case IDs and parameter lists, see {@link ReporterProperty#STEP_CACHE_SIZE}
+	 */
+	public int getStepCacheSize() {
+		return stepCacheSize;
+	}
+
+	/**
+	 * @return true if step definition metadata should be resolved in background on launch start, see
+	 * {@link ReporterProperty#GLUE_PRE_SCAN}
+	 */
+	public boolean isGluePreScan() {
+		return gluePreScan;
+	}
+
+	/**
+	 * @return glue packages to scan, see {@link ReporterProperty#GLUE_PACKAGES}
+	 */
+	@Nonnull
+	public List<String> getGluePackages() {
+		return gluePackages;
+	}
+
+	/**
+	 * @return true if steps skipped after a failure should be reported as one item, see
+	 * {@link ReporterProperty#SKIPPED_STEP_COLLAPSING}
+	 */
+	public boolean isSkippedStepCollapsing() {
+		return skippedStepCollapsing;
+	}
+
+	/**
+	 * @return report every N-th passed scenario of a feature, non-positive value means no rate-based sampling, see
+	 * {@link ReporterProperty#SCENARIO_SAMPLING_RATE}
+	 */
+	public int getScenarioSamplingRate() {
+		return scenarioSamplingRate;
+	}
+
+	/**
+	 * @return report at most one passed scenario of a feature per the interval in milliseconds, non-positive value means no
+	 * time-based sampling, see {@link ReporterProperty#SCENARIO_SAMPLING_INTERVAL}
+	 */
+	public long getScenarioSamplingInterval() {
+		return scenarioSamplingInterval;
+	}
+
+	/**
+	 * @return true if passed scenarios are sampled, see {@link ReporterProperty#SCENARIO_SAMPLING_RATE} and
+	 * {@link ReporterProperty#SCENARIO_SAMPLING_INTERVAL}
+	 */
+	public boolean isScenarioSampling() {
+		return scenarioSamplingRate > 1 || scenarioSamplingInterval > 0;
+	}
+}
@@ -0,0 +1,263 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.utils.properties.PropertiesLoader;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Cucumber agent specific properties. The properties are read from JVM system properties first and then from
+ * 'reportportal.properties' file, the same way as the client's properties are.
+ */
+public enum ReporterProperty {
+
+	/**
+	 * Build ReportPortal client, system attributes and mime-type detectors in parallel right on 'TestRunStarted' event
+	 */
+	WARM_UP("rp.cucumber.warmup"),
+
+	/**
+	 * Upload the same attachment only once per launch, repeats are replaced with a text log which references the first upload
+	 */
+	ATTACHMENT_DEDUPLICATION("rp.cucumber.attachment.deduplication"),
+
+	/**
+	 * Size in bytes starting from which attachments are spooled to temporary files instead of being kept in memory until sent
+	 */
+	ATTACHMENT_SPOOL_THRESHOLD("rp.cucumber.attachment.spool.threshold"),
+
+	/**
+	 * Size in bytes starting from which text-like attachments are compressed with gzip before sending
+	 */
+	ATTACHMENT_COMPRESSION_THRESHOLD("rp.cucumber.attachment.compression.threshold"),
+
+	/**
+	 * Gzip compression level for attachments: from 0 (no compression) to 9 (best compression), invalid values fall back to the
+	 * default level
+	 */
+	ATTACHMENT_COMPRESSION_LEVEL("rp.cucumber.attachment.compression.level"),
+
+	/**
+	 * Comma-separated list of mime types of attachments to compress, wildcards like 'text/*' are supported
+	 */
+	ATTACHMENT_COMPRESSION_TYPES("rp.cucumber.attachment.compression.types"),
+
+	/**
+	 * Maximum width and height in pixels of image attachments, bigger images are downscaled
+	 */
+	IMAGE_MAX_DIMENSION("rp.cucumber.attachment.image.max.dimension"),
+
+	/**
+	 * JPEG quality from 1 to 100, if set image attachments are re-encoded to JPEG with this quality
+	 */
+	IMAGE_QUALITY("rp.cucumber.attachment.image.quality"),
+
+	/**
+	 * Maximum number of attachments per scenario
+	 */
+	SCENARIO_ATTACHMENT_COUNT("rp.cucumber.attachment.scenario.count"),
+
+	/**
+	 * Maximum total size of attachments per scenario in bytes
+	 */
+	SCENARIO_ATTACHMENT_SIZE("rp.cucumber.attachment.scenario.size"),
+
+	/**
+	 * Maximum number of attachments per launch
+	 */
+	LAUNCH_ATTACHMENT_COUNT("rp.cucumber.attachment.launch.count"),
+
+	/**
+	 * Maximum total size of attachments per launch in bytes
+	 */
+	LAUNCH_ATTACHMENT_SIZE("rp.cucumber.attachment.launch.size"),
+
+	/**
+	 * What to do with attachments over the budget, one of {@link AttachmentOverflowPolicy} names
+	 */
+	ATTACHMENT_OVERFLOW_POLICY("rp.cucumber.attachment.overflow.policy"),
+
+	/**
+	 * Send every N-th attachment over the budget in case of {@link AttachmentOverflowPolicy#SAMPLE} policy
+	 */
+	ATTACHMENT_OVERFLOW_SAMPLE_RATE("rp.cucumber.attachment.overflow.sample.rate"),
+
+	/**
+	 * Buffer 'scenario.write' and 'scenario.embed' logs and report them only for scenarios finished with specific statuses
+	 */
+	FAILURE_ONLY_LOGGING("rp.cucumber.log.failure.only"),
+
+	/**
+	 * Maximum number of buffered logs per scenario, the oldest logs are discarded on overflow
+	 */
+	LOG_BUFFER_SIZE("rp.cucumber.log.buffer.size"),
+
+	/**
+	 * Maximum total size in bytes of buffered logs per scenario (attachment data and message text), the oldest logs are
+	 * discarded on overflow
+	 */
+	LOG_BUFFER_BYTES("rp.cucumber.log.buffer.bytes"),
+
+	/**
+	 * Comma-separated list of Cucumber statuses of scenarios which buffered logs are reported for
+	 */
+	LOG_FLUSH_STATUSES("rp.cucumber.log.flush.statuses"),
+
+	/**
+	 * Report compact stack traces of failures: collapsed framework frames, no repeated causes
+	 */
+	STACK_TRACE_COMPACTION("rp.cucumber.stacktrace.compaction"),
+
+	/**
+	 * Comma-separated list of package prefixes of stack trace frames to collapse
+	 */
+	STACK_TRACE_FILTERS("rp.cucumber.stacktrace.filters"),
+
+	/**
+	 * Group failures by fingerprint and report a failure cluster summary as a launch log
+	 */
+	FAILURE_CLUSTERING("rp.cucumber.failure.clustering"),
+
+	/**
+	 * Path to a local file through which parallel shards of the run share one launch, see {@link FileLaunchRendezvous}
+	 */
+	SHARD_FILE("rp.cucumber.shard.file"),
+
+	/**
+	 * Total number of shards sharing one launch, used to find out the last shard which finishes the launch
+	 */
+	SHARD_NUMBER("rp.cucumber.shard.number"),
+
+	/**
+	 * Time in milliseconds since the last update of {@link #SHARD_FILE} after which it's considered left by a crashed run and
+	 * discarded, '24' hours by default, non-positive value means the file is never discarded
+	 */
+	SHARD_STALE_TIMEOUT("rp.cucumber.shard.stale.timeout"),
+
+	/**
+	 * UUID of an already started launch for shards to report into, can also be set with 'RP_CUCUMBER_SHARD_LAUNCH_UUID'
+	 * environment variable
+	 */
+	SHARD_LAUNCH_UUID("rp.cucumber.shard.launch.uuid"),
+
+	/**
+	 * Path to a local file to record feature durations into, see {@link com.epam.reportportal.cucumber.util.FeatureSharder}
+	 */
+	FEATURE_DURATION_FILE("rp.cucumber.feature.duration.file"),
+
+	/**
+	 * Path to a local file to record scenario statuses and durations into, see
+	 * {@link com.epam.reportportal.cucumber.util.ScenarioHistory}
+	 */
+	SCENARIO_HISTORY_FILE("rp.cucumber.scenario.history.file"),
+
+	/**
+	 * Parse feature files in parallel as soon as their sources are read, instead of on the first scenario of a feature
+	 */
+	FEATURE_PRE_PARSING("rp.cucumber.feature.preparse"),
+
+	/**
+	 * Finish features as soon as all their scenarios are finished, 'true' by default. A scenario which runs again after that, e.g.
+	 * a TestNG retry, is reported under a new item of its feature. Disable it for runs which repeat scenarios to keep them under
+	 * one feature item, features are finished at the end of the launch then.
+	 */
+	FEATURE_EARLY_FINISH("rp.cucumber.feature.finish.early"),
+
+	/**
+	 * Report tags like '@key:value' as key-value attributes
+	 */
+	TAG_KEY_VALUE_PARSING("rp.cucumber.tags.key.value"),
+
+	/**
+	 * Maximum number of cached step Test Case IDs and parameter lists, '0' disables caching
+	 */
+	STEP_CACHE_SIZE("rp.cucumber.step.cache.size"),
+
+	/**
+	 * Resolve reflection metadata of step definitions in background on launch start: methods of
+	 * {@link #GLUE_PACKAGES} or, if they are not set, of the package of the first executed step definition
+	 */
+	GLUE_PRE_SCAN("rp.cucumber.glue.prescan"),
+
+	/**
+	 * Comma-separated list of glue packages to scan, see {@link #GLUE_PRE_SCAN}
+	 */
+	GLUE_PACKAGES("rp.cucumber.glue.packages"),
+
+	/**
+	 * Report steps, which are skipped after a failed, undefined, pending or ambiguous step or hook, as one skipped item with names
+	 * of the steps and their step hooks in the description
+	 */
+	SKIPPED_STEP_COLLAPSING("rp.cucumber.step.skipped.collapse"),
+
+	/**
+	 * Report only every N-th passed scenario of a feature, other passed scenarios are dropped and counted in a feature attribute.
+	 * Scenarios with any other status are always reported.
+	 */
+	SCENARIO_SAMPLING_RATE("rp.cucumber.scenario.sampling.rate"),
+
+	/**
+	 * Report at most one passed scenario of a feature per the interval in milliseconds, see {@link #SCENARIO_SAMPLING_RATE}
+	 */
+	SCENARIO_SAMPLING_INTERVAL("rp.cucumber.scenario.sampling.interval");
+
+	private final String propertyName;
+
+	ReporterProperty(String propertyName) {
+		this.propertyName = propertyName;
+	}
+
+	public String getPropertyName() {
+		return propertyName;
+	}
+
+	/**
+	 * Returns a raw property value
+	 *
+	 * @param properties loaded agent properties
+	 * @return property value or null if the property is not set
+	 */
+	@Nullable
+	public String getValue(@Nonnull PropertiesLoader properties) {
+		String value = System.getProperty(propertyName);
+		return value != null ? value : properties.getProperty(propertyName);
+	}
+
+	public boolean getValue(@Nonnull PropertiesLoader properties, boolean defaultValue) {
+		String value = getValue(properties);
+		return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+	}
+
+	public int getValue(@Nonnull PropertiesLoader properties, int defaultValue) {
+		String value = getValue(properties);
+		try {
+			return value == null ? defaultValue : Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	public long getValue(@Nonnull PropertiesLoader properties, long defaultValue) {
+		String value = getValue(properties);
+		try {
+			return value == null ? defaultValue : Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+}
@@ -15,21 +15,17 @@
  */
 package com.epam.reportportal.cucumber;
 
+import com.epam.reportportal.cucumber.util.IntObjectMap;
 import cucumber.api.PickleStepTestStep;
 import cucumber.api.Result;
 import cucumber.api.TestCase;
 import cucumber.api.TestStep;
-import cucumber.api.event.TestSourceRead;
-import gherkin.AstBuilder;
-import gherkin.Parser;
-import gherkin.ParserException;
-import gherkin.TokenMatcher;
 import gherkin.ast.*;
 import io.reactivex.Maybe;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 /**
@@ -47,56 +43,60 @@ public class RunningContext {
 	}
 
 	public static class FeatureContext {
-		private static final Map<String, TestSourceRead> PATH_TO_READ_EVENT_MAP = new ConcurrentHashMap<>();
-		private final String currentFeatureUri;
-		private final Feature currentFeature;
+		private final FeatureIndex index;
+		private final Set<Integer> finishedPickles = ConcurrentHashMap.newKeySet();
+		private final AtomicInteger finishedPickleNumber = new AtomicInteger();
 		private Maybe<String> currentFeatureId;
 
-		public FeatureContext(TestCase testCase) {
-			TestSourceRead event = PATH_TO_READ_EVENT_MAP.get(testCase.getUri());
-			currentFeature = getFeature(event.source);
-			currentFeatureUri = event.uri;
+		public FeatureContext(FeatureIndex featureIndex) {
+			index = featureIndex;
 		}
 
-		public static void addTestSourceReadEvent(String path, TestSourceRead event) {
-			PATH_TO_READ_EVENT_MAP.put(path, event);
+		/**
+		 * Counts a finished pickle of the feature. A pickle which is run again, e.g. a duplicate, is counted once. If some pickles
+		 * are filtered out (by tags, names or lines) the feature never runs out of pickles.
+		 *
+		 * @param line the pickle line
+		 * @return true if the pickle was the last unfinished one of the feature, it's returned only once
+		 */
+		public boolean finishPickle(int line) {
+			return finishedPickles.add(line) && finishedPickleNumber.incrementAndGet() == index.getPickleNumber();
 		}
 
 		public ScenarioContext getScenarioContext(TestCase testCase) {
 			ScenarioDefinition scenario = getScenario(testCase);
 			ScenarioContext context = new ScenarioContext();
-			context.processScenario(scenario);
+			context.processScenario(scenario, index.getSteps());
 			context.setTestCase(testCase);
 			context.processBackground(getBackground());
-			context.processScenarioOutline(scenario);
+			if (scenario instanceof ScenarioOutline) {
+				Integer iteration = index.getOutlineIteration(testCase.getLine());
+				if (iteration == null) {
+					throw new IllegalStateException(String.format("No outline iteration number found for scenario %s:%s",
+							getUri(),
+							testCase.getLine()
+					));
+				}
+				context.setOutlineIteration(iteration);
+			}
 			context.setFeatureUri(getUri());
 			return context;
 		}
 
 		public Feature getFeature(String source) {
-			Parser<GherkinDocument> parser = new Parser<>(new AstBuilder());
-			TokenMatcher matcher = new TokenMatcher();
-			GherkinDocument gherkinDocument;
-			try {
-				gherkinDocument = parser.parse(source, matcher);
-			} catch (ParserException e) {
-				// Ignore exceptions
-				return null;
-			}
-			return gherkinDocument.getFeature();
+			return FeatureIndex.parseFeature(source);
 		}
 
 		public Background getBackground() {
-			ScenarioDefinition background = getFeature().getChildren().get(0);
-			return background instanceof Background ? (Background) background : null;
+			return index.getBackground();
 		}
 
 		public Feature getFeature() {
-			return currentFeature;
+			return index.getFeature();
 		}
 
 		public String getUri() {
-			return currentFeatureUri;
+			return index.getUri();
 		}
 
 		public Maybe<String> getFeatureId() {
@@ -109,34 +109,24 @@ public class RunningContext {
 
 		@SuppressWarnings("unchecked")
 		public <T extends ScenarioDefinition> T getScenario(TestCase testCase) {
-			List<ScenarioDefinition> featureScenarios = getFeature().getChildren();
-			for (ScenarioDefinition scenario : featureScenarios) {
-				if (scenario instanceof Background) {
-					continue;
-				}
-				if (testCase.getLine() == scenario.getLocation().getLine() && testCase.getName().equals(scenario.getName())) {
-					return (T) scenario;
-				} else {
-					if (scenario instanceof ScenarioOutline) {
-						for (Examples example : ((ScenarioOutline) scenario).getExamples()) {
-							for (TableRow tableRow : example.getTableBody()) {
-								if (tableRow.getLocation().getLine() == testCase.getLine()) {
-									return (T) scenario;
-								}
-							}
-						}
-					}
-				}
+			ScenarioDefinition scenario = index.getScenario(testCase.getLine());
+			if (scenario != null) {
+				return (T) scenario;
 			}
 			throw new IllegalStateException("Scenario can't be null!");
 		}
 	}
 
 	public static class ScenarioContext {
-		private static final Map<ScenarioDefinition, List<Integer>> scenarioOutlineMap = new ConcurrentHashMap<>();
-
-		private final Queue<Step> backgroundSteps = new ArrayDeque<>();
-		private final Map<Integer, Step> scenarioLocationMap = new HashMap<>();
+		private IntObjectMap<Step> steps = IntObjectMap.empty();
+		private int remainingBackgroundSteps;
+		private final Deque<BufferedLog> logBuffer = new ArrayDeque<>();
+		private long logBufferBytes;
+		private final List<String> skippedSteps = new ArrayList<>();
+		private boolean skippedStepCollapsing;
+		private int skippedStepCount;
+		private boolean skippingSteps;
+		private int discardedLogCount;
 		private Maybe<String> currentStepId;
 		private Maybe<String> hookStepId;
 		private Result.Type hookStatus;
@@ -145,23 +135,32 @@ public class RunningContext {
 		private ScenarioDefinition scenario;
 		private TestCase testCase;
 		private boolean hasBackground = false;
+		private boolean failed = false;
+		private int attachmentCount;
+		private long attachmentSize;
+		private int overflowAttachmentCount;
+		private int droppedAttachmentCount;
+		private long droppedAttachmentSize;
 		private String outlineIteration;
 		private String uri;
 		private String text;
 
-		public void processScenario(ScenarioDefinition scenario) {
+		/**
+		 * Links the context to a scenario definition
+		 *
+		 * @param scenario Cucumber's ScenarioDefinition object
+		 * @param steps    steps of the feature by line, see {@link FeatureIndex#getSteps()}
+		 */
+		public void processScenario(ScenarioDefinition scenario, IntObjectMap<Step> steps) {
 			this.scenario = scenario;
-			for (Step step : scenario.getSteps()) {
-				scenarioLocationMap.put(step.getLocation().getLine(), step);
-			}
+			this.steps = steps;
 		}
 
 		public void processBackground(Background background) {
 			if (background != null) {
 				this.background = background;
 				hasBackground = true;
-				backgroundSteps.addAll(background.getSteps());
-				mapBackgroundSteps(background);
+				remainingBackgroundSteps = background.getSteps().size();
 			}
 		}
 
@@ -172,28 +171,25 @@ public class RunningContext {
 		 **/
 		public void processScenarioOutline(ScenarioDefinition scenarioOutline) {
 			if (isScenarioOutline(scenarioOutline)) {
-				scenarioOutlineMap.computeIfAbsent(scenarioOutline,
-						k -> ((ScenarioOutline) scenarioOutline).getExamples()
-								.stream()
-								.flatMap(e -> e.getTableBody().stream())
-								.map(r -> r.getLocation().getLine())
-								.collect(Collectors.toList())
-				);
-				int iterationIdx = IntStream.range(0, scenarioOutlineMap.get(scenarioOutline).size())
-						.filter(i -> getLine() == scenarioOutlineMap.get(scenarioOutline).get(i))
+				List<Integer> rows = FeatureIndex.getExampleRowLines((ScenarioOutline) scenarioOutline);
+				int iterationIdx = IntStream.range(0, rows.size())
+						.filter(i -> getLine() == rows.get(i))
 						.findFirst()
 						.orElseThrow(() -> new IllegalStateException(String.format("No outline iteration number found for scenario %s:%s",
 								uri,
 								getLine()
 						)));
-				outlineIteration = String.format("[%d]", iterationIdx + 1);
+				setOutlineIteration(iterationIdx);
 			}
 		}
 
-		public void mapBackgroundSteps(Background background) {
-			for (Step step : background.getSteps()) {
-				scenarioLocationMap.put(step.getLocation().getLine(), step);
-			}
+		/**
+		 * Sets outline iteration of the scenario
+		 *
+		 * @param iterationIdx zero-based index of the outline example row
+		 */
+		public void setOutlineIteration(int iterationIdx) {
+			outlineIteration = String.format("[%d]", iterationIdx + 1);
 		}
 
 		public String getName() {
@@ -214,7 +210,7 @@ public class RunningContext {
 
 		public Step getStep(TestStep testStep) {
 			PickleStepTestStep pickleStepTestStep = (PickleStepTestStep) testStep;
-			Step step = scenarioLocationMap.get(pickleStepTestStep.getStepLine());
+			Step step = steps.get(pickleStepTestStep.getStepLine());
 			if (step != null) {
 				return step;
 			}
@@ -240,7 +236,9 @@ public class RunningContext {
 		}
 
 		public void nextBackgroundStep() {
-			backgroundSteps.poll();
+			if (remainingBackgroundSteps > 0) {
+				remainingBackgroundSteps--;
+			}
 		}
 
 		public boolean isScenarioOutline(ScenarioDefinition scenario) {
@@ -251,7 +249,7 @@ public class RunningContext {
 		}
 
 		public boolean withBackground() {
-			return !backgroundSteps.isEmpty();
+			return remainingBackgroundSteps > 0;
 		}
 
 		public boolean hasBackground() {
@@ -305,5 +303,186 @@ public class RunningContext {
 		public TestCase getTestCase() {
 			return testCase;
 		}
+
+		public boolean isFailed() {
+			return failed;
+		}
+
+		public void setFailed(boolean failed) {
+			this.failed = failed;
+		}
+
+		public int getAttachmentCount() {
+			return attachmentCount;
+		}
+
+		public long getAttachmentSize() {
+			return attachmentSize;
+		}
+
+		public void addAttachment(long size) {
+			attachmentCount++;
+			attachmentSize += size;
+		}
+
+		public int nextOverflowAttachment() {
+			return ++overflowAttachmentCount;
+		}
+
+		public int getDroppedAttachmentCount() {
+			return droppedAttachmentCount;
+		}
+
+		public long getDroppedAttachmentSize() {
+			return droppedAttachmentSize;
+		}
+
+		public void addDroppedAttachment(long size) {
+			droppedAttachmentCount++;
+			droppedAttachmentSize += size;
+		}
+
+		/**
+		 * Puts a deferred log into the scenario ring buffer, the oldest log is discarded if the buffer is full
+		 *
+		 * @param log      a deferred log action
+		 * @param capacity the buffer capacity
+		 */
+		public void bufferLog(Runnable log, int capacity) {
+			bufferLog(log, 0, capacity, -1);
+		}
+
+		/**
+		 * Puts a deferred log into the scenario ring buffer, the oldest logs are discarded while the buffer is full by the number
+		 * of logs or by their total size. A log which is bigger than the whole buffer is discarded at once.
+		 *
+		 * @param log          a deferred log action
+		 * @param size         size of the log data in bytes
+		 * @param capacity     the buffer capacity
+		 * @param byteCapacity maximum total size of buffered logs in bytes, non-positive value means no limit
+		 */
+		public void bufferLog(Runnable log, long size, int capacity, long byteCapacity) {
+			if (capacity <= 0 || (byteCapacity > 0 && size > byteCapacity)) {
+				discardedLogCount++;
+				return;
+			}
+			while (logBuffer.size() >= capacity || (byteCapacity > 0 && logBufferBytes + size > byteCapacity)) {
+				logBufferBytes -= logBuffer.poll().size;
+				discardedLogCount++;
+			}
+			logBuffer.add(new BufferedLog(log, size));
+			logBufferBytes += size;
+		}
+
+		/**
+		 * Removes all buffered logs and returns them in the order they were added
+		 *
+		 * @return buffered log actions
+		 */
+		public List<Runnable> drainLogBuffer() {
+			List<Runnable> result = new ArrayList<>(logBuffer.size());
+			for (BufferedLog log : logBuffer) {
+				result.add(log.action);
+			}
+			logBuffer.clear();
+			logBufferBytes = 0;
+			return result;
+		}
+
+		public int getDiscardedLogCount() {
+			return discardedLogCount;
+		}
+
+		/**
+		 * Remembers a step which is not reported as a separate item since it's skipped after a failure, see
+		 * {@link ReporterProperty#SKIPPED_STEP_COLLAPSING}
+		 *
+		 * @param stepName the step name
+		 */
+		public void addSkippedStep(String stepName) {
+			skippedStepCollapsing = true;
+			skippedSteps.add(stepName);
+			skippedStepCount++;
+		}
+
+		/**
+		 * Remembers a step hook which is not reported as a separate item since its step is skipped after a failure, it's listed
+		 * together with skipped steps
+		 *
+		 * @param hookName the hook name
+		 */
+		public void addSkippedHook(String hookName) {
+			skippedSteps.add(hookName);
+		}
+
+		/**
+		 * @return number of steps, without hooks, remembered since the last {@link #drainSkippedSteps()}
+		 */
+		public int getSkippedStepCount() {
+			return skippedStepCount;
+		}
+
+		/**
+		 * @return true if a step or a hook of the scenario finished with a status after which Cucumber skips the remaining steps
+		 */
+		public boolean isSkippingSteps() {
+			return skippingSteps;
+		}
+
+		public void setSkippingSteps(boolean skippingSteps) {
+			this.skippingSteps = skippingSteps;
+		}
+
+		/**
+		 * @return true if steps of the scenario are collapsed into a summary since a step failed
+		 */
+		public boolean isSkippedStepCollapsing() {
+			return skippedStepCollapsing;
+		}
+
+		/**
+		 * Removes all collapsed steps and hooks and returns their names
+		 *
+		 * @return names of collapsed steps and hooks in the order they were added
+		 */
+		public List<String> drainSkippedSteps() {
+			List<String> result = new ArrayList<>(skippedSteps);
+			skippedSteps.clear();
+			skippedStepCount = 0;
+			return result;
+		}
+
+		/**
+		 * Releases everything the scenario holds: Cucumber's test case, Gherkin definitions, item IDs and buffered logs.
+		 * The context should not be used after that.
+		 */
+		public void clear() {
+			steps = IntObjectMap.empty();
+			remainingBackgroundSteps = 0;
+			logBuffer.clear();
+			logBufferBytes = 0;
+			skippedSteps.clear();
+			skippedStepCount = 0;
+			currentStepId = null;
+			hookStepId = null;
+			id = null;
+			background = null;
+			scenario = null;
+			testCase = null;
+			text = null;
+		}
+
+		/**
+		 * A deferred log action and the size of its data
+		 */
+		private static final class BufferedLog {
+			private final Runnable action;
+			private final long size;
+
+			private BufferedLog(Runnable action, long size) {
+				this.action = action;
+				this.size = size;
+			}
+		}
 	}
 }
@@ -22,7 +22,7 @@ import cucumber.api.TestStep;
 import io.reactivex.Maybe;
 
 import javax.annotation.Nonnull;
-import java.util.Calendar;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -66,6 +66,14 @@ public class ScenarioReporter extends AbstractReporter {
 		return rq;
 	}
 
+	@Override
+	@Nonnull
+	protected StartTestItemRQ buildStartSkippedStepsRequest(int stepCount, @Nonnull List<String> stepNames) {
+		StartTestItemRQ rq = super.buildStartSkippedStepsRequest(stepCount, stepNames);
+		rq.setHasStats(false);
+		return rq;
+	}
+
 	@Override
 	protected void beforeStep(TestStep testStep) {
 		super.beforeStep(testStep);
@@ -121,7 +129,7 @@ public class ScenarioReporter extends AbstractReporter {
 		rootSuiteId = new MemoizingSupplier<>(() -> {
 			StartTestItemRQ rq = new StartTestItemRQ();
 			rq.setName("Root User Story");
-			rq.setStartTime(Calendar.getInstance().getTime());
+			rq.setStartTime(getEventTime());
 			rq.setType(RP_STORY_TYPE);
 			return launch.get().startTestItem(rq);
 		});
@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.annotations.TestCaseId;
+import com.epam.reportportal.annotations.attribute.Attributes;
+import com.epam.reportportal.utils.AttributeParser;
+import com.epam.ta.reportportal.ws.model.attribute.ItemAttributesRQ;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Reflection metadata of a step definition which is reported with every step: code reference, attributes and Test Case ID
+ * annotation. It's resolved once per step definition, see {@link StepDefinitionRegistry}.
+ */
+public class StepDefinitionMetadata {
+	private final String codeRef;
+	private final Method method;
+	private final Set<ItemAttributesRQ> attributes;
+	private final TestCaseId testCaseId;
+
+	public StepDefinitionMetadata(@Nullable String codeRef, @Nullable Method method) {
+		this.codeRef = codeRef;
+		this.method = method;
+		Attributes attributesAnnotation = method == null ? null : method.getAnnotation(Attributes.class);
+		attributes = attributesAnnotation == null ?
+				null :
+				Collections.unmodifiableSet(AttributeParser.retrieveAttributes(attributesAnnotation));
+		testCaseId = method == null ? null : method.getAnnotation(TestCaseId.class);
+	}
+
+	/**
+	 * Builds metadata of a step definition method
+	 *
+	 * @param method a step definition method
+	 * @return the metadata
+	 */
+	@Nonnull
+	public static StepDefinitionMetadata of(@Nonnull Method method) {
+		return new StepDefinitionMetadata(method.getDeclaringClass().getName() + "." + method.getName(), method);
+	}
+
+	/**
+	 * @return a code reference or null if it's not possible to determine
+	 */
+	@Nullable
+	public String getCodeRef() {
+		return codeRef;
+	}
+
+	/**
+	 * @return a step definition method or null if the step definition is not a method, e.g. a lambda
+	 */
+	@Nullable
+	public Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return attributes defined by {@link Attributes} annotation or null if there is no annotation
+	 */
+	@Nullable
+	public Set<ItemAttributesRQ> getAttributes() {
+		return attributes;
+	}
+
+	/**
+	 * @return {@link TestCaseId} annotation of the method or null if there is no annotation
+	 */
+	@Nullable
+	public TestCaseId getTestCaseId() {
+		return testCaseId;
+	}
+}
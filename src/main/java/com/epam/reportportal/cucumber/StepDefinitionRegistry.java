@@ -0,0 +1,236 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.util.ClassScanner;
+import cucumber.api.TestStep;
+import cucumber.runtime.StepDefinitionMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.epam.reportportal.cucumber.Utils.getDefinitionMatchField;
+import static java.util.Optional.ofNullable;
+
+/**
+ * Resolves and caches {@link StepDefinitionMetadata} of step definitions, so reflection is used once per step definition
+ * instead of once per step. Step definition methods of glue packages can also be scanned in advance, in parallel.
+ */
+public class StepDefinitionRegistry {
+	private static final Logger LOGGER = LoggerFactory.getLogger(StepDefinitionRegistry.class);
+
+	private static final String STEP_DEFINITION_FIELD_NAME = "stepDefinition";
+	private static final String METHOD_FIELD_NAME = "method";
+	private static final String GET_LOCATION_METHOD_NAME = "getLocation";
+	private static final String METHOD_OPENING_BRACKET = "(";
+	private static final String STEP_DEFINITION_ANNOTATION = "cucumber.runtime.java.StepDefAnnotation";
+	// only definitions of this class are plain Java methods, e.g. cucumber-java8 definitions have a 'method' field of a lambda
+	private static final String JAVA_STEP_DEFINITION_CLASS = "cucumber.runtime.java.JavaStepDefinition";
+
+	private final Map<Object, StepDefinitionMetadata> definitions = new ConcurrentHashMap<>();
+	private final Map<Method, StepDefinitionMetadata> methods = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Optional<Field>> matchFields = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Optional<Field>> stepDefinitionFields = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Optional<Field>> methodFields = new ConcurrentHashMap<>();
+	private final AtomicBoolean firstDefinition = new AtomicBoolean(true);
+	private final Executor executor;
+	private final boolean scanFirstPackage;
+
+	/**
+	 * @param executor         an executor to scan glue packages with
+	 * @param scanFirstPackage scan the package of the first resolved step definition in background
+	 */
+	public StepDefinitionRegistry(@Nonnull Executor executor, boolean scanFirstPackage) {
+		this.executor = executor;
+		this.scanFirstPackage = scanFirstPackage;
+	}
+
+	/**
+	 * Returns metadata of the step definition which matched the step
+	 *
+	 * @param testStep Cucumber's TestStep object
+	 * @return the metadata or null if the step is not matched with a step definition (ambiguous, undefined, etc.)
+	 */
+	@Nullable
+	public StepDefinitionMetadata get(@Nonnull TestStep testStep) {
+		Field definitionMatchField = matchFields.computeIfAbsent(testStep.getClass(),
+				c -> ofNullable(getDefinitionMatchField(testStep))
+		).orElse(null);
+		if (definitionMatchField == null) {
+			return null;
+		}
+		Object stepDefinition;
+		try {
+			StepDefinitionMatch match = (StepDefinitionMatch) definitionMatchField.get(testStep);
+			if (match == null) {
+				return null;
+			}
+			Field stepDefinitionField = stepDefinitionFields.computeIfAbsent(match.getClass(),
+					c -> getDeclaredField(c, STEP_DEFINITION_FIELD_NAME)
+			).orElse(null);
+			if (stepDefinitionField == null) {
+				return null;
+			}
+			stepDefinition = stepDefinitionField.get(match);
+		} catch (IllegalAccessException | ClassCastException e) {
+			return null;
+		}
+		if (stepDefinition == null) {
+			return null;
+		}
+		StepDefinitionMetadata result = definitions.get(stepDefinition);
+		if (result != null) {
+			return result;
+		}
+		result = resolve(stepDefinition);
+		definitions.putIfAbsent(stepDefinition, result);
+		if (scanFirstPackage && result.getMethod() != null && firstDefinition.compareAndSet(true, false)) {
+			Package gluePackage = result.getMethod().getDeclaringClass().getPackage();
+			if (gluePackage != null) {
+				scan(Collections.singletonList(gluePackage.getName()), result.getMethod().getDeclaringClass().getClassLoader());
+			}
+		}
+		return result;
+	}
+
+	@Nonnull
+	private static Optional<Field> getDeclaredField(@Nonnull Class<?> clazz, @Nonnull String name) {
+		try {
+			Field field = clazz.getDeclaredField(name);
+			field.setAccessible(true);
+			return Optional.of(field);
+		} catch (NoSuchFieldException | SecurityException e) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Resolves metadata of a step definition object, metadata of methods found by {@link #scan(Collection, ClassLoader)} is
+	 * reused
+	 *
+	 * @param stepDefinition a Cucumber's step definition object
+	 * @return the metadata
+	 */
+	@Nonnull
+	StepDefinitionMetadata resolve(@Nonnull Object stepDefinition) {
+		Method method = null;
+		if (JAVA_STEP_DEFINITION_CLASS.equals(stepDefinition.getClass().getName())) {
+			Field methodField = methodFields.computeIfAbsent(stepDefinition.getClass(), c -> getDeclaredField(c, METHOD_FIELD_NAME))
+					.orElse(null);
+			try {
+				method = methodField == null ? null : (Method) methodField.get(stepDefinition);
+			} catch (IllegalAccessException | ClassCastException ignore) {
+			}
+		}
+		if (method != null) {
+			return methods.computeIfAbsent(method, StepDefinitionMetadata::of);
+		}
+		// not a Java method, e.g. a lambda step definition, the location is the only code reference there is
+		String codeRef = null;
+		try {
+			Method getLocationMethod = stepDefinition.getClass().getDeclaredMethod(GET_LOCATION_METHOD_NAME, boolean.class);
+			getLocationMethod.setAccessible(true);
+			String fullCodeRef = String.valueOf(getLocationMethod.invoke(stepDefinition, true));
+			int bracket = fullCodeRef.indexOf(METHOD_OPENING_BRACKET);
+			codeRef = "null".equals(fullCodeRef) ? null : bracket >= 0 ? fullCodeRef.substring(0, bracket) : fullCodeRef;
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ignore) {
+		}
+		return new StepDefinitionMetadata(codeRef, null);
+	}
+
+	/**
+	 * Scans classes of glue packages in background and resolves metadata of all step definition methods found
+	 *
+	 * @param packages    glue package names
+	 * @param classLoader a class loader to load glue classes with
+	 * @return a future which is completed once all packages are scanned
+	 */
+	@Nonnull
+	public CompletableFuture<Void> scan(@Nonnull Collection<String> packages, @Nullable ClassLoader classLoader) {
+		ClassLoader loader = classLoader == null ? Thread.currentThread().getContextClassLoader() : classLoader;
+		// tasks never wait for other tasks of the executor, so the scan can't starve a small pool
+		return CompletableFuture.allOf(packages.stream()
+				.map(p -> CompletableFuture.supplyAsync(() -> listClasses(loader, p), executor)
+						.thenCompose(classNames -> CompletableFuture.allOf(classNames.stream()
+								.map(c -> CompletableFuture.runAsync(() -> scanClass(loader, c), executor))
+								.toArray(CompletableFuture[]::new))))
+				.toArray(CompletableFuture[]::new));
+	}
+
+	@Nonnull
+	private static List<String> listClasses(@Nonnull ClassLoader loader, @Nonnull String packageName) {
+		try {
+			return ClassScanner.findClassNames(loader, packageName);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to scan glue package: " + packageName, e);
+			return Collections.emptyList();
+		}
+	}
+
+	private void scanClass(@Nonnull ClassLoader loader, @Nonnull String className) {
+		Class<?> clazz;
+		try {
+			clazz = Class.forName(className, false, loader);
+		} catch (ClassNotFoundException | LinkageError e) {
+			return;
+		}
+		for (Method method : clazz.getDeclaredMethods()) {
+			if (isStepDefinition(method)) {
+				methods.computeIfAbsent(method, StepDefinitionMetadata::of);
+			}
+		}
+	}
+
+	private static boolean isStepDefinition(@Nonnull Method method) {
+		for (Annotation annotation : method.getDeclaredAnnotations()) {
+			for (Annotation meta : annotation.annotationType().getDeclaredAnnotations()) {
+				if (STEP_DEFINITION_ANNOTATION.equals(meta.annotationType().getName())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param method a step definition method
+	 * @return metadata of the method or null if it's not resolved yet
+	 */
+	@Nullable
+	public StepDefinitionMetadata get(@Nonnull Method method) {
+		return methods.get(method);
+	}
+
+	public void clear() {
+		definitions.clear();
+		methods.clear();
+		matchFields.clear();
+		stepDefinitionFields.clear();
+		methodFields.clear();
+	}
+}
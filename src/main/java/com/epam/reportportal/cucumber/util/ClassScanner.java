@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Lists classes of a package and its sub-packages from class path directories and jar files, without loading them
+ */
+public class ClassScanner {
+	private static final String CLASS_SUFFIX = ".class";
+
+	private ClassScanner() {
+		throw new AssertionError("No instances should exist for the class!");
+	}
+
+	/**
+	 * Returns names of all classes in the package and its sub-packages
+	 *
+	 * @param classLoader a class loader to search class path resources with
+	 * @param packageName a package name, e.g. 'com.example.steps'
+	 * @return sorted class names
+	 * @throws IOException in case of class path reading errors
+	 */
+	@Nonnull
+	public static List<String> findClassNames(@Nonnull ClassLoader classLoader, @Nonnull String packageName) throws IOException {
+		String packagePath = packageName.replace('.', '/');
+		Set<String> result = new TreeSet<>();
+		Enumeration<URL> resources = classLoader.getResources(packagePath);
+		while (resources.hasMoreElements()) {
+			URL resource = resources.nextElement();
+			if ("file".equals(resource.getProtocol())) {
+				result.addAll(findInDirectory(resource, packageName));
+			} else if ("jar".equals(resource.getProtocol())) {
+				result.addAll(findInJar(resource, packagePath));
+			}
+		}
+		return new ArrayList<>(result);
+	}
+
+	@Nonnull
+	private static List<String> findInDirectory(@Nonnull URL resource, @Nonnull String packageName) throws IOException {
+		Path root;
+		try {
+			root = Paths.get(resource.toURI());
+		} catch (URISyntaxException e) {
+			throw new IOException("Unable to read class path directory: " + resource, e);
+		}
+		try (Stream<Path> files = Files.walk(root)) {
+			return files.filter(p -> p.getFileName().toString().endsWith(CLASS_SUFFIX)).map(p -> {
+				String relative = root.relativize(p).toString().replace(p.getFileSystem().getSeparator(), ".");
+				return packageName + "." + relative.substring(0, relative.length() - CLASS_SUFFIX.length());
+			}).collect(Collectors.toList());
+		}
+	}
+
+	@Nonnull
+	private static List<String> findInJar(@Nonnull URL resource, @Nonnull String packagePath) throws IOException {
+		JarURLConnection connection = (JarURLConnection) resource.openConnection();
+		connection.setUseCaches(false);
+		List<String> result = new ArrayList<>();
+		try (JarFile jar = connection.getJarFile()) {
+			Enumeration<JarEntry> entries = jar.entries();
+			while (entries.hasMoreElements()) {
+				String name = entries.nextElement().getName();
+				if (name.startsWith(packagePath + "/") && name.endsWith(CLASS_SUFFIX)) {
+					result.add(name.substring(0, name.length() - CLASS_SUFFIX.length()).replace('/', '.'));
+				}
+			}
+		}
+		return result;
+	}
+}
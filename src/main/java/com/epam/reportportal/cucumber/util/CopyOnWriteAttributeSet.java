@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import com.epam.ta.reportportal.ws.model.attribute.ItemAttributesRQ;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A modifiable view of a shared (cached) attribute set. Reads go to the shared set, the attributes are copied on the first
+ * modification of the view, so the shared set and its attributes stay intact. Attributes returned by the view before the
+ * first modification are the shared ones and should not be changed.
+ */
+public class CopyOnWriteAttributeSet extends AbstractSet<ItemAttributesRQ> {
+	private final Set<ItemAttributesRQ> shared;
+	private Set<ItemAttributesRQ> own;
+	// shared attributes to their copies, so a shared attribute got from the view before the copying can still be removed
+	private Map<ItemAttributesRQ, ItemAttributesRQ> copies;
+
+	/**
+	 * @param shared a shared attribute set, it's never modified by the view
+	 */
+	public CopyOnWriteAttributeSet(@Nonnull Set<ItemAttributesRQ> shared) {
+		this.shared = shared;
+	}
+
+	@Nonnull
+	private Set<ItemAttributesRQ> modifiable() {
+		if (own == null) {
+			own = new HashSet<>(Math.max(shared.size() * 2, 16));
+			copies = new IdentityHashMap<>(shared.size());
+			for (ItemAttributesRQ attribute : shared) {
+				ItemAttributesRQ copy = new ItemAttributesRQ(attribute.getKey(), attribute.getValue());
+				copy.setSystem(attribute.isSystem());
+				own.add(copy);
+				copies.put(attribute, copy);
+			}
+		}
+		return own;
+	}
+
+	private Object toOwn(Object o) {
+		ItemAttributesRQ copy = copies.get(o);
+		return copy == null ? o : copy;
+	}
+
+	@Override
+	public int size() {
+		return own == null ? shared.size() : own.size();
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return own == null ? shared.contains(o) : own.contains(toOwn(o));
+	}
+
+	@Override
+	public boolean add(ItemAttributesRQ attribute) {
+		return modifiable().add(attribute);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (!contains(o)) {
+			return false;
+		}
+		Set<ItemAttributesRQ> attributes = modifiable();
+		return attributes.remove(toOwn(o));
+	}
+
+	@Override
+	public void clear() {
+		own = new HashSet<>();
+		copies = new IdentityHashMap<>();
+	}
+
+	@Nonnull
+	@Override
+	public Iterator<ItemAttributesRQ> iterator() {
+		if (own != null) {
+			return own.iterator();
+		}
+		Iterator<ItemAttributesRQ> iterator = shared.iterator();
+		return new Iterator<ItemAttributesRQ>() {
+			private ItemAttributesRQ last;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public ItemAttributesRQ next() {
+				if (!iterator.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				last = iterator.next();
+				return last;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null) {
+					throw new IllegalStateException();
+				}
+				// the shared set is not changed, so the iteration over it continues
+				CopyOnWriteAttributeSet.this.remove(last);
+				last = null;
+			}
+		};
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Computes a fail-fast execution order from a {@link ScenarioHistory}: scenarios which failed recently go first, the more recent
+ * the failure the earlier, then scenarios go from the fastest to the slowest. Scenario code references are expected in
+ * 'feature URI:line' form, the same as the reporter records them.
+ * <p>
+ * Cucumber runs all scenarios of a feature together, so the order is written as a rerun-style file of feature URIs, which can
+ * be passed to Cucumber as '@path/to/file'. Line filters are not written, so scenarios which are new since the last run are
+ * not skipped.
+ * <p>
+ * Cucumber 3 sorts loaded features by URI, so a rerun file only selects features and their order is lost. To run features in
+ * the fail-fast order a runner should sort them itself with {@link #featureOrder(Path)}, e.g. with TestNG:
+ * <pre>
+ * &#64;Override
+ * &#64;DataProvider
+ * public Object[][] scenarios() {
+ * 	Object[][] scenarios = super.scenarios();
+ * 	Comparator&lt;String&gt; order = FailFastOrder.featureOrder(Paths.get("target/rp-order.txt"));
+ * 	Arrays.sort(scenarios, Comparator.comparing(s -&gt; ((PickleEventWrapper) s[0]).getPickleEvent().uri, order));
+ * 	return scenarios;
+ * }
+ * </pre>
+ */
+public class FailFastOrder {
+
+	private static final char LINE_SEPARATOR = ':';
+
+	private static final Comparator<ScenarioHistory.Entry> SCENARIO_ORDER = Comparator.<ScenarioHistory.Entry>comparingInt(e -> failureRecency(
+					e.getFailures()))
+			.reversed()
+			.thenComparingLong(ScenarioHistory.Entry::getDuration)
+			.thenComparing(ScenarioHistory.Entry::getCodeRef);
+
+	private FailFastOrder() {
+		throw new AssertionError("No instances should exist for the class!");
+	}
+
+	/**
+	 * The lowest bit of a failure mask is the last run, so after bit reversal a more recent failure gives a bigger number.
+	 * The result is shifted to stay non-negative.
+	 */
+	private static int failureRecency(int failures) {
+		return Integer.reverse(failures) >>> 1;
+	}
+
+	/**
+	 * Orders scenarios
+	 *
+	 * @param history scenario history entries
+	 * @return scenario code references in the recommended execution order
+	 */
+	@Nonnull
+	public static List<String> orderScenarios(@Nonnull Collection<ScenarioHistory.Entry> history) {
+		return history.stream().sorted(SCENARIO_ORDER).map(ScenarioHistory.Entry::getCodeRef).collect(Collectors.toList());
+	}
+
+	/**
+	 * Orders features by their most recently failed scenario, and then by total duration
+	 *
+	 * @param history scenario history entries
+	 * @return feature URIs in the recommended execution order
+	 */
+	@Nonnull
+	public static List<String> orderFeatures(@Nonnull Collection<ScenarioHistory.Entry> history) {
+		Map<String, Integer> recency = new HashMap<>();
+		Map<String, Long> durations = new HashMap<>();
+		for (ScenarioHistory.Entry entry : history) {
+			String uri = getFeatureUri(entry.getCodeRef());
+			recency.merge(uri, failureRecency(entry.getFailures()), Math::max);
+			durations.merge(uri, entry.getDuration(), Long::sum);
+		}
+		return recency.keySet()
+				.stream()
+				.sorted(Comparator.<String>comparingInt(recency::get)
+						.reversed()
+						.thenComparingLong(durations::get)
+						.thenComparing(Comparator.naturalOrder()))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Writes a rerun-style file with features in the recommended execution order
+	 *
+	 * @param history scenario history entries
+	 * @param file    a file to write
+	 * @throws IOException in case of file writing errors
+	 */
+	public static void writeRerunFile(@Nonnull Collection<ScenarioHistory.Entry> history, @Nonnull Path file) throws IOException {
+		Files.write(file, orderFeatures(history), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads a rerun-style file written by {@link #writeRerunFile(Collection, Path)} and returns a comparator of feature URIs
+	 * which keeps the file order. Features which are not in the file, e.g. new ones, go last in URI order. The sort is meant to be
+	 * stable, so scenarios of a feature keep their order.
+	 *
+	 * @param file a rerun-style file
+	 * @return feature URI comparator, URI order if the file does not exist
+	 * @throws IOException in case of file reading errors
+	 */
+	@Nonnull
+	public static Comparator<String> featureOrder(@Nonnull Path file) throws IOException {
+		Map<String, Integer> positions = new HashMap<>();
+		if (Files.exists(file)) {
+			for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+				String uri = line.trim();
+				if (!uri.isEmpty()) {
+					positions.putIfAbsent(uri, positions.size());
+				}
+			}
+		}
+		return Comparator.<String>comparingInt(uri -> positions.getOrDefault(uri, Integer.MAX_VALUE))
+				.thenComparing(Comparator.naturalOrder());
+	}
+
+	@Nonnull
+	private static String getFeatureUri(@Nonnull String codeRef) {
+		int separator = codeRef.lastIndexOf(LINE_SEPARATOR);
+		return separator > 0 ? codeRef.substring(0, separator) : codeRef;
+	}
+}
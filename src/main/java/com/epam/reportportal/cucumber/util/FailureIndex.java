@@ -0,0 +1,200 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Groups failures by a normalized fingerprint: exception type, normalized message (numbers, hexadecimal values and UUIDs are
+ * masked) and top application frames. Used to build a failure cluster summary at the end of a launch.
+ */
+public class FailureIndex {
+	private static final int MAX_MESSAGE_LENGTH = 200;
+	private static final Pattern UUID_PATTERN = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+	private static final Pattern HEX_PATTERN = Pattern.compile("0[xX][0-9a-fA-F]+|@[0-9a-fA-F]{4,}");
+	private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d+");
+	private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+	private final String[] frameFilters;
+	private final int frameNumber;
+	private final int representativeNumber;
+	private final Map<String, Cluster> clusters = new ConcurrentHashMap<>();
+
+	/**
+	 * @param frameFilters         package prefixes of framework frames, which are not used in fingerprints
+	 * @param frameNumber          number of top application frames to use in fingerprints
+	 * @param representativeNumber number of scenarios to remember for every cluster
+	 */
+	public FailureIndex(@Nonnull Collection<String> frameFilters, int frameNumber, int representativeNumber) {
+		this.frameFilters = frameFilters.toArray(new String[0]);
+		this.frameNumber = frameNumber;
+		this.representativeNumber = representativeNumber;
+	}
+
+	/**
+	 * Normalizes a failure message: takes the first line, masks UUIDs, hexadecimal values and numbers
+	 *
+	 * @param message a message to normalize
+	 * @return normalized message
+	 */
+	@Nonnull
+	public static String normalizeMessage(@Nullable String message) {
+		if (message == null) {
+			return "";
+		}
+		String result = message.trim();
+		int newLine = result.indexOf('\n');
+		if (newLine >= 0) {
+			result = result.substring(0, newLine);
+		}
+		result = UUID_PATTERN.matcher(result).replaceAll("<uuid>");
+		result = HEX_PATTERN.matcher(result).replaceAll("<hex>");
+		result = NUMBER_PATTERN.matcher(result).replaceAll("<n>");
+		result = WHITESPACE_PATTERN.matcher(result).replaceAll(" ").trim();
+		return result.length() > MAX_MESSAGE_LENGTH ? result.substring(0, MAX_MESSAGE_LENGTH) : result;
+	}
+
+	private boolean isFiltered(@Nonnull StackTraceElement element) {
+		String className = element.getClassName();
+		for (String filter : frameFilters) {
+			if (className.startsWith(filter)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Records a failure
+	 *
+	 * @param error    a failure cause
+	 * @param scenario a scenario reference, e.g. its code reference
+	 */
+	public void add(@Nonnull Throwable error, @Nonnull String scenario) {
+		String type = error.getClass().getName();
+		String message = normalizeMessage(error.getMessage());
+		List<String> frames = new ArrayList<>(frameNumber);
+		for (StackTraceElement element : error.getStackTrace()) {
+			if (frames.size() >= frameNumber) {
+				break;
+			}
+			if (!isFiltered(element)) {
+				frames.add(element.toString());
+			}
+		}
+		String fingerprint = type + '|' + message + '|' + String.join("|", frames);
+		clusters.computeIfAbsent(fingerprint, k -> new Cluster(type, message, frames, representativeNumber)).add(scenario);
+	}
+
+	/**
+	 * @return failure clusters sorted by failure number, the biggest first
+	 */
+	@Nonnull
+	public List<Cluster> getClusters() {
+		return clusters.values().stream().sorted(Comparator.comparingInt(Cluster::getCount).reversed()).collect(Collectors.toList());
+	}
+
+	public boolean isEmpty() {
+		return clusters.isEmpty();
+	}
+
+	public void clear() {
+		clusters.clear();
+	}
+
+	/**
+	 * Builds a text summary of failure clusters
+	 *
+	 * @return the summary
+	 */
+	@Nonnull
+	public String summary() {
+		List<Cluster> sorted = getClusters();
+		int total = sorted.stream().mapToInt(Cluster::getCount).sum();
+		StringBuilder result = new StringBuilder();
+		result.append("Failure clusters: ").append(sorted.size()).append(" cluster(s), ").append(total).append(" failure(s)");
+		for (int i = 0; i < sorted.size(); i++) {
+			Cluster cluster = sorted.get(i);
+			result.append("\n\n#").append(i + 1).append(": ").append(cluster.getCount()).append(" failure(s) - ").append(cluster.getType());
+			if (!cluster.getMessage().isEmpty()) {
+				result.append(": ").append(cluster.getMessage());
+			}
+			cluster.getFrames().forEach(f -> result.append("\n\tat ").append(f));
+			result.append("\n\tscenarios: ").append(String.join(", ", cluster.getRepresentatives()));
+			if (cluster.getCount() > cluster.getRepresentatives().size()) {
+				result.append(", ...");
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * A group of failures with the same fingerprint
+	 */
+	public static class Cluster {
+		private final String type;
+		private final String message;
+		private final List<String> frames;
+		private final int representativeNumber;
+		private final AtomicInteger count = new AtomicInteger();
+		private final Set<String> representatives = new LinkedHashSet<>();
+
+		private Cluster(String type, String message, List<String> frames, int representativeNumber) {
+			this.type = type;
+			this.message = message;
+			this.frames = Collections.unmodifiableList(frames);
+			this.representativeNumber = representativeNumber;
+		}
+
+		private void add(String scenario) {
+			count.incrementAndGet();
+			synchronized (representatives) {
+				if (representatives.size() < representativeNumber) {
+					representatives.add(scenario);
+				}
+			}
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		public List<String> getFrames() {
+			return frames;
+		}
+
+		public int getCount() {
+			return count.get();
+		}
+
+		public List<String> getRepresentatives() {
+			synchronized (representatives) {
+				return new ArrayList<>(representatives);
+			}
+		}
+	}
+}
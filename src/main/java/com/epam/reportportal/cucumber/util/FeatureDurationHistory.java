@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A local history of feature durations, written by the reporter at the end of a launch and used by {@link FeatureSharder}.
+ * It's a text file with one 'duration in milliseconds, tab, feature URI' line per feature. Durations of the last launch replace
+ * previous values, features which were not run keep their previous durations. The file is updated under an exclusive file lock,
+ * so parallel shards of the same run can share it. File locks are held on behalf of the whole JVM, so reporters of the same JVM
+ * are also serialized with a lock per canonical file path.
+ */
+public class FeatureDurationHistory {
+
+	private static final char SEPARATOR = '\t';
+
+	// file locks are held on behalf of the whole JVM, overlapping locks of one JVM throw OverlappingFileLockException
+	private static final ConcurrentMap<Path, Object> JVM_LOCKS = new ConcurrentHashMap<>();
+
+	private FeatureDurationHistory() {
+		throw new AssertionError("No instances should exist for the class!");
+	}
+
+	/**
+	 * Reads feature durations
+	 *
+	 * @param file a history file
+	 * @return feature URI to duration in milliseconds map, empty if the file does not exist
+	 * @throws IOException in case of file reading errors
+	 */
+	@Nonnull
+	public static Map<String, Long> read(@Nonnull Path file) throws IOException {
+		if (!Files.exists(file)) {
+			return Collections.emptyMap();
+		}
+		return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Merges feature durations into the history file
+	 *
+	 * @param file      a history file, created if it does not exist
+	 * @param durations feature URI to duration in milliseconds map
+	 * @throws IOException in case of file reading or writing errors
+	 */
+	public static void update(@Nonnull Path file, @Nonnull Map<String, Long> durations) throws IOException {
+		if (durations.isEmpty()) {
+			return;
+		}
+		synchronized (JVM_LOCKS.computeIfAbsent(file.toFile().getCanonicalFile().toPath(), p -> new Object())) {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+					FileLock ignored = channel.lock()) {
+				ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+				channel.read(buffer, 0);
+				Map<String, Long> history = parse(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+				history.putAll(durations);
+
+				StringBuilder builder = new StringBuilder();
+				history.forEach((uri, duration) -> builder.append(duration).append(SEPARATOR).append(uri).append('\n'));
+				ByteBuffer result = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+				channel.truncate(0);
+				long position = 0;
+				while (result.hasRemaining()) {
+					position += channel.write(result, position);
+				}
+			}
+		}
+	}
+
+	@Nonnull
+	private static Map<String, Long> parse(@Nonnull String content) throws IOException {
+		Map<String, Long> result = new TreeMap<>();
+		try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int separator = line.indexOf(SEPARATOR);
+				if (separator <= 0 || separator == line.length() - 1) {
+					continue;
+				}
+				try {
+					result.put(line.substring(separator + 1), Long.parseLong(line.substring(0, separator)));
+				} catch (NumberFormatException ignore) {
+					// a broken line, e.g. after an interrupted write
+				}
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Splits features into shards with about the same total duration, so shards of a parallel run finish at about the same time.
+ * Features are assigned with longest-processing-time-first bin packing: the longest feature goes to the least loaded shard.
+ * Durations are taken from a {@link FeatureDurationHistory}, features without history are assumed to take an average time.
+ * <p>
+ * The result depends only on the arguments, so each node of the run may compute its own shard independently:
+ * <pre>
+ * List&lt;String&gt; features = FeatureSharder.getShard(allFeatures, FeatureDurationHistory.read(historyFile), nodeNumber, nodeIndex);
+ * </pre>
+ * Feature URIs should be in the same form Cucumber reports them, e.g. 'src/test/resources/features/my.feature'.
+ */
+public class FeatureSharder {
+
+	private static final long DEFAULT_DURATION = 1L;
+
+	private FeatureSharder() {
+		throw new AssertionError("No instances should exist for the class!");
+	}
+
+	/**
+	 * Splits features into shards
+	 *
+	 * @param features    feature URIs
+	 * @param durations   feature URI to duration map
+	 * @param shardNumber number of shards
+	 * @return a list of shards, each shard is a list of feature URIs
+	 */
+	@Nonnull
+	public static List<List<String>> partition(@Nonnull Collection<String> features, @Nonnull Map<String, Long> durations,
+			int shardNumber) {
+		if (shardNumber <= 0) {
+			throw new IllegalArgumentException("Shard number should be positive: " + shardNumber);
+		}
+		long defaultDuration = Math.max(DEFAULT_DURATION,
+				(long) features.stream().map(durations::get).filter(Objects::nonNull).mapToLong(Long::longValue).average().orElse(0)
+		);
+		List<String> sorted = features.stream()
+				.distinct()
+				.sorted(Comparator.<String>comparingLong(f -> durations.getOrDefault(f, defaultDuration))
+						.reversed()
+						.thenComparing(Comparator.naturalOrder()))
+				.collect(Collectors.toList());
+
+		List<List<String>> shards = IntStream.range(0, shardNumber).mapToObj(i -> new ArrayList<String>()).collect(Collectors.toList());
+		long[] loads = new long[shardNumber];
+		// the least loaded shard first, ties are broken by shard index to keep the result stable
+		PriorityQueue<Integer> queue = new PriorityQueue<>(shardNumber,
+				Comparator.<Integer>comparingLong(i -> loads[i]).thenComparing(Comparator.naturalOrder())
+		);
+		IntStream.range(0, shardNumber).forEach(queue::add);
+		for (String feature : sorted) {
+			int shard = queue.poll();
+			shards.get(shard).add(feature);
+			loads[shard] += durations.getOrDefault(feature, defaultDuration);
+			queue.add(shard);
+		}
+		return shards;
+	}
+
+	/**
+	 * Returns features of a specific shard
+	 *
+	 * @param features    feature URIs
+	 * @param durations   feature URI to duration map
+	 * @param shardNumber number of shards
+	 * @param shardIndex  zero-based shard index
+	 * @return feature URIs of the shard
+	 */
+	@Nonnull
+	public static List<String> getShard(@Nonnull Collection<String> features, @Nonnull Map<String, Long> durations, int shardNumber,
+			int shardIndex) {
+		if (shardIndex < 0 || shardIndex >= shardNumber) {
+			throw new IllegalArgumentException(String.format("Shard index %d is out of range [0, %d)", shardIndex, shardNumber));
+		}
+		return partition(features, durations, shardNumber).get(shardIndex);
+	}
+}
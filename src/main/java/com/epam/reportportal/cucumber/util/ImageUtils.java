@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import javax.annotation.Nonnull;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Image downscaling and re-encoding for screenshot attachments
+ */
+public class ImageUtils {
+
+	private ImageUtils() {
+		throw new AssertionError("No instances should exist for the class!");
+	}
+
+	/**
+	 * Downscales an image to fit into the given dimension and encodes it with the given mime type. The image is decoded only
+	 * if it should be downscaled or converted to another format.
+	 *
+	 * @param data           image data
+	 * @param mimeType       mime type of the image data
+	 * @param targetMimeType target image mime type, e.g. 'image/jpeg'
+	 * @param maxDimension   maximum width and height of the result image, non-positive value means no downscaling
+	 * @param quality        compression quality from 1 to 100 for lossy formats, non-positive value means format default
+	 * @return processed image or the original data and mime type if it's not a readable image, if there is no writer for
+	 * the target mime type, if there is nothing to change or if the processed image is not smaller than the original one
+	 * @throws IOException in case of image reading or writing errors
+	 */
+	@Nonnull
+	public static Image process(@Nonnull byte[] data, @Nonnull String mimeType, @Nonnull String targetMimeType, int maxDimension,
+			int quality) throws IOException {
+		Image original = new Image(data, mimeType);
+		BufferedImage image;
+		try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+			if (!readers.hasNext()) {
+				return original;
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(iis, true, true);
+				int max = Math.max(reader.getWidth(0), reader.getHeight(0));
+				if ((maxDimension <= 0 || max <= maxDimension) && targetMimeType.equals(mimeType)) {
+					return original;
+				}
+				image = reader.read(0);
+			} finally {
+				reader.dispose();
+			}
+		}
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(targetMimeType);
+		if (!writers.hasNext()) {
+			return original;
+		}
+		ImageWriter writer = writers.next();
+		boolean opaque = "image/jpeg".equals(targetMimeType);
+		BufferedImage result = scale(image, maxDimension, opaque);
+
+		ImageWriteParam param = writer.getDefaultWriteParam();
+		if (quality > 0 && param.canWriteCompressed()) {
+			param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+				param.setCompressionType(param.getCompressionTypes()[0]);
+			}
+			param.setCompressionQuality(Math.min(quality, 100) / 100f);
+		}
+		ByteArrayOutputStream os = new ByteArrayOutputStream(data.length / 2);
+		try (ImageOutputStream ios = ImageIO.createImageOutputStream(os)) {
+			writer.setOutput(ios);
+			writer.write(null, new IIOImage(result, null, null), param);
+		} finally {
+			writer.dispose();
+		}
+		if (os.size() >= data.length) {
+			return original;
+		}
+		return new Image(os.toByteArray(), targetMimeType);
+	}
+
+	@Nonnull
+	private static BufferedImage scale(@Nonnull BufferedImage image, int maxDimension, boolean opaque) {
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int max = Math.max(width, height);
+		boolean hasAlpha = image.getColorModel().hasAlpha();
+		if ((maxDimension <= 0 || max <= maxDimension) && !(opaque && hasAlpha)) {
+			return image;
+		}
+		if (maxDimension > 0 && max > maxDimension) {
+			double ratio = (double) maxDimension / max;
+			width = Math.max(1, (int) Math.round(width * ratio));
+			height = Math.max(1, (int) Math.round(height * ratio));
+		}
+		BufferedImage result = new BufferedImage(width,
+				height,
+				opaque || !hasAlpha ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB
+		);
+		Graphics2D graphics = result.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			if (opaque) {
+				graphics.setColor(Color.WHITE);
+				graphics.fillRect(0, 0, width, height);
+			}
+			graphics.drawImage(image, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+		return result;
+	}
+
+	/**
+	 * Image data with its mime type
+	 */
+	public static final class Image {
+		private final byte[] data;
+		private final String mimeType;
+
+		public Image(@Nonnull byte[] data, @Nonnull String mimeType) {
+			this.data = data;
+			this.mimeType = mimeType;
+		}
+
+		@Nonnull
+		public byte[] getData() {
+			return data;
+		}
+
+		@Nonnull
+		public String getMimeType() {
+			return mimeType;
+		}
+	}
+}
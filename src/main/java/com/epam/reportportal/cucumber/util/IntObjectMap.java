@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * An immutable open-addressed map with primitive int keys. It's meant for small read-mostly indices, e.g. steps by line,
+ * which are built once and looked up many times, so lookups don't box keys and the map takes two flat arrays.
+ *
+ * @param <V> value type, null values are not allowed
+ */
+public final class IntObjectMap<V> {
+	private static final IntObjectMap<?> EMPTY = new IntObjectMap<>(new int[1], new Object[1], 0);
+
+	private final int[] keys;
+	private final Object[] values;
+	private final int mask;
+	private final int size;
+
+	private IntObjectMap(int[] keys, Object[] values, int size) {
+		this.keys = keys;
+		this.values = values;
+		this.mask = keys.length - 1;
+		this.size = size;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nonnull
+	public static <V> IntObjectMap<V> empty() {
+		return (IntObjectMap<V>) EMPTY;
+	}
+
+	@Nonnull
+	public static <V> Builder<V> builder() {
+		return new Builder<>();
+	}
+
+	private static int slot(int key, int mask) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * @param key a key to look up
+	 * @return the value or null if there is no value for the key
+	 */
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public V get(int key) {
+		for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return (V) values[i];
+			}
+		}
+		return null;
+	}
+
+	public boolean containsKey(int key) {
+		return get(key) != null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Collects entries and builds an {@link IntObjectMap}. If a key is put several times the first value is kept.
+	 *
+	 * @param <V> value type
+	 */
+	public static final class Builder<V> {
+		private int[] keys = new int[8];
+		private Object[] values = new Object[8];
+		private int size;
+
+		private Builder() {
+		}
+
+		/**
+		 * @param key   a key
+		 * @param value a value, not null
+		 * @return the builder
+		 */
+		@Nonnull
+		public Builder<V> put(int key, @Nonnull V value) {
+			if (size == keys.length) {
+				keys = Arrays.copyOf(keys, size * 2);
+				values = Arrays.copyOf(values, size * 2);
+			}
+			keys[size] = key;
+			values[size] = value;
+			size++;
+			return this;
+		}
+
+		@Nonnull
+		public IntObjectMap<V> build() {
+			if (size == 0) {
+				return empty();
+			}
+			// keep load factor at most 0.5, so probe sequences stay short
+			int capacity = Integer.highestOneBit(size * 2 - 1) << 1;
+			int mask = capacity - 1;
+			int[] tableKeys = new int[capacity];
+			Object[] tableValues = new Object[capacity];
+			int count = 0;
+			for (int e = 0; e < size; e++) {
+				int i = slot(keys[e], mask);
+				while (tableValues[i] != null && tableKeys[i] != keys[e]) {
+					i = (i + 1) & mask;
+				}
+				if (tableValues[i] == null) {
+					tableKeys[i] = keys[e];
+					tableValues[i] = values[e];
+					count++;
+				}
+			}
+			return new IntObjectMap<>(tableKeys, tableValues, count);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache which keeps at most the given number of entries and evicts the least recently used one.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class LruCache<K, V> {
+	private final Map<K, V> map;
+
+	/**
+	 * @param maxSize maximum number of entries, non-positive value disables caching
+	 */
+	public LruCache(int maxSize) {
+		map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	@Nullable
+	public synchronized V get(@Nonnull K key) {
+		return map.get(key);
+	}
+
+	public synchronized void put(@Nonnull K key, @Nonnull V value) {
+		map.put(key, value);
+	}
+
+	/**
+	 * Returns a cached value or computes and caches a new one. The value is computed outside the cache lock, so it can be
+	 * computed more than once if the same key is requested concurrently.
+	 *
+	 * @param key      a key
+	 * @param function a function to compute a value, null results are not cached
+	 * @return the value
+	 */
+	@Nullable
+	public V computeIfAbsent(@Nonnull K key, @Nonnull Function<? super K, ? extends V> function) {
+		V value = get(key);
+		if (value != null) {
+			return value;
+		}
+		value = function.apply(key);
+		if (value != null) {
+			put(key, value);
+		}
+		return value;
+	}
+
+	public synchronized int size() {
+		return map.size();
+	}
+
+	public synchronized void clear() {
+		map.clear();
+	}
+}
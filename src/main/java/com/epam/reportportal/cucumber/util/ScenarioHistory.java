@@ -0,0 +1,371 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A local store of scenario run history keyed by scenario code reference. It's an append-only binary file: every scenario
+ * finish appends a snapshot record with the last status, duration and a bit mask of recent failures, the latest record of a
+ * scenario wins. All records are read into an in-memory index on open, so lookups do not touch the file. The file is compacted
+ * to one record per scenario with {@link #compact(Path)}.
+ * <p>
+ * Opening validates the file and records are appended under an exclusive file lock, so several processes may append to the
+ * same file: a new file gets one header and an append in progress is not mistaken for a partially written record. A partially
+ * written record at the end of the file, e.g. after a crash, is truncated on open. Compaction should be done when nobody
+ * appends, e.g. at the end of the run.
+ */
+public class ScenarioHistory implements Closeable {
+
+	private static final int MAGIC = 0x52504831; // 'RPH1'
+	private static final int MAX_HISTORY_LENGTH = Integer.SIZE;
+
+	// file locks are held on behalf of the whole JVM, overlapping locks of one JVM throw OverlappingFileLockException
+	private static final ConcurrentMap<Path, Object> JVM_LOCKS = new ConcurrentHashMap<>();
+
+	private final Map<String, Entry> index;
+	private final FileChannel channel;
+	private final Object jvmLock;
+
+	private ScenarioHistory(@Nonnull Map<String, Entry> index, @Nonnull FileChannel channel, @Nonnull Object jvmLock) {
+		this.index = index;
+		this.channel = channel;
+		this.jvmLock = jvmLock;
+	}
+
+	/**
+	 * Opens a history file for reading and appending. If the file ends with a partially written record, e.g. after a crash, the
+	 * file is truncated to the last complete record, so new records are not appended after garbage.
+	 *
+	 * @param file a history file, created if it does not exist
+	 * @return the history
+	 * @throws IOException in case of file reading errors or if the file is not a history file
+	 */
+	@Nonnull
+	public static ScenarioHistory open(@Nonnull Path file) throws IOException {
+		Map<String, Entry> index = new HashMap<>();
+		Object jvmLock = JVM_LOCKS.computeIfAbsent(file.toFile().getCanonicalFile().toPath(), p -> new Object());
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			synchronized (jvmLock) {
+				try (FileLock ignored = channel.lock()) {
+					long size = channel.size();
+					channel.position(0);
+					long validSize = readRecords(file, nonClosingStream(channel), size, index);
+					if (validSize < size) {
+						channel.truncate(validSize);
+					}
+					if (validSize == 0) {
+						write(channel, header(), 0);
+					}
+				}
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		return new ScenarioHistory(index, channel, jvmLock);
+	}
+
+	@Nonnull
+	private static InputStream nonClosingStream(@Nonnull FileChannel channel) {
+		return new FilterInputStream(Channels.newInputStream(channel)) {
+			@Override
+			public void close() {
+				// the channel is closed with the history
+			}
+		};
+	}
+
+	/**
+	 * Reads the latest entries of a history file
+	 *
+	 * @param file a history file
+	 * @return code reference to entry map, empty if the file does not exist
+	 * @throws IOException in case of file reading errors or if the file is not a history file
+	 */
+	@Nonnull
+	public static Map<String, Entry> read(@Nonnull Path file) throws IOException {
+		if (!Files.exists(file)) {
+			return Collections.emptyMap();
+		}
+		Map<String, Entry> result = new HashMap<>();
+		try (InputStream input = Files.newInputStream(file)) {
+			readRecords(file, input, Files.size(file), result);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads complete records of the first bytes of a history file. Reading stops on the first record which is partially
+	 * written or can't be decoded.
+	 *
+	 * @param file   a history file, used in error messages
+	 * @param input  a stream of the file content from its beginning
+	 * @param size   number of bytes to read
+	 * @param result code reference to entry map to put the latest entries into
+	 * @return size of the valid part of the file: the header and complete records, '0' if there is no complete header
+	 * @throws IOException in case of file reading errors or if the file is not a history file
+	 */
+	private static long readRecords(@Nonnull Path file, @Nonnull InputStream input, long size, @Nonnull Map<String, Entry> result)
+			throws IOException {
+		if (size < Integer.BYTES) {
+			return 0;
+		}
+		try (DataInputStream is = new DataInputStream(new BufferedInputStream(input))) {
+			if (is.readInt() != MAGIC) {
+				throw new IOException("Not a scenario history file: " + file);
+			}
+			long position = Integer.BYTES;
+			byte[] record = new byte[0];
+			while (size - position >= Integer.BYTES) {
+				int length = is.readInt();
+				if (length < 0 || length > size - position - Integer.BYTES) {
+					// a partially written record or garbage
+					break;
+				}
+				if (record.length < length) {
+					record = new byte[length];
+				}
+				is.readFully(record, 0, length);
+				Entry entry;
+				try {
+					entry = Entry.read(new DataInputStream(new ByteArrayInputStream(record, 0, length)));
+				} catch (IOException | RuntimeException e) {
+					break;
+				}
+				result.put(entry.getCodeRef(), entry);
+				position += Integer.BYTES + length;
+			}
+			return position;
+		} catch (EOFException e) {
+			throw new IOException("Unable to read scenario history file, it was truncated while reading: " + file, e);
+		}
+	}
+
+	/**
+	 * Rewrites a history file leaving only the latest record of every scenario
+	 *
+	 * @param file a history file
+	 * @throws IOException in case of file reading or writing errors
+	 */
+	public static void compact(@Nonnull Path file) throws IOException {
+		Map<String, Entry> entries = read(file);
+		if (entries.isEmpty()) {
+			return;
+		}
+		Path parent = file.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				os.write(header());
+				for (Entry entry : entries.values()) {
+					os.write(entry.toRecord());
+				}
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	@Nonnull
+	private static byte[] header() {
+		return ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).array();
+	}
+
+	private static void write(@Nonnull FileChannel channel, @Nonnull byte[] data, long position) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		long current = position;
+		while (buffer.hasRemaining()) {
+			current += channel.write(buffer, current);
+		}
+	}
+
+	/**
+	 * Appends data to the end of the file under an exclusive lock, so appends of several processes are not interleaved
+	 *
+	 * @param data a record
+	 * @throws IOException in case of file writing errors
+	 */
+	private void append(@Nonnull byte[] data) throws IOException {
+		synchronized (jvmLock) {
+			try (FileLock ignored = channel.lock()) {
+				write(channel, data, channel.size());
+			}
+		}
+	}
+
+	/**
+	 * Records a scenario run
+	 *
+	 * @param codeRef  scenario code reference
+	 * @param status   ReportPortal status of the scenario, e.g. 'FAILED'
+	 * @param duration scenario duration in milliseconds
+	 * @param time     scenario finish time in milliseconds since epoch
+	 * @return updated entry of the scenario
+	 * @throws IOException in case of file writing errors
+	 */
+	@Nonnull
+	public synchronized Entry record(@Nonnull String codeRef, @Nonnull String status, long duration, long time) throws IOException {
+		Entry previous = index.get(codeRef);
+		int failures = previous == null ? 0 : previous.failures << 1;
+		if (Entry.FAILED.equals(status)) {
+			failures |= 1;
+		}
+		int runs = previous == null ? 1 : Math.min(previous.runs + 1, MAX_HISTORY_LENGTH);
+		Entry entry = new Entry(codeRef, status, duration, time, failures, runs);
+		append(entry.toRecord());
+		index.put(codeRef, entry);
+		return entry;
+	}
+
+	/**
+	 * @param codeRef scenario code reference
+	 * @return the latest entry of the scenario or null if the scenario was never run
+	 */
+	@Nullable
+	public synchronized Entry get(@Nonnull String codeRef) {
+		return index.get(codeRef);
+	}
+
+	/**
+	 * @return a copy of all the latest entries
+	 */
+	@Nonnull
+	public synchronized Map<String, Entry> getEntries() {
+		return new HashMap<>(index);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * The latest state of a scenario
+	 */
+	public static class Entry {
+		private static final String FAILED = "FAILED";
+
+		private final String codeRef;
+		private final String status;
+		private final long duration;
+		private final long time;
+		private final int failures;
+		private final int runs;
+
+		private Entry(String codeRef, String status, long duration, long time, int failures, int runs) {
+			this.codeRef = codeRef;
+			this.status = status;
+			this.duration = duration;
+			this.time = time;
+			this.failures = failures;
+			this.runs = runs;
+		}
+
+		@Nonnull
+		private static Entry read(@Nonnull DataInput input) throws IOException {
+			return new Entry(input.readUTF(), input.readUTF(), input.readLong(), input.readLong(), input.readInt(), input.readInt());
+		}
+
+		@Nonnull
+		private byte[] toRecord() throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (DataOutputStream os = new DataOutputStream(bytes)) {
+				os.writeInt(0); // length placeholder
+				os.writeUTF(codeRef);
+				os.writeUTF(status);
+				os.writeLong(duration);
+				os.writeLong(time);
+				os.writeInt(failures);
+				os.writeInt(runs);
+			}
+			byte[] result = bytes.toByteArray();
+			ByteBuffer.wrap(result).putInt(result.length - Integer.BYTES);
+			return result;
+		}
+
+		public String getCodeRef() {
+			return codeRef;
+		}
+
+		/**
+		 * @return ReportPortal status of the last run
+		 */
+		public String getStatus() {
+			return status;
+		}
+
+		/**
+		 * @return duration of the last run in milliseconds
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		/**
+		 * @return finish time of the last run in milliseconds since epoch
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * @return true if the last run failed
+		 */
+		public boolean isFailed() {
+			return (failures & 1) != 0;
+		}
+
+		/**
+		 * @return a bit mask of recent failures: the lowest bit is the last run, the next one is the run before, etc.
+		 */
+		public int getFailures() {
+			return failures;
+		}
+
+		/**
+		 * @return number of recorded runs, up to 32
+		 */
+		public int getRuns() {
+			return runs;
+		}
+
+		/**
+		 * @return number of failures among recorded runs
+		 */
+		public int getFailureCount() {
+			return Integer.bitCount(runs < MAX_HISTORY_LENGTH ? failures & ((1 << runs) - 1) : failures);
+		}
+	}
+}
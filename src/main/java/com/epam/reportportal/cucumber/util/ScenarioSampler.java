@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which passed scenarios of a feature are reported: every N-th scenario and / or at most one scenario per time
+ * interval. A scenario is in sample if any of the configured policies selects it, so the first scenario of a feature is
+ * always in sample. Also counts dropped scenarios per feature.
+ */
+public class ScenarioSampler {
+	private final int rate;
+	private final long intervalNanos;
+	private final LongSupplier clock;
+	private final Map<String, FeatureState> features = new ConcurrentHashMap<>();
+
+	/**
+	 * @param rate           report every N-th scenario of a feature, non-positive value or '1' means no rate-based sampling
+	 * @param intervalMillis report at most one scenario of a feature per the interval, non-positive value means no time-based
+	 *                       sampling
+	 */
+	public ScenarioSampler(int rate, long intervalMillis) {
+		this(rate, intervalMillis, System::nanoTime);
+	}
+
+	/**
+	 * @param rate           report every N-th scenario of a feature, non-positive value or '1' means no rate-based sampling
+	 * @param intervalMillis report at most one scenario of a feature per the interval, non-positive value means no time-based
+	 *                       sampling
+	 * @param clock          a source of time in nanoseconds
+	 */
+	public ScenarioSampler(int rate, long intervalMillis, @Nonnull LongSupplier clock) {
+		this.rate = rate;
+		this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+		this.clock = clock;
+	}
+
+	/**
+	 * @return true if any sampling policy is configured
+	 */
+	public boolean isEnabled() {
+		return rate > 1 || intervalNanos > 0;
+	}
+
+	/**
+	 * Decides if the next scenario of the feature is in sample
+	 *
+	 * @param featureUri a feature URI
+	 * @return true if the scenario should be reported, false if it may be dropped in case it passes
+	 */
+	public boolean isSampled(@Nonnull String featureUri) {
+		if (!isEnabled()) {
+			return true;
+		}
+		FeatureState state = features.computeIfAbsent(featureUri, u -> new FeatureState());
+		synchronized (state) {
+			boolean sampled = false;
+			if (rate > 1) {
+				sampled = state.scenarioCount % rate == 0;
+				state.scenarioCount++;
+			}
+			if (intervalNanos > 0) {
+				long now = clock.getAsLong();
+				if (!state.timeSampled || now - state.lastSampleTime >= intervalNanos) {
+					sampled = true;
+				}
+				if (sampled) {
+					state.timeSampled = true;
+					state.lastSampleTime = now;
+				}
+			}
+			return sampled;
+		}
+	}
+
+	/**
+	 * Records a dropped scenario of the feature
+	 *
+	 * @param featureUri a feature URI
+	 */
+	public void addDropped(@Nonnull String featureUri) {
+		FeatureState state = features.computeIfAbsent(featureUri, u -> new FeatureState());
+		synchronized (state) {
+			state.droppedCount++;
+		}
+	}
+
+	/**
+	 * @param featureUri a feature URI
+	 * @return number of dropped scenarios of the feature
+	 */
+	public int getDroppedCount(@Nonnull String featureUri) {
+		FeatureState state = features.get(featureUri);
+		if (state == null) {
+			return 0;
+		}
+		synchronized (state) {
+			return state.droppedCount;
+		}
+	}
+
+	/**
+	 * Forgets the state of a finished feature
+	 *
+	 * @param featureUri a feature URI
+	 */
+	public void remove(@Nonnull String featureUri) {
+		features.remove(featureUri);
+	}
+
+	public void clear() {
+		features.clear();
+	}
+
+	private static class FeatureState {
+		private long scenarioCount;
+		private boolean timeSampled;
+		private long lastSampleTime;
+		private int droppedCount;
+	}
+}
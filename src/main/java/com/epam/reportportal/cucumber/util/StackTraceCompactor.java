@@ -0,0 +1,192 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Renders compact stack traces: frames of filtered (framework) packages are collapsed into a single line, repeated causes are
+ * not rendered twice, and rendered traces are cached, so the same failure repeated across a launch is rendered only once.
+ * The cache key is cheap to build: exception classes, messages and top frames of the throwable and its causes, so failures
+ * which differ only deeper in their stack traces share the rendered trace.
+ */
+public class StackTraceCompactor {
+	private static final String CAUSE_CAPTION = "Caused by: ";
+	private static final String SUPPRESSED_CAPTION = "Suppressed: ";
+	private static final String FRAME_PREFIX = "\tat ";
+	private static final String NEW_LINE = "\n";
+	private static final int KEY_FRAMES = 5;
+
+	private final String[] packageFilters;
+	private final LruCache<Key, String> cache;
+
+	/**
+	 * @param packageFilters package (or class name) prefixes of frames to collapse
+	 * @param cacheSize      maximum number of rendered traces to cache
+	 */
+	public StackTraceCompactor(@Nonnull Collection<String> packageFilters, int cacheSize) {
+		this.packageFilters = packageFilters.toArray(new String[0]);
+		cache = new LruCache<>(cacheSize);
+	}
+
+	/**
+	 * Renders a compact stack trace of the throwable, including its causes and suppressed exceptions
+	 *
+	 * @param throwable a throwable to render
+	 * @return a stack trace string
+	 */
+	@Nonnull
+	public String compact(@Nonnull Throwable throwable) {
+		Key key = new Key(throwable, Collections.newSetFromMap(new IdentityHashMap<>()));
+		String result = cache.get(key);
+		if (result != null) {
+			return result;
+		}
+		StringBuilder builder = new StringBuilder();
+		append(builder,
+				throwable,
+				new StackTraceElement[0],
+				"",
+				"",
+				Collections.newSetFromMap(new IdentityHashMap<>()),
+				new HashSet<>()
+		);
+		result = builder.toString().trim();
+		cache.put(key, result);
+		return result;
+	}
+
+	/**
+	 * Clears the cache of rendered traces
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	@Nonnull
+	private static List<Object> signature(@Nonnull Throwable throwable) {
+		return Arrays.asList(throwable.toString(), Arrays.asList(throwable.getStackTrace()));
+	}
+
+	private boolean isFiltered(@Nonnull StackTraceElement element) {
+		String className = element.getClassName();
+		for (String filter : packageFilters) {
+			if (className.startsWith(filter)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void appendCollapsed(@Nonnull StringBuilder builder, @Nonnull String prefix, int count) {
+		if (count > 0) {
+			builder.append(prefix).append("\t... ").append(count).append(" framework frame(s) omitted").append(NEW_LINE);
+		}
+	}
+
+	private void append(@Nonnull StringBuilder builder, @Nonnull Throwable throwable, @Nonnull StackTraceElement[] enclosingTrace,
+			@Nonnull String caption, @Nonnull String prefix, @Nonnull Set<Throwable> visited, @Nonnull Set<List<Object>> rendered) {
+		if (!visited.add(throwable)) {
+			builder.append(prefix).append(caption).append("[CIRCULAR REFERENCE: ").append(throwable).append("]").append(NEW_LINE);
+			return;
+		}
+		StackTraceElement[] trace = throwable.getStackTrace();
+		if (!rendered.add(signature(throwable))) {
+			builder.append(prefix).append(caption).append(throwable).append(" (repeated, see above)").append(NEW_LINE);
+			return;
+		}
+
+		int m = trace.length - 1;
+		int n = enclosingTrace.length - 1;
+		while (m >= 0 && n >= 0 && trace[m].equals(enclosingTrace[n])) {
+			m--;
+			n--;
+		}
+		int framesInCommon = trace.length - 1 - m;
+
+		builder.append(prefix).append(caption).append(throwable).append(NEW_LINE);
+		int collapsed = 0;
+		for (int i = 0; i <= m; i++) {
+			// the top frame is always kept, it's where the exception was thrown
+			if (i > 0 && isFiltered(trace[i])) {
+				collapsed++;
+				continue;
+			}
+			appendCollapsed(builder, prefix, collapsed);
+			collapsed = 0;
+			builder.append(prefix).append(FRAME_PREFIX).append(trace[i]).append(NEW_LINE);
+		}
+		appendCollapsed(builder, prefix, collapsed);
+		if (framesInCommon != 0) {
+			builder.append(prefix).append("\t... ").append(framesInCommon).append(" more").append(NEW_LINE);
+		}
+
+		for (Throwable suppressed : throwable.getSuppressed()) {
+			append(builder, suppressed, trace, SUPPRESSED_CAPTION, prefix + "\t", visited, rendered);
+		}
+		Throwable cause = throwable.getCause();
+		if (cause != null) {
+			append(builder, cause, trace, CAUSE_CAPTION, prefix, visited, rendered);
+		}
+	}
+
+	/**
+	 * Cache key of a rendered trace
+	 */
+	private static final class Key {
+		private final Class<?> type;
+		private final String message;
+		private final int depth;
+		private final List<StackTraceElement> topFrames;
+		private final int suppressed;
+		private final Key cause;
+		private final int hashCode;
+
+		private Key(@Nonnull Throwable throwable, @Nonnull Set<Throwable> visited) {
+			visited.add(throwable);
+			type = throwable.getClass();
+			message = throwable.getLocalizedMessage();
+			StackTraceElement[] trace = throwable.getStackTrace();
+			depth = trace.length;
+			topFrames = Arrays.asList(Arrays.copyOf(trace, Math.min(trace.length, KEY_FRAMES)));
+			suppressed = throwable.getSuppressed().length;
+			Throwable c = throwable.getCause();
+			cause = c == null || visited.contains(c) ? null : new Key(c, visited);
+			hashCode = Objects.hash(type, message, depth, topFrames, suppressed, cause);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Key key = (Key) o;
+			return hashCode == key.hashCode && depth == key.depth && suppressed == key.suppressed && type == key.type
+					&& Objects.equals(message, key.message) && topFrames.equals(key.topFrames) && Objects.equals(cause, key.cause);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
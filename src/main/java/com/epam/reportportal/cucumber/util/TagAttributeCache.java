@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 EPAM Systems
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import com.epam.ta.reportportal.ws.model.attribute.ItemAttributesRQ;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+
+/**
+ * Converts tag lists into ReportPortal attribute sets. Pickles of a feature or an outline mostly have identical tag lists,
+ * so built sets are cached by tag names and shared between requests, that's why they are unmodifiable.
+ */
+public class TagAttributeCache {
+	private static final char KEY_VALUE_SEPARATOR = ':';
+	private static final char TAG_PREFIX = '@';
+
+	private final boolean keyValueParsing;
+	private final LruCache<List<String>, Set<ItemAttributesRQ>> cache;
+
+	/**
+	 * @param keyValueParsing convert tags like '@key:value' into key-value attributes
+	 * @param cacheSize       maximum number of cached attribute sets
+	 */
+	public TagAttributeCache(boolean keyValueParsing, int cacheSize) {
+		this.keyValueParsing = keyValueParsing;
+		cache = new LruCache<>(cacheSize);
+	}
+
+	/**
+	 * Converts a tag into an attribute. Without key-value parsing, or if a tag has no key, the whole tag becomes the attribute
+	 * value.
+	 *
+	 * @param tag             a tag name, including '@' prefix
+	 * @param keyValueParsing convert tags like '@key:value' into key-value attributes
+	 * @return the attribute
+	 */
+	@Nonnull
+	public static ItemAttributesRQ toAttribute(@Nonnull String tag, boolean keyValueParsing) {
+		if (keyValueParsing) {
+			int separator = tag.indexOf(KEY_VALUE_SEPARATOR);
+			int keyStart = !tag.isEmpty() && tag.charAt(0) == TAG_PREFIX ? 1 : 0;
+			if (separator > keyStart && separator < tag.length() - 1) {
+				return new ItemAttributesRQ(tag.substring(keyStart, separator), tag.substring(separator + 1));
+			}
+		}
+		return new ItemAttributesRQ(null, tag);
+	}
+
+	/**
+	 * Returns attributes for tags
+	 *
+	 * @param tagNames tag names, including '@' prefix
+	 * @return an unmodifiable set of attributes
+	 */
+	@Nonnull
+	public Set<ItemAttributesRQ> get(@Nonnull List<String> tagNames) {
+		if (tagNames.isEmpty()) {
+			return Collections.emptySet();
+		}
+		Set<ItemAttributesRQ> result = cache.get(tagNames);
+		if (result != null) {
+			return result;
+		}
+		Set<ItemAttributesRQ> attributes = new HashSet<>();
+		for (String tag : tagNames) {
+			attributes.add(toAttribute(tag, keyValueParsing));
+		}
+		result = Collections.unmodifiableSet(attributes);
+		cache.put(new ArrayList<>(tagNames), result);
+		return result;
+	}
+
+	/**
+	 * Clears cached attribute sets
+	 */
+	public void clear() {
+		cache.clear();
+	}
+}
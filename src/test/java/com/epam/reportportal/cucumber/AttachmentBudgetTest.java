@@ -0,0 +1,155 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.TestScenarioReporter;
+import com.epam.reportportal.cucumber.integration.TestStepReporter;
+import com.epam.reportportal.cucumber.integration.util.TestUtils;
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.restendpoint.http.MultiPartRequest;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
+import com.epam.reportportal.util.test.CommonUtils;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import cucumber.api.CucumberOptions;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+public class AttachmentBudgetTest {
+	@CucumberOptions(features = "src/test/resources/features/ImageEmbeddingFeature.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.embed.image" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class ImageStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	private final String launchId = CommonUtils.namedId("launch_");
+	private final String suiteId = CommonUtils.namedId("suite_");
+	private final List<String> testIds = Stream.generate(() -> CommonUtils.namedId("step_")).limit(3).collect(Collectors.toList());
+	private final List<Pair<String, List<String>>> tests = testIds.stream()
+			.map(id -> Pair.of(id, Stream.generate(() -> CommonUtils.namedId("step_")).limit(2).collect(Collectors.toList())))
+			.collect(Collectors.toList());
+
+	private final ListenerParameters params = TestUtils.standardParameters();
+	private final ReportPortalClient client = mock(ReportPortalClient.class);
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private final ReportPortal reportPortal = ReportPortal.create(client, params, executorService);
+
+	@BeforeEach
+	public void setup() {
+		System.setProperty(ReporterProperty.LAUNCH_ATTACHMENT_COUNT.getPropertyName(), "1");
+		TestUtils.mockLaunch(client, launchId, suiteId, tests);
+		TestUtils.mockLogging(client);
+		TestScenarioReporter.RP.set(reportPortal);
+		TestStepReporter.RP.set(reportPortal);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		System.clearProperty(ReporterProperty.LAUNCH_ATTACHMENT_COUNT.getPropertyName());
+		System.clearProperty(ReporterProperty.ATTACHMENT_OVERFLOW_POLICY.getPropertyName());
+		System.clearProperty(ReporterProperty.ATTACHMENT_OVERFLOW_SAMPLE_RATE.getPropertyName());
+	}
+
+	private List<SaveLogRQ> getLogs() {
+		ArgumentCaptor<MultiPartRequest> logCaptor = ArgumentCaptor.forClass(MultiPartRequest.class);
+		verify(client, atLeastOnce()).log(logCaptor.capture());
+		return logCaptor.getAllValues()
+				.stream()
+				.flatMap(l -> l.getSerializedRQs().stream())
+				.flatMap(l -> ((List<SaveLogRQ>) l.getRequest()).stream())
+				.collect(Collectors.toList());
+	}
+
+	private static List<SaveLogRQ> getAttachments(List<SaveLogRQ> logs) {
+		return logs.stream().filter(l -> Objects.nonNull(l.getFile())).collect(Collectors.toList());
+	}
+
+	private static List<SaveLogRQ> getBudgetWarnings(List<SaveLogRQ> logs) {
+		return logs.stream()
+				.filter(l -> l.getMessage() != null && l.getMessage().contains("attachment budget was exceeded"))
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void verify_attachments_over_launch_budget_are_dropped() {
+		TestUtils.runTests(ImageStepReporter.class);
+
+		ArgumentCaptor<MultiPartRequest> logCaptor = ArgumentCaptor.forClass(MultiPartRequest.class);
+		verify(client, times(6)).log(logCaptor.capture());
+		List<SaveLogRQ> logs = logCaptor.getAllValues()
+				.stream()
+				.flatMap(l -> l.getSerializedRQs().stream())
+				.flatMap(l -> ((List<SaveLogRQ>) l.getRequest()).stream())
+				.collect(Collectors.toList());
+
+		List<SaveLogRQ> attachments = logs.stream().filter(l -> Objects.nonNull(l.getFile())).collect(Collectors.toList());
+		assertThat(attachments, hasSize(1));
+
+		List<SaveLogRQ> warnings = logs.stream()
+				.filter(l -> l.getMessage() != null && l.getMessage().contains("attachment budget was exceeded"))
+				.collect(Collectors.toList());
+		assertThat(warnings, hasSize(2));
+		warnings.forEach(l -> assertThat(l.getLevel(), equalTo("WARN")));
+	}
+
+	@Test
+	public void verify_attachments_not_sampled_are_counted_as_dropped() {
+		System.setProperty(ReporterProperty.ATTACHMENT_OVERFLOW_POLICY.getPropertyName(), AttachmentOverflowPolicy.SAMPLE.name());
+		System.setProperty(ReporterProperty.ATTACHMENT_OVERFLOW_SAMPLE_RATE.getPropertyName(), "2");
+
+		TestUtils.runTests(ImageStepReporter.class);
+
+		List<SaveLogRQ> logs = getLogs();
+		assertThat(getAttachments(logs), hasSize(1));
+		// every scenario over the budget has the only attachment, which is not the 2nd one, so it's dropped and summarized
+		List<SaveLogRQ> warnings = getBudgetWarnings(logs);
+		assertThat(warnings, hasSize(2));
+		warnings.forEach(l -> assertThat(l.getMessage(), startsWith("1 attachment(s)")));
+	}
+
+	@Test
+	public void verify_summarized_attachments_are_counted_as_dropped() {
+		System.setProperty(ReporterProperty.ATTACHMENT_OVERFLOW_POLICY.getPropertyName(), AttachmentOverflowPolicy.SUMMARIZE.name());
+
+		TestUtils.runTests(ImageStepReporter.class);
+
+		List<SaveLogRQ> logs = getLogs();
+		assertThat(getAttachments(logs), hasSize(1));
+		List<SaveLogRQ> warnings = getBudgetWarnings(logs);
+		// a warning instead of every attachment and a summary of every scenario
+		assertThat(warnings.stream().filter(l -> l.getMessage().startsWith("Attachment of type")).count(), equalTo(2L));
+		assertThat(warnings.stream().filter(l -> l.getMessage().startsWith("1 attachment(s)")).count(), equalTo(2L));
+	}
+}
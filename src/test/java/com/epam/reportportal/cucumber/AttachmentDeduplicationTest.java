@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.TestScenarioReporter;
+import com.epam.reportportal.cucumber.integration.TestStepReporter;
+import com.epam.reportportal.cucumber.integration.util.TestUtils;
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.restendpoint.http.MultiPartRequest;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
+import com.epam.reportportal.util.test.CommonUtils;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import cucumber.api.CucumberOptions;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+public class AttachmentDeduplicationTest {
+	@CucumberOptions(features = "src/test/resources/features/ImageEmbeddingFeature.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.embed.image" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class ImageStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	private final String launchId = CommonUtils.namedId("launch_");
+	private final String suiteId = CommonUtils.namedId("suite_");
+	private final List<String> testIds = Stream.generate(() -> CommonUtils.namedId("step_")).limit(3).collect(Collectors.toList());
+	private final List<Pair<String, List<String>>> tests = testIds.stream()
+			.map(id -> Pair.of(id, Stream.generate(() -> CommonUtils.namedId("step_")).limit(2).collect(Collectors.toList())))
+			.collect(Collectors.toList());
+
+	private final ListenerParameters params = TestUtils.standardParameters();
+	private final ReportPortalClient client = mock(ReportPortalClient.class);
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private final ReportPortal reportPortal = ReportPortal.create(client, params, executorService);
+
+	@BeforeEach
+	public void setup() {
+		System.setProperty(ReporterProperty.ATTACHMENT_DEDUPLICATION.getPropertyName(), Boolean.TRUE.toString());
+		TestUtils.mockLaunch(client, launchId, suiteId, tests);
+		TestUtils.mockLogging(client);
+		TestScenarioReporter.RP.set(reportPortal);
+		TestStepReporter.RP.set(reportPortal);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		System.clearProperty(ReporterProperty.ATTACHMENT_DEDUPLICATION.getPropertyName());
+		System.clearProperty(ReporterProperty.LAUNCH_ATTACHMENT_SIZE.getPropertyName());
+	}
+
+	@Test
+	public void verify_the_same_image_is_uploaded_only_once() {
+		TestUtils.runTests(ImageStepReporter.class);
+
+		ArgumentCaptor<MultiPartRequest> logCaptor = ArgumentCaptor.forClass(MultiPartRequest.class);
+		verify(client, times(6)).log(logCaptor.capture());
+		List<SaveLogRQ> logs = logCaptor.getAllValues()
+				.stream()
+				.flatMap(l -> l.getSerializedRQs().stream())
+				.flatMap(l -> ((List<SaveLogRQ>) l.getRequest()).stream())
+				.collect(Collectors.toList());
+
+		List<SaveLogRQ> attachments = logs.stream().filter(l -> Objects.nonNull(l.getFile())).collect(Collectors.toList());
+		assertThat(attachments, hasSize(1));
+		assertThat(attachments.get(0).getFile().getContentType(), equalTo("image/jpeg"));
+
+		List<SaveLogRQ> duplicates = logs.stream()
+				.filter(l -> l.getMessage() != null && l.getMessage().contains("is a duplicate of the one attached in"))
+				.collect(Collectors.toList());
+		assertThat(duplicates, hasSize(2));
+		duplicates.forEach(l -> assertThat(l.getMessage(), containsString("ImageEmbeddingFeature.feature:")));
+	}
+
+	@Test
+	public void verify_attachment_rejected_by_budget_is_not_referenced_as_uploaded() {
+		System.setProperty(ReporterProperty.LAUNCH_ATTACHMENT_SIZE.getPropertyName(), "1");
+
+		TestUtils.runTests(ImageStepReporter.class);
+
+		ArgumentCaptor<MultiPartRequest> logCaptor = ArgumentCaptor.forClass(MultiPartRequest.class);
+		verify(client, atLeastOnce()).log(logCaptor.capture());
+		List<SaveLogRQ> logs = logCaptor.getAllValues()
+				.stream()
+				.flatMap(l -> l.getSerializedRQs().stream())
+				.flatMap(l -> ((List<SaveLogRQ>) l.getRequest()).stream())
+				.collect(Collectors.toList());
+
+		assertThat(logs.stream().filter(l -> Objects.nonNull(l.getFile())).collect(Collectors.toList()), empty());
+		assertThat(logs.stream()
+				.filter(l -> l.getMessage() != null && l.getMessage().contains("is a duplicate of the one attached in"))
+				.collect(Collectors.toList()), empty());
+		assertThat(logs.stream()
+				.filter(l -> l.getMessage() != null && l.getMessage().contains("attachment budget was exceeded"))
+				.collect(Collectors.toList()), hasSize(3));
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.TestStepReporterWithSpooling;
+import com.epam.reportportal.cucumber.integration.util.TestUtils;
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.restendpoint.http.MultiPartRequest;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
+import com.epam.reportportal.util.test.CommonUtils;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import cucumber.api.CucumberOptions;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+public class AttachmentSpoolingTest {
+	@CucumberOptions(features = "src/test/resources/features/ImageEmbeddingFeature.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.embed.image" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporterWithSpooling" })
+	public static class SpoolingStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	// three scenarios with one image of ~90 KB each
+	private static final int ATTACHMENT_NUMBER = 3;
+
+	private final String launchId = CommonUtils.namedId("launch_");
+	private final String suiteId = CommonUtils.namedId("suite_");
+	private final List<String> testIds = Stream.generate(() -> CommonUtils.namedId("step_")).limit(3).collect(Collectors.toList());
+	private final List<Pair<String, List<String>>> tests = testIds.stream()
+			.map(id -> Pair.of(id, Stream.generate(() -> CommonUtils.namedId("step_")).limit(2).collect(Collectors.toList())))
+			.collect(Collectors.toList());
+
+	private final ListenerParameters params = TestUtils.standardParameters();
+	private final ReportPortalClient client = mock(ReportPortalClient.class);
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private final ReportPortal reportPortal = ReportPortal.create(client, params, executorService);
+
+	@BeforeEach
+	public void setup() {
+		TestUtils.mockLaunch(client, launchId, suiteId, tests);
+		TestUtils.mockLogging(client);
+		TestStepReporterWithSpooling.RP.set(reportPortal);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		System.clearProperty(ReporterProperty.ATTACHMENT_SPOOL_THRESHOLD.getPropertyName());
+		TestStepReporterWithSpooling.SPOOL_FILES.clear();
+		TestStepReporterWithSpooling.SPOOLED_DATA.clear();
+		CommonUtils.shutdownExecutorService(executorService);
+	}
+
+	private List<SaveLogRQ> getAttachments() {
+		ArgumentCaptor<MultiPartRequest> logCaptor = ArgumentCaptor.forClass(MultiPartRequest.class);
+		verify(client, atLeastOnce()).log(logCaptor.capture());
+		return logCaptor.getAllValues()
+				.stream()
+				.flatMap(l -> l.getSerializedRQs().stream())
+				.flatMap(l -> ((List<SaveLogRQ>) l.getRequest()).stream())
+				.filter(l -> Objects.nonNull(l.getFile()))
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void verify_attachments_over_threshold_are_spooled_to_temp_files() {
+		System.setProperty(ReporterProperty.ATTACHMENT_SPOOL_THRESHOLD.getPropertyName(), "1024");
+
+		TestUtils.runTests(SpoolingStepReporter.class);
+
+		assertThat(TestStepReporterWithSpooling.SPOOL_FILES, hasSize(ATTACHMENT_NUMBER));
+		TestStepReporterWithSpooling.SPOOL_FILES.forEach(f -> assertThat(f.getFileName().toString(), startsWith("rp-attachment-")));
+		List<Pair<byte[], byte[]>> spooledData = TestStepReporterWithSpooling.SPOOLED_DATA;
+		assertThat(spooledData, hasSize(ATTACHMENT_NUMBER));
+		spooledData.forEach(d -> assertThat("A spool file should contain the attachment", d.getValue(), equalTo(d.getKey())));
+		assertThat(getAttachments(), hasSize(ATTACHMENT_NUMBER));
+	}
+
+	@Test
+	public void verify_spool_files_are_removed_after_launch() {
+		System.setProperty(ReporterProperty.ATTACHMENT_SPOOL_THRESHOLD.getPropertyName(), "1024");
+
+		TestUtils.runTests(SpoolingStepReporter.class);
+
+		verify(client).finishLaunch(eq(launchId), any());
+		assertThat(TestStepReporterWithSpooling.SPOOL_FILES, hasSize(ATTACHMENT_NUMBER));
+		TestStepReporterWithSpooling.SPOOL_FILES.forEach(f -> assertThat("A spool file should be removed: " + f,
+				Files.exists(f),
+				equalTo(false)
+		));
+	}
+
+	@Test
+	public void verify_attachments_below_threshold_are_not_spooled() {
+		System.setProperty(ReporterProperty.ATTACHMENT_SPOOL_THRESHOLD.getPropertyName(), String.valueOf(1024 * 1024));
+
+		TestUtils.runTests(SpoolingStepReporter.class);
+
+		assertThat(TestStepReporterWithSpooling.SPOOL_FILES, empty());
+		assertThat(getAttachments(), hasSize(ATTACHMENT_NUMBER));
+	}
+}
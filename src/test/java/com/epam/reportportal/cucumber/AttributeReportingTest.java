@@ -18,6 +18,7 @@ package com.epam.reportportal.cucumber;
 
 import com.epam.reportportal.cucumber.integration.TestScenarioReporter;
 import com.epam.reportportal.cucumber.integration.TestStepReporter;
+import com.epam.reportportal.cucumber.integration.TestStepReporterWithAttribute;
 import com.epam.reportportal.cucumber.integration.util.TestUtils;
 import com.epam.reportportal.listeners.ListenerParameters;
 import com.epam.reportportal.service.ReportPortal;
@@ -58,6 +59,13 @@ public class AttributeReportingTest {
 
 	}
 
+	@CucumberOptions(features = "src/test/resources/features/belly.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.feature" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporterWithAttribute" })
+	public static class AttributeTestStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
 	private final String launchId = CommonUtils.namedId("launch_");
 	private final String suiteId = CommonUtils.namedId("suite_");
 	private final String testId = CommonUtils.namedId("test_");
@@ -77,6 +85,7 @@ public class AttributeReportingTest {
 		TestUtils.mockLaunch(client, launchId, suiteId, testId, stepIds);
 		TestScenarioReporter.RP.set(reportPortal);
 		TestStepReporter.RP.set(reportPortal);
+		TestStepReporterWithAttribute.RP.set(reportPortal);
 	}
 
 	private static void verifyAttributes(Collection<ItemAttributesRQ> attributes, Collection<Pair<String, String>> values) {
@@ -142,4 +151,18 @@ public class AttributeReportingTest {
 
 		verifyAnnotationAttributes(stepCaptor.getAllValues());
 	}
+
+	@Test
+	public void verify_attributes_can_be_added_by_request_builders() {
+		TestUtils.runTests(AttributeTestStepReporter.class);
+
+		Pair<String, String> extra = Pair.of(TestStepReporterWithAttribute.KEY, TestStepReporterWithAttribute.VALUE);
+		ArgumentCaptor<StartTestItemRQ> testCaptor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, times(1)).startTestItem(same(suiteId), testCaptor.capture());
+		verifyAttributes(testCaptor.getValue().getAttributes(), Arrays.asList(Pair.of(null, "@ok"), extra));
+
+		ArgumentCaptor<StartTestItemRQ> stepCaptor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, times(3)).startTestItem(same(testId), stepCaptor.capture());
+		verifyAttributes(stepCaptor.getAllValues().get(0).getAttributes(), Arrays.asList(Pair.of("key", "value"), extra));
+	}
 }
@@ -66,6 +66,20 @@ public class CallbackReportingIntegrationTest {
 
 	}
 
+	@CucumberOptions(features = "src/test/resources/features/CallbackReportingScenario.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.callback.session.scenario" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.callback.TestScenarioReporter" })
+	public static class SessionTestScenarioReporterRunner extends AbstractTestNGCucumberTests {
+
+	}
+
+	@CucumberOptions(features = "src/test/resources/features/CallbackReportingScenario.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.callback.session.step" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.callback.TestStepReporter" })
+	public static class SessionTestStepReporterRunner extends AbstractTestNGCucumberTests {
+
+	}
+
 	private final String launchId = CommonUtils.namedId("launch_");
 	private final String suiteId = CommonUtils.namedId("suite_");
 	private final List<String> testIds = Stream.generate(() -> CommonUtils.namedId("test_")).limit(2).collect(Collectors.toList());
@@ -107,6 +121,19 @@ public class CallbackReportingIntegrationTest {
 
 		TestUtils.runTests(TestScenarioReporterRunner.class);
 
+		verifyScenarioReporterCallbacks();
+	}
+
+	@Test
+	public void callback_reporting_through_launch_session_test_scenario_reporter() {
+		TestUtils.mockNestedSteps(client, nestedSteps);
+
+		TestUtils.runTests(SessionTestScenarioReporterRunner.class);
+
+		verifyScenarioReporterCallbacks();
+	}
+
+	private void verifyScenarioReporterCallbacks() {
 		ArgumentCaptor<String> idCaptor = ArgumentCaptor.forClass(String.class);
 		ArgumentCaptor<FinishTestItemRQ> rqCaptor = ArgumentCaptor.forClass(FinishTestItemRQ.class);
 		verify(client, times(10)).finishTestItem(idCaptor.capture(), rqCaptor.capture()); // Start test class and test method
@@ -147,6 +174,17 @@ public class CallbackReportingIntegrationTest {
 	public void callback_reporting_test_step_reporter() {
 		TestUtils.runTests(TestStepReporterRunner.class);
 
+		verifyStepReporterCallbacks();
+	}
+
+	@Test
+	public void callback_reporting_through_launch_session_test_step_reporter() {
+		TestUtils.runTests(SessionTestStepReporterRunner.class);
+
+		verifyStepReporterCallbacks();
+	}
+
+	private void verifyStepReporterCallbacks() {
 		ArgumentCaptor<String> idCaptor = ArgumentCaptor.forClass(String.class);
 		ArgumentCaptor<FinishTestItemRQ> rqCaptor = ArgumentCaptor.forClass(FinishTestItemRQ.class);
 		verify(client, times(9)).finishTestItem(idCaptor.capture(), rqCaptor.capture()); // Start test class and test method
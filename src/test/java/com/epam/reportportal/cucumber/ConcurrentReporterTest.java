@@ -0,0 +1,173 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.TestConcurrentScenarioReporter;
+import com.epam.reportportal.cucumber.integration.TestConcurrentStepReporter;
+import com.epam.reportportal.cucumber.integration.concurrent.ConcurrentSteps;
+import com.epam.reportportal.cucumber.integration.util.TestUtils;
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
+import com.epam.reportportal.util.test.CommonUtils;
+import com.epam.ta.reportportal.ws.model.OperationCompletionRS;
+import com.epam.ta.reportportal.ws.model.StartTestItemRQ;
+import com.epam.ta.reportportal.ws.model.item.ItemCreatedRS;
+import cucumber.api.CucumberOptions;
+import cucumber.api.cli.Main;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import io.reactivex.Maybe;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.epam.reportportal.cucumber.SimpleVerificationTest.verifyRequest;
+import static com.epam.reportportal.util.test.CommonUtils.createMaybe;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.Matchers.endsWith;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ConcurrentReporterTest {
+	@CucumberOptions(features = "src/test/resources/features/belly.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.feature" }, plugin = {
+			"com.epam.reportportal.cucumber.integration.TestConcurrentStepReporter" })
+	public static class ConcurrentTestStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	@CucumberOptions(features = "src/test/resources/features/belly.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.feature" }, plugin = {
+			"com.epam.reportportal.cucumber.integration.TestConcurrentScenarioReporter" })
+	public static class ConcurrentTestScenarioReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	private final String launchId = CommonUtils.namedId("launch_");
+	private final String suiteId = CommonUtils.namedId("suite_");
+	private final String testId = CommonUtils.namedId("test_");
+	private final List<String> stepIds = Stream.generate(() -> CommonUtils.namedId("step_")).limit(3).collect(Collectors.toList());
+	private final List<String> nestedStepIds = Stream.generate(() -> CommonUtils.namedId("step_")).limit(3).collect(Collectors.toList());
+	private final List<Pair<String, String>> nestedSteps = nestedStepIds.stream()
+			.map(s -> Pair.of(stepIds.get(0), s))
+			.collect(Collectors.toList());
+
+	private final ListenerParameters params = TestUtils.standardParameters();
+	private final ReportPortalClient client = mock(ReportPortalClient.class);
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private final ReportPortal reportPortal = ReportPortal.create(client, params, executorService);
+
+	@BeforeEach
+	public void setup() {
+		TestUtils.mockLaunch(client, launchId, suiteId, testId, stepIds);
+		TestConcurrentScenarioReporter.RP.set(reportPortal);
+		TestConcurrentStepReporter.RP.set(reportPortal);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		ConcurrentSteps.THREADS.clear();
+		CommonUtils.shutdownExecutorService(executorService);
+	}
+
+	@Test
+	public void verify_concurrent_step_reporter_steps_integrity() {
+		TestUtils.runTests(ConcurrentTestStepReporter.class);
+
+		ArgumentCaptor<StartTestItemRQ> suiteCaptor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, times(1)).startTestItem(suiteCaptor.capture());
+		verifyRequest(suiteCaptor.getValue(), "STORY", true);
+
+		ArgumentCaptor<StartTestItemRQ> testCaptor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, times(1)).startTestItem(same(suiteId), testCaptor.capture());
+		verifyRequest(testCaptor.getValue(), "SCENARIO", true);
+
+		ArgumentCaptor<StartTestItemRQ> stepCaptor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, times(3)).startTestItem(same(testId), stepCaptor.capture());
+		stepCaptor.getAllValues().forEach(rq -> verifyRequest(rq, "STEP", true));
+
+		verify(client, times(1)).finishLaunch(eq(launchId), any());
+	}
+
+	@Test
+	public void verify_concurrent_scenario_reporter_steps_integrity() {
+		TestUtils.mockNestedSteps(client, nestedSteps);
+		TestUtils.runTests(ConcurrentTestScenarioReporter.class);
+
+		ArgumentCaptor<StartTestItemRQ> mainSuiteCaptor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, times(1)).startTestItem(mainSuiteCaptor.capture());
+		verifyRequest(mainSuiteCaptor.getValue(), "SUITE", true);
+
+		ArgumentCaptor<StartTestItemRQ> suiteCaptor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, times(1)).startTestItem(same(suiteId), suiteCaptor.capture());
+		verifyRequest(suiteCaptor.getValue(), "STORY", true);
+
+		ArgumentCaptor<StartTestItemRQ> testCaptor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, times(1)).startTestItem(same(testId), testCaptor.capture());
+		verifyRequest(testCaptor.getValue(), "STEP", true);
+
+		verify(client, times(1)).finishLaunch(eq(launchId), any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void verify_concurrent_step_reporter_reports_steps_under_their_scenarios_with_threads() {
+		// scenarios start concurrently, so item IDs are bound to requests right in answers
+		Map<String, String> scenarioNames = new ConcurrentHashMap<>();
+		when(client.startTestItem(same(suiteId), any())).thenAnswer((Answer<Maybe<ItemCreatedRS>>) invocation -> {
+			String id = CommonUtils.namedId("test_");
+			scenarioNames.put(id, invocation.<StartTestItemRQ>getArgument(1).getName());
+			return createMaybe(new ItemCreatedRS(id, id));
+		});
+		List<Pair<String, String>> steps = new CopyOnWriteArrayList<>();
+		when(client.startTestItem(argThat(scenarioNames::containsKey), any())).thenAnswer((Answer<Maybe<ItemCreatedRS>>) invocation -> {
+			String id = CommonUtils.namedId("step_");
+			steps.add(Pair.of(invocation.getArgument(0), invocation.<StartTestItemRQ>getArgument(1).getName()));
+			return createMaybe(new ItemCreatedRS(id, id));
+		});
+		when(client.finishTestItem(anyString(), any())).thenReturn(createMaybe(new OperationCompletionRS()));
+
+		byte status = Main.run(new String[] { "--threads", "2", "--glue", "com.epam.reportportal.cucumber.integration.concurrent",
+				"--plugin", "com.epam.reportportal.cucumber.integration.TestConcurrentStepReporter",
+				"src/test/resources/features/ConcurrentScenarios.feature" }, Thread.currentThread().getContextClassLoader());
+
+		assertThat(status, equalTo((byte) 0));
+		assertThat("Scenarios should run on several threads", ConcurrentSteps.THREADS.size(), greaterThan(1));
+		assertThat(scenarioNames.values(), hasSize(ConcurrentSteps.SCENARIO_NUMBER));
+		assertThat(steps, hasSize(ConcurrentSteps.SCENARIO_NUMBER * ConcurrentSteps.STEP_NUMBER));
+		steps.forEach(step -> {
+			String scenarioName = scenarioNames.get(step.getKey());
+			String scenarioNumber = scenarioName.substring(scenarioName.lastIndexOf(' ') + 1);
+			assertThat("A step should be reported under its own scenario", step.getValue(), endsWith(" of scenario " + scenarioNumber));
+		});
+
+		verify(client, times(1)).finishLaunch(eq(launchId), any());
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.TestStepReporter;
+import com.epam.reportportal.cucumber.integration.release.FeatureReleaseSteps;
+import com.epam.reportportal.cucumber.integration.util.TestUtils;
+import com.epam.reportportal.cucumber.util.FailFastOrder;
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
+import com.epam.reportportal.util.test.CommonUtils;
+import cucumber.api.CucumberOptions;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import cucumber.api.testng.PickleEventWrapper;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testng.annotations.DataProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.Mockito.mock;
+
+public class FailFastOrderIntegrationTest {
+
+	private static volatile Path orderFile;
+
+	@CucumberOptions(features = "src/test/resources/features/release", glue = {
+			"com.epam.reportportal.cucumber.integration.release" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class FailFastOrderStepReporter extends AbstractTestNGCucumberTests {
+		@Override
+		@DataProvider
+		public Object[][] scenarios() {
+			Object[][] scenarios = super.scenarios();
+			Comparator<String> order;
+			try {
+				order = FailFastOrder.featureOrder(orderFile);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			Arrays.sort(scenarios, Comparator.comparing(s -> ((PickleEventWrapper) s[0]).getPickleEvent().uri, order));
+			return scenarios;
+		}
+	}
+
+	private final String launchId = CommonUtils.namedId("launch_");
+	private final String suiteId = CommonUtils.namedId("suite_");
+	private final List<Pair<String, List<String>>> tests = Stream.generate(() -> Pair.of(CommonUtils.namedId("test_"),
+			// a before hook and a step
+			Stream.generate(() -> CommonUtils.namedId("step_")).limit(2).collect(Collectors.toList())
+	)).limit(FeatureReleaseSteps.FEATURE_NUMBER * 3).collect(Collectors.toList());
+
+	private final ListenerParameters params = TestUtils.standardParameters();
+	private final ReportPortalClient client = mock(ReportPortalClient.class);
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private final ReportPortal reportPortal = ReportPortal.create(client, params, executorService);
+
+	@BeforeEach
+	public void setup() throws IOException {
+		TestUtils.mockLaunch(client, launchId, suiteId, tests);
+		TestStepReporter.RP.set(reportPortal);
+		orderFile = Files.createTempFile("rp-order", ".txt");
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		FeatureReleaseSteps.HELD_FEATURES.clear();
+		CommonUtils.shutdownExecutorService(executorService);
+		Files.deleteIfExists(orderFile);
+	}
+
+	@Test
+	public void verify_features_run_in_rerun_file_order() throws IOException {
+		List<String> order = Arrays.asList(FeatureReleaseSteps.FEATURES.get(2),
+				FeatureReleaseSteps.FEATURES.get(0),
+				FeatureReleaseSteps.FEATURES.get(3)
+		);
+		Files.write(orderFile, order, StandardCharsets.UTF_8);
+
+		TestUtils.runTests(FailFastOrderStepReporter.class);
+
+		List<String> runFeatures = FeatureReleaseSteps.HELD_FEATURES.stream().map(Pair::getKey).distinct().collect(Collectors.toList());
+		// the feature which is not in the file goes last
+		assertThat(runFeatures,
+				contains(FeatureReleaseSteps.FEATURES.get(2),
+						FeatureReleaseSteps.FEATURES.get(0),
+						FeatureReleaseSteps.FEATURES.get(3),
+						FeatureReleaseSteps.FEATURES.get(1)
+				)
+		);
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.TestStepReporter;
+import com.epam.reportportal.cucumber.integration.logging.FailureOnlyLoggingSteps;
+import com.epam.reportportal.cucumber.integration.util.TestUtils;
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.restendpoint.http.MultiPartRequest;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
+import com.epam.reportportal.util.test.CommonUtils;
+import com.epam.ta.reportportal.ws.model.FinishTestItemRQ;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import cucumber.api.CucumberOptions;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+public class FailureOnlyLoggingTest {
+	@CucumberOptions(features = "src/test/resources/features/FailureOnlyLogging.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.logging" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class FailureOnlyLoggingStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	private final String launchId = CommonUtils.namedId("launch_");
+	private final String suiteId = CommonUtils.namedId("suite_");
+	private final String testId = CommonUtils.namedId("test_");
+	// 'Before' hook and three steps
+	private final List<String> stepIds = Stream.generate(() -> CommonUtils.namedId("step_")).limit(4).collect(Collectors.toList());
+
+	private final ListenerParameters parameters = TestUtils.standardParameters();
+	private final ReportPortalClient client = mock(ReportPortalClient.class);
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private final ReportPortal reportPortal = ReportPortal.create(client, parameters, executorService);
+
+	@BeforeEach
+	public void setup() {
+		System.setProperty(ReporterProperty.FAILURE_ONLY_LOGGING.getPropertyName(), "true");
+		TestUtils.mockLaunch(client, launchId, suiteId, testId, stepIds);
+		TestUtils.mockLogging(client);
+		TestStepReporter.RP.set(reportPortal);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		System.clearProperty(ReporterProperty.FAILURE_ONLY_LOGGING.getPropertyName());
+		System.clearProperty(ReporterProperty.LOG_BUFFER_BYTES.getPropertyName());
+	}
+
+	@Test
+	public void verify_buffered_logs_are_reported_to_their_steps_with_original_time() {
+		TestUtils.runTests(FailureOnlyLoggingStepReporter.class);
+
+		ArgumentCaptor<MultiPartRequest> logCaptor = ArgumentCaptor.forClass(MultiPartRequest.class);
+		verify(client, atLeastOnce()).log(logCaptor.capture());
+		List<SaveLogRQ> logs = logCaptor.getAllValues()
+				.stream()
+				.flatMap(l -> l.getSerializedRQs().stream())
+				.flatMap(l -> ((List<SaveLogRQ>) l.getRequest()).stream())
+				.collect(Collectors.toList());
+
+		SaveLogRQ firstLog = logs.stream().filter(l -> FailureOnlyLoggingSteps.FIRST_LOG.equals(l.getMessage())).findAny().orElse(null);
+		SaveLogRQ secondLog = logs.stream().filter(l -> FailureOnlyLoggingSteps.SECOND_LOG.equals(l.getMessage())).findAny().orElse(null);
+		SaveLogRQ attachment = logs.stream().filter(l -> Objects.nonNull(l.getFile())).findAny().orElse(null);
+		assertThat(firstLog, notNullValue());
+		assertThat(secondLog, notNullValue());
+		assertThat(attachment, notNullValue());
+
+		assertThat(firstLog.getItemUuid(), equalTo(stepIds.get(1)));
+		assertThat(secondLog.getItemUuid(), equalTo(stepIds.get(2)));
+		assertThat(attachment.getItemUuid(), equalTo(stepIds.get(2)));
+		assertThat(attachment.getFile().getContentType(), equalTo("text/plain"));
+
+		ArgumentCaptor<FinishTestItemRQ> finishCaptor = ArgumentCaptor.forClass(FinishTestItemRQ.class);
+		verify(client).finishTestItem(same(stepIds.get(1)), finishCaptor.capture());
+		verify(client).finishTestItem(same(stepIds.get(2)), finishCaptor.capture());
+		List<FinishTestItemRQ> finishes = finishCaptor.getAllValues();
+		assertThat(firstLog.getLogTime(), lessThanOrEqualTo(finishes.get(0).getEndTime()));
+		assertThat(secondLog.getLogTime(), greaterThan(firstLog.getLogTime()));
+		assertThat(secondLog.getLogTime(), lessThanOrEqualTo(finishes.get(1).getEndTime()));
+		assertThat(attachment.getLogTime(), lessThanOrEqualTo(finishes.get(1).getEndTime()));
+	}
+
+	@Test
+	public void verify_log_buffer_is_limited_by_size() {
+		// the second log fits into the buffer only when the first one is discarded, the attachment is bigger than the buffer
+		System.setProperty(ReporterProperty.LOG_BUFFER_BYTES.getPropertyName(), "30");
+
+		TestUtils.runTests(FailureOnlyLoggingStepReporter.class);
+
+		ArgumentCaptor<MultiPartRequest> logCaptor = ArgumentCaptor.forClass(MultiPartRequest.class);
+		verify(client, atLeastOnce()).log(logCaptor.capture());
+		List<SaveLogRQ> logs = logCaptor.getAllValues()
+				.stream()
+				.flatMap(l -> l.getSerializedRQs().stream())
+				.flatMap(l -> ((List<SaveLogRQ>) l.getRequest()).stream())
+				.collect(Collectors.toList());
+
+		assertThat(logs.stream().filter(l -> FailureOnlyLoggingSteps.FIRST_LOG.equals(l.getMessage())).count(), equalTo(0L));
+		assertThat(logs.stream().filter(l -> FailureOnlyLoggingSteps.SECOND_LOG.equals(l.getMessage())).count(), equalTo(1L));
+		assertThat(logs.stream().filter(l -> Objects.nonNull(l.getFile())).count(), equalTo(0L));
+		assertThat(logs.stream()
+				.filter(l -> "2 earlier log entries were discarded due to log buffer overflow".equals(l.getMessage()))
+				.count(), equalTo(1L));
+	}
+}
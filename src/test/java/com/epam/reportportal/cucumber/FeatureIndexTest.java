@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import gherkin.ast.ScenarioOutline;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FeatureIndexTest {
+
+	private static final String FEATURE = "Feature: Indexed feature\n" // 1
+			+ "\n" // 2
+			+ "  Background: Init\n" // 3
+			+ "    Given I have empty step\n" // 4
+			+ "\n" // 5
+			+ "  Scenario: The scenario\n" // 6
+			+ "    Then I have another empty step\n" // 7
+			+ "\n" // 8
+			+ "  Scenario Outline: The outline\n" // 9
+			+ "    Given I have parameter <str>\n" // 10
+			+ "\n" // 11
+			+ "    Examples:\n" // 12
+			+ "      | str |\n" // 13
+			+ "      | a   |\n" // 14
+			+ "      | b   |\n" // 15
+			+ "\n" // 16
+			+ "    Examples:\n" // 17
+			+ "      | str |\n" // 18
+			+ "      | c   |\n"; // 19
+
+	@Test
+	public void verify_feature_index_maps_lines_to_scenarios() {
+		FeatureIndex index = FeatureIndex.parse("file:features/indexed.feature", FEATURE);
+
+		assertThat(index.getUri(), equalTo("file:features/indexed.feature"));
+		assertThat(index.getFeature(), notNullValue());
+		assertThat(index.getBackground(), notNullValue());
+		assertThat(index.getBackground().getName(), equalTo("Init"));
+		assertThat(index.getScenario(6).getName(), equalTo("The scenario"));
+		assertThat(index.getScenario(14), instanceOf(ScenarioOutline.class));
+		assertThat(index.getScenario(19), sameInstance(index.getScenario(14)));
+		assertThat(index.getScenario(4), nullValue());
+	}
+
+	@Test
+	public void verify_feature_steps_are_indexed_by_line() {
+		FeatureIndex index = FeatureIndex.parse("file:features/indexed.feature", FEATURE);
+
+		assertThat(index.getSteps().size(), equalTo(3));
+		assertThat(index.getSteps().get(4).getText(), equalTo("I have empty step"));
+		assertThat(index.getSteps().get(7).getText(), equalTo("I have another empty step"));
+		assertThat(index.getSteps().get(10).getText(), equalTo("I have parameter <str>"));
+		assertThat(index.getSteps().get(6), nullValue());
+	}
+
+	@Test
+	public void verify_pickles_of_scenarios_and_example_rows_are_counted() {
+		assertThat(FeatureIndex.parse("file:features/indexed.feature", FEATURE).getPickleNumber(), equalTo(4));
+		assertThat(FeatureIndex.parse("file:features/broken.feature", "Not a feature").getPickleNumber(), equalTo(0));
+	}
+
+	@Test
+	public void verify_outline_iterations_span_all_examples() {
+		FeatureIndex index = FeatureIndex.parse("file:features/indexed.feature", FEATURE);
+
+		assertThat(index.getOutlineIteration(14), equalTo(0));
+		assertThat(index.getOutlineIteration(15), equalTo(1));
+		assertThat(index.getOutlineIteration(19), equalTo(2));
+		assertThat(index.getOutlineIteration(6), nullValue());
+	}
+
+	@Test
+	public void verify_unparseable_feature_has_no_scenarios() {
+		FeatureIndex index = FeatureIndex.parse("file:features/broken.feature", "Scenario: no feature\n  Given\n  |");
+
+		assertThat(index.getFeature(), nullValue());
+		assertThat(index.getBackground(), nullValue());
+		assertThat(index.getScenario(1), nullValue());
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.TestStepReporter;
+import com.epam.reportportal.cucumber.integration.release.FeatureReleaseSteps;
+import com.epam.reportportal.cucumber.integration.util.TestUtils;
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
+import com.epam.reportportal.util.test.CommonUtils;
+import cucumber.api.CucumberOptions;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import cucumber.api.testng.PickleEventWrapper;
+import cucumber.api.testng.TestNGCucumberRunner;
+import gherkin.events.PickleEvent;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.*;
+
+public class FeatureReleaseTest {
+
+	@CucumberOptions(features = "src/test/resources/features/release", glue = {
+			"com.epam.reportportal.cucumber.integration.release" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class FeatureReleaseStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	@CucumberOptions(features = "src/test/resources/features/DummyScenario.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.feature" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class RepeatedScenarioStepReporter {
+
+	}
+
+	private final String launchId = CommonUtils.namedId("launch_");
+	private final String suiteId = CommonUtils.namedId("suite_");
+	private final List<Pair<String, List<String>>> tests = Stream.generate(() -> Pair.of(CommonUtils.namedId("test_"),
+			// a before hook and a step
+			Stream.generate(() -> CommonUtils.namedId("step_")).limit(2).collect(Collectors.toList())
+	)).limit(FeatureReleaseSteps.FEATURE_NUMBER * 3).collect(Collectors.toList());
+
+	private final ListenerParameters params = TestUtils.standardParameters();
+	private final ReportPortalClient client = mock(ReportPortalClient.class);
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private final ReportPortal reportPortal = ReportPortal.create(client, params, executorService);
+
+	@BeforeEach
+	public void setup() {
+		TestUtils.mockLaunch(client, launchId, suiteId, tests);
+		TestStepReporter.RP.set(reportPortal);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		System.clearProperty(ReporterProperty.FEATURE_EARLY_FINISH.getPropertyName());
+		FeatureReleaseSteps.HELD_FEATURES.clear();
+		CommonUtils.shutdownExecutorService(executorService);
+	}
+
+	@Test
+	public void verify_features_are_released_once_their_pickles_are_finished() {
+		TestUtils.runTests(FeatureReleaseStepReporter.class);
+
+		List<Pair<String, List<String>>> heldFeatures = FeatureReleaseSteps.HELD_FEATURES;
+		assertThat(heldFeatures, hasSize(FeatureReleaseSteps.FEATURE_NUMBER * 3));
+		Set<String> finishedFeatures = new HashSet<>();
+		String currentFeature = null;
+		for (Pair<String, List<String>> scenario : heldFeatures) {
+			if (currentFeature != null && !currentFeature.equals(scenario.getKey())) {
+				finishedFeatures.add(currentFeature);
+			}
+			currentFeature = scenario.getKey();
+			assertThat("A feature should be held while its scenarios run", scenario.getValue(), hasItem(currentFeature));
+			assertThat("Finished features should be released",
+					Collections.disjoint(finishedFeatures, scenario.getValue()),
+					equalTo(true)
+			);
+		}
+		assertThat(finishedFeatures, hasSize(FeatureReleaseSteps.FEATURE_NUMBER - 1));
+
+		// mocked feature items share one ID, every feature should be finished exactly once
+		verify(client, times(FeatureReleaseSteps.FEATURE_NUMBER)).finishTestItem(same(suiteId), any());
+	}
+
+	private static void runScenarioTwice() throws Throwable {
+		TestNGCucumberRunner runner = new TestNGCucumberRunner(RepeatedScenarioStepReporter.class);
+		PickleEvent pickle = ((PickleEventWrapper) runner.provideScenarios()[0][0]).getPickleEvent();
+		// a retry runs the same pickle again
+		runner.runScenario(pickle);
+		runner.runScenario(pickle);
+		runner.finish();
+	}
+
+	@Test
+	public void verify_scenario_repeated_after_its_feature_is_finished_is_reported_under_a_new_feature_item() throws Throwable {
+		runScenarioTwice();
+
+		verify(client, times(2)).startTestItem(any());
+		verify(client, times(2)).startTestItem(same(suiteId), any());
+		verify(client, times(2)).finishTestItem(same(suiteId), any());
+		verify(client, times(1)).finishLaunch(eq(launchId), any());
+	}
+
+	@Test
+	public void verify_repeated_scenario_is_reported_under_one_feature_item_without_early_finish() throws Throwable {
+		System.setProperty(ReporterProperty.FEATURE_EARLY_FINISH.getPropertyName(), "false");
+
+		runScenarioTwice();
+
+		verify(client, times(1)).startTestItem(any());
+		verify(client, times(2)).startTestItem(same(suiteId), any());
+		verify(client, times(1)).finishTestItem(same(suiteId), any());
+		verify(client, times(1)).finishLaunch(eq(launchId), any());
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FileLaunchRendezvousTest {
+
+	@TempDir
+	public Path tempDir;
+
+	@Test
+	public void verify_leader_starts_launch_and_followers_attach() {
+		Path file = tempDir.resolve("rendezvous");
+		AtomicInteger starts = new AtomicInteger();
+		FileLaunchRendezvous leader = new FileLaunchRendezvous(file, 2);
+		FileLaunchRendezvous follower = new FileLaunchRendezvous(file, 2);
+
+		String leaderUuid = leader.join(() -> "launch-" + starts.incrementAndGet());
+		String followerUuid = follower.join(() -> "launch-" + starts.incrementAndGet());
+
+		assertThat(starts.get(), equalTo(1));
+		assertThat(leaderUuid, equalTo("launch-1"));
+		assertThat(followerUuid, equalTo(leaderUuid));
+	}
+
+	@Test
+	public void verify_only_last_shard_finishes_launch() throws Exception {
+		Path file = tempDir.resolve("rendezvous");
+		FileLaunchRendezvous first = new FileLaunchRendezvous(file, 2);
+		FileLaunchRendezvous second = new FileLaunchRendezvous(file, 2);
+		first.join(() -> "launch");
+
+		assertThat("A shard should not finish the launch before all shards join", first.leave(), equalTo(false));
+
+		second.join(() -> "other-launch");
+		assertThat(second.leave(), equalTo(true));
+		assertThat("The file should be reset for the next run", Files.size(file), equalTo(0L));
+	}
+
+	@Test
+	public void verify_joined_shards_are_counted_if_shard_number_is_unknown() {
+		Path file = tempDir.resolve("rendezvous");
+		FileLaunchRendezvous first = new FileLaunchRendezvous(file, -1);
+		FileLaunchRendezvous second = new FileLaunchRendezvous(file, -1);
+		first.join(() -> "launch");
+		second.join(() -> "launch");
+
+		assertThat(second.leave(), equalTo(false));
+		assertThat(first.leave(), equalTo(true));
+	}
+
+	@Test
+	public void verify_stale_file_of_crashed_run_is_discarded() throws Exception {
+		Path file = tempDir.resolve("rendezvous");
+		AtomicInteger starts = new AtomicInteger();
+		// the shard crashes and never leaves
+		new FileLaunchRendezvous(file, 2, 50L).join(() -> "launch-" + starts.incrementAndGet());
+		Thread.sleep(100L);
+
+		FileLaunchRendezvous next = new FileLaunchRendezvous(file, 1, 50L);
+		assertThat(next.join(() -> "launch-" + starts.incrementAndGet()), equalTo("launch-2"));
+		assertThat(next.leave(), equalTo(true));
+	}
+
+	@Test
+	public void verify_file_is_not_stale_if_timeout_is_not_set() throws Exception {
+		Path file = tempDir.resolve("rendezvous");
+		AtomicInteger starts = new AtomicInteger();
+		new FileLaunchRendezvous(file, 2).join(() -> "launch-" + starts.incrementAndGet());
+		Thread.sleep(100L);
+
+		assertThat(new FileLaunchRendezvous(file, 2).join(() -> "launch-" + starts.incrementAndGet()), equalTo("launch-1"));
+	}
+
+	@Test
+	public void verify_concurrent_shards_share_one_launch() throws Exception {
+		Path file = tempDir.resolve("rendezvous");
+		int shardNumber = 10;
+		AtomicInteger starts = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(shardNumber);
+		try {
+			List<Future<String>> uuids = IntStream.range(0, shardNumber)
+					.mapToObj(i -> executor.submit(() -> new FileLaunchRendezvous(file, shardNumber).join(() -> "launch-" + starts.incrementAndGet())))
+					.collect(Collectors.toList());
+			for (Future<String> uuid : uuids) {
+				assertThat(uuid.get(10, TimeUnit.SECONDS), equalTo("launch-1"));
+			}
+			List<Future<Boolean>> finishes = IntStream.range(0, shardNumber)
+					.mapToObj(i -> executor.submit(() -> new FileLaunchRendezvous(file, shardNumber).leave()))
+					.collect(Collectors.toList());
+			int finished = 0;
+			for (Future<Boolean> finish : finishes) {
+				finished += finish.get(10, TimeUnit.SECONDS) ? 1 : 0;
+			}
+			assertThat(finished, equalTo(1));
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.TestStepReporter;
+import com.epam.reportportal.cucumber.integration.embed.processing.ImageProcessingSteps;
+import com.epam.reportportal.cucumber.integration.util.TestUtils;
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.restendpoint.http.MultiPartRequest;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
+import com.epam.reportportal.util.test.CommonUtils;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import cucumber.api.CucumberOptions;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+public class ImageProcessingTest {
+	@CucumberOptions(features = "src/test/resources/features/ImageProcessing.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.embed.processing" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class ImageProcessingStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	private static final int MAX_DIMENSION = 50;
+
+	private final String launchId = CommonUtils.namedId("launch_");
+	private final String suiteId = CommonUtils.namedId("suite_");
+	private final List<String> testIds = Stream.generate(() -> CommonUtils.namedId("test_")).limit(3).collect(Collectors.toList());
+	// 'Before' hook and a step
+	private final List<Pair<String, List<String>>> tests = testIds.stream()
+			.map(id -> Pair.of(id, Stream.generate(() -> CommonUtils.namedId("step_")).limit(2).collect(Collectors.toList())))
+			.collect(Collectors.toList());
+
+	private final ListenerParameters parameters = TestUtils.standardParameters();
+	private final ReportPortalClient client = mock(ReportPortalClient.class);
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private final ReportPortal reportPortal = ReportPortal.create(client, parameters, executorService);
+
+	@BeforeEach
+	public void setup() {
+		System.setProperty(ReporterProperty.IMAGE_MAX_DIMENSION.getPropertyName(), String.valueOf(MAX_DIMENSION));
+		System.setProperty(ReporterProperty.IMAGE_QUALITY.getPropertyName(), "80");
+		TestUtils.mockLaunch(client, launchId, suiteId, tests);
+		TestUtils.mockLogging(client);
+		TestStepReporter.RP.set(reportPortal);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		System.clearProperty(ReporterProperty.IMAGE_MAX_DIMENSION.getPropertyName());
+		System.clearProperty(ReporterProperty.IMAGE_QUALITY.getPropertyName());
+	}
+
+	private List<SaveLogRQ> getAttachments() {
+		ArgumentCaptor<MultiPartRequest> logCaptor = ArgumentCaptor.forClass(MultiPartRequest.class);
+		verify(client, atLeastOnce()).log(logCaptor.capture());
+		return logCaptor.getAllValues()
+				.stream()
+				.flatMap(l -> l.getSerializedRQs().stream())
+				.flatMap(l -> ((List<SaveLogRQ>) l.getRequest()).stream())
+				.filter(l -> Objects.nonNull(l.getFile()))
+				.collect(Collectors.toList());
+	}
+
+	private SaveLogRQ getAttachment(List<SaveLogRQ> attachments, int scenario) {
+		String stepId = tests.get(scenario).getValue().get(1);
+		return attachments.stream().filter(a -> stepId.equals(a.getItemUuid())).findAny().orElse(null);
+	}
+
+	@Test
+	public void verify_image_is_downscaled_and_labelled_with_result_type() throws IOException {
+		TestUtils.runTests(ImageProcessingStepReporter.class);
+
+		SaveLogRQ attachment = getAttachment(getAttachments(), 0);
+		assertThat(attachment, notNullValue());
+		assertThat(attachment.getFile().getContentType(), equalTo("image/jpeg"));
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(attachment.getFile().getContent()));
+		assertThat(image, notNullValue());
+		assertThat(image.getWidth(), equalTo(MAX_DIMENSION));
+		assertThat(image.getHeight(), equalTo(MAX_DIMENSION * ImageProcessingSteps.IMAGE_HEIGHT / ImageProcessingSteps.IMAGE_WIDTH));
+	}
+
+	@Test
+	public void verify_unreadable_image_is_sent_as_is_with_original_type() {
+		TestUtils.runTests(ImageProcessingStepReporter.class);
+
+		SaveLogRQ attachment = getAttachment(getAttachments(), 1);
+		assertThat(attachment, notNullValue());
+		assertThat(attachment.getFile().getContentType(), equalTo("image/png"));
+		assertThat(attachment.getFile().getContent(), equalTo(ImageProcessingSteps.BROKEN_PNG));
+	}
+
+	@Test
+	public void verify_image_is_sent_as_is_if_processing_does_not_make_it_smaller() throws IOException {
+		TestUtils.runTests(ImageProcessingStepReporter.class);
+
+		SaveLogRQ attachment = getAttachment(getAttachments(), 2);
+		assertThat(attachment, notNullValue());
+		assertThat(attachment.getFile().getContentType(), equalTo("image/png"));
+		assertThat(attachment.getFile().getContent(), equalTo(ImageProcessingSteps.flatPng()));
+	}
+}
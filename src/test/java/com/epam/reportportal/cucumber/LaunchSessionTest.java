@@ -0,0 +1,145 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.TestStepReporter;
+import com.epam.reportportal.cucumber.integration.session.LaunchSessionSteps;
+import com.epam.reportportal.cucumber.integration.util.TestUtils;
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
+import com.epam.reportportal.util.test.CommonUtils;
+import cucumber.api.CucumberOptions;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import cucumber.api.testng.PickleEventWrapper;
+import cucumber.api.testng.TestNGCucumberRunner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class LaunchSessionTest {
+
+	@CucumberOptions(features = "src/test/resources/features/LaunchSession.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.session" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class LaunchSessionStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	private static class Run {
+		private final String launchId = CommonUtils.namedId("launch_");
+		private final ReportPortalClient client = mock(ReportPortalClient.class);
+		private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+		private final ListenerParameters parameters = TestUtils.standardParameters();
+		private final ReportPortal reportPortal = ReportPortal.create(client, parameters, executorService);
+
+		private Run() {
+			TestUtils.mockLaunch(client,
+					launchId,
+					CommonUtils.namedId("suite_"),
+					CommonUtils.namedId("test_"),
+					CommonUtils.namedId("step_")
+			);
+		}
+
+		private void run() {
+			TestStepReporter.RP.set(reportPortal);
+			TestUtils.runTests(LaunchSessionStepReporter.class);
+		}
+	}
+
+	@AfterEach
+	public void tearDown() {
+		LaunchSessionSteps.STEP_SESSIONS.clear();
+		LaunchSessionSteps.FOREIGN_THREAD_SESSIONS.clear();
+	}
+
+	@Test
+	public void verify_only_active_session_is_available_on_foreign_thread() {
+		new Run().run();
+
+		String thread = Thread.currentThread().getName();
+		Optional<LaunchSession> session = LaunchSessionSteps.STEP_SESSIONS.get(thread);
+		assertThat(session, notNullValue());
+		assertThat(session.isPresent(), equalTo(true));
+		assertThat(LaunchSessionSteps.FOREIGN_THREAD_SESSIONS.get(thread), equalTo(session));
+		assertThat("The session should not be available once the launch is finished",
+				AbstractReporter.getCurrentSession(),
+				nullValue()
+		);
+	}
+
+	@Test
+	public void verify_reporters_in_one_jvm_keep_separate_state() throws InterruptedException {
+		Run first = new Run();
+		Run second = new Run();
+		Thread firstThread = new Thread(first::run, "first-launch");
+		Thread secondThread = new Thread(second::run, "second-launch");
+		firstThread.start();
+		secondThread.start();
+		firstThread.join();
+		secondThread.join();
+
+		LaunchSession firstSession = LaunchSessionSteps.STEP_SESSIONS.get(firstThread.getName()).orElse(null);
+		LaunchSession secondSession = LaunchSessionSteps.STEP_SESSIONS.get(secondThread.getName()).orElse(null);
+		assertThat(firstSession, notNullValue());
+		assertThat(secondSession, notNullValue());
+		assertThat(firstSession, not(sameInstance(secondSession)));
+		assertThat(firstSession.getReportPortal(), sameInstance(first.reportPortal));
+		assertThat(secondSession.getReportPortal(), sameInstance(second.reportPortal));
+
+		for (Run run : new Run[] { first, second }) {
+			verify(run.client, times(1)).startLaunch(any());
+			verify(run.client, times(1)).startTestItem(any());
+			verify(run.client, times(1)).finishLaunch(eq(run.launchId), any());
+		}
+	}
+
+	@Test
+	public void verify_worker_thread_does_not_keep_session_after_test_case() throws Exception {
+		Run run = new Run();
+		TestStepReporter.RP.set(run.reportPortal);
+		ExecutorService worker = Executors.newSingleThreadExecutor();
+		try {
+			// the launch is started on the current thread, the scenario is run on a pooled worker thread
+			TestNGCucumberRunner runner = new TestNGCucumberRunner(LaunchSessionStepReporter.class);
+			PickleEventWrapper pickle = (PickleEventWrapper) runner.provideScenarios()[0][0];
+			worker.submit(() -> {
+				try {
+					runner.runScenario(pickle.getPickleEvent());
+				} catch (Throwable e) {
+					throw new AssertionError(e);
+				}
+			}).get();
+			runner.finish();
+
+			assertThat(LaunchSessionSteps.STEP_SESSIONS.values(), hasSize(1));
+			assertThat(LaunchSessionSteps.STEP_SESSIONS.values().iterator().next().isPresent(), equalTo(true));
+			assertThat(worker.submit(AbstractReporter::getCurrentSession).get(), nullValue());
+		} finally {
+			worker.shutdown();
+		}
+	}
+}
@@ -86,6 +86,12 @@ public class ParameterStepReporterTest {
 	public static class DataTableParameterTestStepReporter extends AbstractTestNGCucumberTests {
 	}
 
+	@CucumberOptions(features = "src/test/resources/features/RepeatedStepParameters.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.feature" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class RepeatedStepParametersTestStepReporter extends AbstractTestNGCucumberTests {
+	}
+
 	private static final String DOCSTRING_PARAM = "My very long parameter\nWith some new lines";
 	private static final String TABLE_PARAM = Utils.formatDataTable(Arrays.asList(Arrays.asList("key", "value"),
 			Arrays.asList("myKey", "myValue")
@@ -260,4 +266,23 @@ public class ParameterStepReporterTest {
 		assertThat(logs, hasSize(1));
 		assertThat(logs, not(hasItem(equalTo(TABLE_PARAM))));
 	}
+
+	@Test
+	public void verify_repeated_steps_do_not_share_parameters() {
+		TestUtils.runTests(RepeatedStepParametersTestStepReporter.class);
+
+		ArgumentCaptor<StartTestItemRQ> captor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, times(2)).startTestItem(same(testIds.get(0)), captor.capture());
+
+		List<ParameterResource> first = captor.getAllValues().get(0).getParameters();
+		List<ParameterResource> second = captor.getAllValues().get(1).getParameters();
+		assertThat(first, hasSize(2));
+		assertThat(second, hasSize(2));
+		assertThat(second, not(sameInstance(first)));
+		IntStream.range(0, first.size()).forEach(i -> {
+			assertThat(second.get(i), not(sameInstance(first.get(i))));
+			assertThat(second.get(i).getKey(), equalTo(first.get(i).getKey()));
+			assertThat(second.get(i).getValue(), equalTo(first.get(i).getValue()));
+		});
+	}
 }
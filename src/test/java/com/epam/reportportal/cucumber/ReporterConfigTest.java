@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.utils.properties.PropertiesLoader;
+import cucumber.api.Result;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.zip.Deflater;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ReporterConfigTest {
+
+	private static final String PROPERTY_FILE = "reporter-config.properties";
+
+	@AfterEach
+	public void tearDown() {
+		System.clearProperty(ReporterProperty.IMAGE_QUALITY.getPropertyName());
+		System.clearProperty(ReporterProperty.FAILURE_ONLY_LOGGING.getPropertyName());
+		System.clearProperty(ReporterProperty.ATTACHMENT_COMPRESSION_LEVEL.getPropertyName());
+	}
+
+	@Test
+	public void verify_default_values() {
+		ReporterConfig config = new ReporterConfig(PropertiesLoader.load(), new ListenerParameters());
+
+		assertThat(config.isWarmUp(), equalTo(false));
+		assertThat(config.isAttachmentDeduplication(), equalTo(false));
+		assertThat(config.getAttachmentCompressionLevel(), equalTo(Deflater.DEFAULT_COMPRESSION));
+		assertThat(config.getAttachmentCompressionTypes(), contains("text/*", "application/json", "application/xml"));
+		assertThat(config.getImageQuality(), lessThanOrEqualTo(0));
+		assertThat(config.getAttachmentOverflowPolicy(), equalTo(AttachmentOverflowPolicy.DROP));
+		assertThat(config.getLogFlushStatuses(), equalTo(EnumSet.of(Result.Type.FAILED)));
+		assertThat(config.getShardNumber(), lessThanOrEqualTo(0));
+		assertThat(config.getShardStaleTimeout(), greaterThan(0L));
+		assertThat(config.getGluePackages(), empty());
+		assertThat(config.isCallbackReportingEnabled(), equalTo(false));
+	}
+
+	@Test
+	public void verify_values_are_parsed_from_property_file() {
+		ListenerParameters parameters = new ListenerParameters();
+		parameters.setCallbackReportingEnabled(true);
+		ReporterConfig config = new ReporterConfig(PropertiesLoader.load(PROPERTY_FILE), parameters);
+
+		assertThat(config.isAttachmentDeduplication(), equalTo(true));
+		assertThat(config.getAttachmentCompressionTypes(), contains("text/plain", "application/json"));
+		assertThat(config.getImageQuality(), equalTo(80));
+		assertThat("An invalid number should fall back to the default", config.getImageMaxDimension(), lessThanOrEqualTo(0));
+		assertThat(config.getAttachmentOverflowPolicy(), equalTo(AttachmentOverflowPolicy.SUMMARIZE));
+		assertThat("Unknown statuses should be ignored",
+				config.getLogFlushStatuses(),
+				equalTo(EnumSet.of(Result.Type.FAILED, Result.Type.UNDEFINED))
+		);
+		assertThat(config.getStackTraceFilters(), equalTo(Arrays.asList("org.junit.", "cucumber.")));
+		assertThat(config.getShardNumber(), equalTo(3));
+		assertThat(config.getShardStaleTimeout(), equalTo(60000L));
+		assertThat(config.getGluePackages(), equalTo(Arrays.asList("com.example.steps", "com.example.hooks")));
+		assertThat(config.isCallbackReportingEnabled(), equalTo(true));
+	}
+
+	@Test
+	public void verify_system_properties_override_property_file() {
+		System.setProperty(ReporterProperty.IMAGE_QUALITY.getPropertyName(), "50");
+		System.setProperty(ReporterProperty.FAILURE_ONLY_LOGGING.getPropertyName(), "true");
+
+		ReporterConfig config = new ReporterConfig(PropertiesLoader.load(PROPERTY_FILE), new ListenerParameters());
+
+		assertThat(config.getImageQuality(), equalTo(50));
+		assertThat(config.isFailureOnlyLogging(), equalTo(true));
+		assertThat(config.isAttachmentDeduplication(), equalTo(true));
+	}
+
+	@Test
+	public void verify_valid_compression_level_is_used() {
+		System.setProperty(ReporterProperty.ATTACHMENT_COMPRESSION_LEVEL.getPropertyName(), "9");
+
+		ReporterConfig config = new ReporterConfig(PropertiesLoader.load(), new ListenerParameters());
+
+		assertThat(config.getAttachmentCompressionLevel(), equalTo(Deflater.BEST_COMPRESSION));
+	}
+
+	@Test
+	public void verify_invalid_compression_level_falls_back_to_default() {
+		System.setProperty(ReporterProperty.ATTACHMENT_COMPRESSION_LEVEL.getPropertyName(), "42");
+
+		ReporterConfig config = new ReporterConfig(PropertiesLoader.load(), new ListenerParameters());
+
+		assertThat(config.getAttachmentCompressionLevel(), equalTo(Deflater.DEFAULT_COMPRESSION));
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import cucumber.api.TestCase;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ScenarioContextLifecycleTest {
+
+	private static final String URI = "file:features/lifecycle.feature";
+	private static final String FEATURE = "Feature: Lifecycle\n" // 1
+			+ "\n" // 2
+			+ "  Background: Init\n" // 3
+			+ "    Given I have empty step\n" // 4
+			+ "\n" // 5
+			+ "  Scenario Outline: The outline\n" // 6
+			+ "    Given I have parameter <str>\n" // 7
+			+ "\n" // 8
+			+ "    Examples:\n" // 9
+			+ "      | str |\n" // 10
+			+ "      | a   |\n" // 11
+			+ "      | b   |\n"; // 12
+
+	private final LaunchSession session = new LaunchSession();
+
+	private static TestCase testCase(int line) {
+		TestCase testCase = mock(TestCase.class);
+		when(testCase.getUri()).thenReturn(URI);
+		when(testCase.getLine()).thenReturn(line);
+		when(testCase.getName()).thenReturn("The outline");
+		return testCase;
+	}
+
+	@Test
+	public void verify_scenario_context_releases_references_on_clear() {
+		session.addFeatureSource(URI, FEATURE);
+		TestCase testCase = testCase(12);
+		RunningContext.FeatureContext featureContext = new RunningContext.FeatureContext(session.getFeatureIndex(URI));
+		RunningContext.ScenarioContext context = featureContext.getScenarioContext(testCase);
+		context.bufferLog(() -> {
+		}, 10);
+
+		assertThat(context.getTestCase(), sameInstance(testCase));
+		assertThat(context.getOutlineIteration(), equalTo("[2]"));
+		assertThat(context.withBackground(), equalTo(true));
+
+		context.clear();
+
+		assertThat(context.getTestCase(), nullValue());
+		assertThat(context.getId(), nullValue());
+		assertThat(context.getCurrentStepId(), nullValue());
+		assertThat(context.hasBackground(), equalTo(false));
+		assertThat(context.withBackground(), equalTo(false));
+		assertThat(context.drainLogBuffer(), empty());
+	}
+
+	@Test
+	public void verify_feature_sources_are_released_on_session_clear() {
+		session.addFeatureSource(URI, FEATURE);
+		assertThat(session.getFeatureIndex(URI), notNullValue());
+
+		session.clear();
+
+		assertThat(session.getFeatureIndex(URI), nullValue());
+	}
+
+	@Test
+	public void verify_repeated_pickles_are_counted_once() {
+		session.addFeatureSource(URI, FEATURE);
+		RunningContext.FeatureContext featureContext = new RunningContext.FeatureContext(session.getFeatureIndex(URI));
+
+		assertThat(featureContext.finishPickle(11), equalTo(false));
+		assertThat(featureContext.finishPickle(11), equalTo(false));
+		assertThat(featureContext.finishPickle(12), equalTo(true));
+		assertThat(featureContext.finishPickle(12), equalTo(false));
+	}
+
+	@Test
+	public void verify_sessions_do_not_share_features() {
+		LaunchSession other = new LaunchSession();
+		session.addFeatureSource(URI, FEATURE);
+
+		assertThat(other.getFeatureIndex(URI), nullValue());
+		assertThat(other.getItemTree(), not(sameInstance(session.getItemTree())));
+	}
+
+	@Test
+	public void verify_log_buffer_discards_oldest_logs_by_size() {
+		session.addFeatureSource(URI, FEATURE);
+		RunningContext.FeatureContext featureContext = new RunningContext.FeatureContext(session.getFeatureIndex(URI));
+		RunningContext.ScenarioContext context = featureContext.getScenarioContext(testCase(11));
+		Runnable first = () -> {
+		};
+		Runnable second = () -> {
+		};
+		Runnable third = () -> {
+		};
+
+		context.bufferLog(first, 60, 10, 100);
+		context.bufferLog(second, 30, 10, 100);
+		context.bufferLog(() -> {
+		}, 101, 10, 100);
+		context.bufferLog(third, 40, 10, 100);
+
+		assertThat(context.getDiscardedLogCount(), equalTo(2));
+		assertThat(context.drainLogBuffer(), contains(second, third));
+	}
+}
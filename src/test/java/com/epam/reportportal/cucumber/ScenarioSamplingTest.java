@@ -0,0 +1,152 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.TestStepReporter;
+import com.epam.reportportal.cucumber.integration.util.TestUtils;
+import com.epam.reportportal.cucumber.util.ScenarioHistory;
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
+import com.epam.reportportal.util.test.CommonUtils;
+import com.epam.ta.reportportal.ws.model.FinishTestItemRQ;
+import com.epam.ta.reportportal.ws.model.StartTestItemRQ;
+import com.epam.ta.reportportal.ws.model.attribute.ItemAttributesRQ;
+import cucumber.api.CucumberOptions;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+public class ScenarioSamplingTest {
+	@CucumberOptions(features = "src/test/resources/features/TwoScenarioOutlineParameters.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.feature" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class ThreePassedScenariosStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	@CucumberOptions(features = "src/test/resources/features/FailedSlowScenario.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.feature" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class PassedAndFailedScenariosStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	private final String launchId = CommonUtils.namedId("launch_");
+	private final String suiteId = CommonUtils.namedId("suite_");
+	private final List<String> testIds = Stream.generate(() -> CommonUtils.namedId("test_")).limit(3).collect(Collectors.toList());
+	private final List<Pair<String, List<String>>> tests = testIds.stream()
+			.map(id -> Pair.of(id, Stream.generate(() -> CommonUtils.namedId("step_")).limit(3).collect(Collectors.toList())))
+			.collect(Collectors.toList());
+
+	private final ListenerParameters parameters = TestUtils.standardParameters();
+	private final ReportPortalClient client = mock(ReportPortalClient.class);
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private final ReportPortal reportPortal = ReportPortal.create(client, parameters, executorService);
+
+	@TempDir
+	public Path tempDir;
+
+	@BeforeEach
+	public void setup() {
+		TestUtils.mockLaunch(client, launchId, suiteId, tests);
+		TestUtils.mockLogging(client);
+		TestStepReporter.RP.set(reportPortal);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		System.clearProperty(ReporterProperty.SCENARIO_SAMPLING_RATE.getPropertyName());
+		System.clearProperty(ReporterProperty.SCENARIO_SAMPLING_INTERVAL.getPropertyName());
+		System.clearProperty(ReporterProperty.SCENARIO_HISTORY_FILE.getPropertyName());
+	}
+
+	private ItemAttributesRQ getSampledOutAttribute() {
+		ArgumentCaptor<FinishTestItemRQ> finishCaptor = ArgumentCaptor.forClass(FinishTestItemRQ.class);
+		verify(client).finishTestItem(same(suiteId), finishCaptor.capture());
+		assertThat(finishCaptor.getValue().getAttributes(), hasSize(1));
+		return finishCaptor.getValue().getAttributes().iterator().next();
+	}
+
+	@Test
+	public void verify_every_nth_passed_scenario_is_reported() {
+		System.setProperty(ReporterProperty.SCENARIO_SAMPLING_RATE.getPropertyName(), "2");
+
+		TestUtils.runTests(ThreePassedScenariosStepReporter.class);
+
+		verify(client, times(2)).startTestItem(same(suiteId), any(StartTestItemRQ.class));
+		ItemAttributesRQ attribute = getSampledOutAttribute();
+		assertThat(attribute.getKey(), equalTo("sampled.out"));
+		assertThat(attribute.getValue(), equalTo("1"));
+	}
+
+	@Test
+	public void verify_passed_scenarios_are_dropped_within_sampling_interval() {
+		System.setProperty(ReporterProperty.SCENARIO_SAMPLING_INTERVAL.getPropertyName(), "3600000");
+
+		TestUtils.runTests(ThreePassedScenariosStepReporter.class);
+
+		verify(client, times(1)).startTestItem(same(suiteId), any(StartTestItemRQ.class));
+		verify(client, never()).startTestItem(same(testIds.get(1)), any(StartTestItemRQ.class));
+		ItemAttributesRQ attribute = getSampledOutAttribute();
+		assertThat(attribute.getKey(), equalTo("sampled.out"));
+		assertThat(attribute.getValue(), equalTo("2"));
+	}
+
+	@Test
+	public void verify_dropped_scenarios_are_recorded_into_history() throws IOException {
+		Path history = tempDir.resolve("history");
+		System.setProperty(ReporterProperty.SCENARIO_SAMPLING_INTERVAL.getPropertyName(), "3600000");
+		System.setProperty(ReporterProperty.SCENARIO_HISTORY_FILE.getPropertyName(), history.toString());
+
+		TestUtils.runTests(ThreePassedScenariosStepReporter.class);
+
+		Map<String, ScenarioHistory.Entry> entries = ScenarioHistory.read(history);
+		assertThat(entries.keySet(), hasSize(3));
+		entries.values().forEach(e -> assertThat(e.getStatus(), equalTo("PASSED")));
+	}
+
+	@Test
+	public void verify_replayed_scenario_steps_are_reported_with_their_own_time() {
+		System.setProperty(ReporterProperty.SCENARIO_SAMPLING_INTERVAL.getPropertyName(), "3600000");
+
+		TestUtils.runTests(PassedAndFailedScenariosStepReporter.class);
+
+		ArgumentCaptor<StartTestItemRQ> stepCaptor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, times(2)).startTestItem(same(testIds.get(1)), stepCaptor.capture());
+		List<StartTestItemRQ> steps = stepCaptor.getAllValues();
+		long stepInterval = steps.get(1).getStartTime().getTime() - steps.get(0).getStartTime().getTime();
+		assertThat(stepInterval, greaterThanOrEqualTo((long) CommonUtils.MINIMAL_TEST_PAUSE));
+	}
+}
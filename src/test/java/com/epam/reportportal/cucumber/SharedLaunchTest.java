@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.TestStepReporter;
+import com.epam.reportportal.cucumber.integration.util.TestUtils;
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.restendpoint.http.MultiPartRequest;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
+import com.epam.reportportal.util.test.CommonUtils;
+import com.epam.ta.reportportal.ws.model.BatchSaveOperatingRS;
+import com.epam.ta.reportportal.ws.model.OperationCompletionRS;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import cucumber.api.CucumberOptions;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.epam.reportportal.util.test.CommonUtils.createMaybe;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.*;
+
+public class SharedLaunchTest {
+	@CucumberOptions(features = "src/test/resources/features/belly.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.feature" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class SimpleTestStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	@CucumberOptions(features = "src/test/resources/features/FailedScenario.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.feature" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class FailedStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	private final String launchId = CommonUtils.namedId("launch_");
+	private final String suiteId = CommonUtils.namedId("suite_");
+	private final String testId = CommonUtils.namedId("test_");
+	private final List<String> stepIds = Stream.generate(() -> CommonUtils.namedId("step_")).limit(3).collect(Collectors.toList());
+
+	private final ListenerParameters params = TestUtils.standardParameters();
+	private final ReportPortalClient client = mock(ReportPortalClient.class);
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private final ReportPortal reportPortal = ReportPortal.create(client, params, executorService);
+
+	@TempDir
+	public Path tempDir;
+
+	@BeforeEach
+	public void setup() {
+		TestUtils.mockLaunch(client, launchId, suiteId, testId, stepIds);
+		TestStepReporter.RP.set(reportPortal);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		System.clearProperty(ReporterProperty.SHARD_LAUNCH_UUID.getPropertyName());
+		System.clearProperty(ReporterProperty.SHARD_FILE.getPropertyName());
+		System.clearProperty(ReporterProperty.SHARD_NUMBER.getPropertyName());
+		System.clearProperty(ReporterProperty.FAILURE_CLUSTERING.getPropertyName());
+	}
+
+	private static boolean isLeft(Path rendezvousFile) throws IOException {
+		return new String(Files.readAllBytes(rendezvousFile), StandardCharsets.UTF_8).contains("finished=");
+	}
+
+	@Test
+	public void verify_follower_completes_launch_without_finishing_it() {
+		System.setProperty(ReporterProperty.SHARD_LAUNCH_UUID.getPropertyName(), launchId);
+
+		TestUtils.runTests(SimpleTestStepReporter.class);
+
+		verify(client, times(0)).startLaunch(any());
+		verify(client, times(1)).finishTestItem(same(testId), any());
+		verify(client, times(1)).finishTestItem(same(suiteId), any());
+		verify(client, times(0)).finishLaunch(any(), any());
+	}
+
+	@Test
+	public void verify_last_shard_finishes_launch() {
+		System.setProperty(ReporterProperty.SHARD_FILE.getPropertyName(), tempDir.resolve("rendezvous").toString());
+		System.setProperty(ReporterProperty.SHARD_NUMBER.getPropertyName(), "1");
+
+		TestUtils.runTests(SimpleTestStepReporter.class);
+
+		verify(client, times(1)).startLaunch(any());
+		verify(client, times(1)).finishTestItem(same(suiteId), any());
+		verify(client, times(1)).finishLaunch(eq(launchId), any());
+	}
+
+	@Test
+	public void verify_follower_leaves_launch_after_its_items_and_logs_are_reported() throws IOException {
+		Path rendezvousFile = tempDir.resolve("rendezvous");
+		System.setProperty(ReporterProperty.SHARD_FILE.getPropertyName(), rendezvousFile.toString());
+		System.setProperty(ReporterProperty.SHARD_NUMBER.getPropertyName(), "2");
+		System.setProperty(ReporterProperty.FAILURE_CLUSTERING.getPropertyName(), "true");
+		// another shard is the leader and is still running
+		new FileLaunchRendezvous(rendezvousFile, 2).join(() -> launchId);
+
+		List<Boolean> leftOnLog = new CopyOnWriteArrayList<>();
+		List<String> logMessages = new CopyOnWriteArrayList<>();
+		when(client.log(any(MultiPartRequest.class))).thenAnswer(invocation -> {
+			leftOnLog.add(isLeft(rendezvousFile));
+			MultiPartRequest request = invocation.getArgument(0);
+			request.getSerializedRQs()
+					.stream()
+					.map(MultiPartRequest.MultiPartSerialized::getRequest)
+					.filter(r -> r instanceof List)
+					.flatMap(r -> ((List<?>) r).stream())
+					.filter(l -> l instanceof SaveLogRQ)
+					.forEach(l -> logMessages.add(((SaveLogRQ) l).getMessage()));
+			return createMaybe(new BatchSaveOperatingRS());
+		});
+		List<Boolean> leftOnSuiteFinish = new CopyOnWriteArrayList<>();
+		when(client.finishTestItem(same(suiteId), any())).thenAnswer(invocation -> {
+			leftOnSuiteFinish.add(isLeft(rendezvousFile));
+			return createMaybe(new OperationCompletionRS());
+		});
+
+		TestUtils.runTests(FailedStepReporter.class);
+
+		verify(client, times(0)).startLaunch(any());
+		verify(client, times(0)).finishLaunch(any(), any());
+		assertThat(logMessages, hasItem(startsWith("Failure clusters")));
+		assertThat(leftOnLog, everyItem(equalTo(Boolean.FALSE)));
+		assertThat(leftOnSuiteFinish, contains(Boolean.FALSE));
+		assertThat("The shard should leave the launch", isLeft(rendezvousFile), equalTo(Boolean.TRUE));
+	}
+}
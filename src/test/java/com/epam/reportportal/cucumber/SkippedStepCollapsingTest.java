@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.TestStepReporter;
+import com.epam.reportportal.cucumber.integration.util.TestUtils;
+import com.epam.reportportal.listeners.ItemStatus;
+import com.epam.reportportal.listeners.ListenerParameters;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.reportportal.service.ReportPortalClient;
+import com.epam.reportportal.util.test.CommonUtils;
+import com.epam.ta.reportportal.ws.model.FinishTestItemRQ;
+import com.epam.ta.reportportal.ws.model.StartTestItemRQ;
+import cucumber.api.CucumberOptions;
+import cucumber.api.testng.AbstractTestNGCucumberTests;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Mockito.*;
+
+public class SkippedStepCollapsingTest {
+	@CucumberOptions(features = "src/test/resources/features/FailedScenarioWithSkippedSteps.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.feature" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class FailedStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	@CucumberOptions(features = "src/test/resources/features/UndefinedStepWithSkippedSteps.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.hooks" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class UndefinedStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
+	private final String launchId = CommonUtils.namedId("launch_");
+	private final String suiteId = CommonUtils.namedId("suite_");
+	private final String testId = CommonUtils.namedId("test_");
+	private final List<String> stepIds = Arrays.asList(CommonUtils.namedId("step_"), CommonUtils.namedId("step_"));
+
+	private final ListenerParameters parameters = TestUtils.standardParameters();
+	private final ReportPortalClient client = mock(ReportPortalClient.class);
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private final ReportPortal reportPortal = ReportPortal.create(client, parameters, executorService);
+
+	@BeforeEach
+	public void setup() {
+		System.setProperty(ReporterProperty.SKIPPED_STEP_COLLAPSING.getPropertyName(), "true");
+		TestUtils.mockLaunch(client, launchId, suiteId, testId, stepIds);
+		TestUtils.mockLogging(client);
+		TestStepReporter.RP.set(reportPortal);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		System.clearProperty(ReporterProperty.SKIPPED_STEP_COLLAPSING.getPropertyName());
+	}
+
+	@Test
+	public void verify_steps_skipped_after_failure_are_reported_as_one_item() {
+		TestUtils.runTests(FailedStepReporter.class);
+
+		ArgumentCaptor<StartTestItemRQ> stepCaptor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, times(2)).startTestItem(same(testId), stepCaptor.capture());
+		List<StartTestItemRQ> steps = stepCaptor.getAllValues();
+		assertThat(steps.get(0).getName(), endsWith("I have a failed step"));
+		assertThat(steps.get(1).getName(), equalTo("2 skipped step(s)"));
+		assertThat(steps.get(1).getDescription(), allOf(containsString("I have another empty step"),
+				containsString("I have one more empty step")
+		));
+
+		ArgumentCaptor<FinishTestItemRQ> finishCaptor = ArgumentCaptor.forClass(FinishTestItemRQ.class);
+		verify(client).finishTestItem(same(stepIds.get(0)), finishCaptor.capture());
+		verify(client).finishTestItem(same(stepIds.get(1)), finishCaptor.capture());
+		assertThat(finishCaptor.getAllValues().get(0).getStatus(), equalTo(ItemStatus.FAILED.name()));
+		assertThat(finishCaptor.getAllValues().get(1).getStatus(), equalTo(ItemStatus.SKIPPED.name()));
+	}
+
+	@Test
+	public void verify_steps_skipped_after_undefined_step_are_reported_as_one_item_with_their_hooks() {
+		TestUtils.runTests(UndefinedStepReporter.class);
+
+		ArgumentCaptor<StartTestItemRQ> stepCaptor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, atLeastOnce()).startTestItem(same(testId), stepCaptor.capture());
+		List<StartTestItemRQ> steps = stepCaptor.getAllValues();
+		assertThat(steps.stream().filter(rq -> rq.getName().endsWith("I have another empty step")).count(), equalTo(0L));
+
+		List<StartTestItemRQ> collapsed = steps.stream()
+				.filter(rq -> "1 skipped step(s)".equals(rq.getName()))
+				.collect(Collectors.toList());
+		assertThat(collapsed, hasSize(1));
+		String[] lines = collapsed.get(0).getDescription().split("\n");
+		assertThat(lines, arrayWithSize(3));
+		assertThat(lines[0], startsWith("Before step: "));
+		assertThat(lines[1], endsWith("I have another empty step"));
+		assertThat(lines[2], startsWith("After step: "));
+		// the collapsed item goes before scenario after hooks
+		assertThat(steps.get(steps.size() - 1).getName(), equalTo("After hooks"));
+	}
+}
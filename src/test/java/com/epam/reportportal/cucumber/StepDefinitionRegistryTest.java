@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber;
+
+import com.epam.reportportal.cucumber.integration.feature.BellyStepdefs;
+import com.epam.reportportal.cucumber.integration.feature.TestCaseIdOnMethodSteps;
+import com.epam.ta.reportportal.ws.model.attribute.ItemAttributesRQ;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class StepDefinitionRegistryTest {
+
+	private static final String GLUE_PACKAGE = "com.epam.reportportal.cucumber.integration.feature";
+	private static final String HOOKS_PACKAGE = "com.epam.reportportal.cucumber.integration.hooks";
+	private static final String LAMBDA_LOCATION = "com.example.Steps.lambda$new$0(Steps.java:10)";
+
+	/**
+	 * Mimics cucumber-java8 step definitions, which have a 'method' field of a synthetic lambda class
+	 */
+	@SuppressWarnings("unused")
+	private static class LambdaStepDefinition {
+		private final Method method;
+
+		private LambdaStepDefinition(Method method) {
+			this.method = method;
+		}
+
+		public String getLocation(boolean detail) {
+			return LAMBDA_LOCATION;
+		}
+	}
+
+	@Test
+	public void verify_glue_scan_resolves_step_definition_metadata() throws NoSuchMethodException {
+		StepDefinitionRegistry registry = new StepDefinitionRegistry(Runnable::run, false);
+
+		registry.scan(Collections.singletonList(GLUE_PACKAGE), getClass().getClassLoader()).join();
+
+		Method belly = BellyStepdefs.class.getMethod("I_have_cukes_in_my_belly", int.class);
+		StepDefinitionMetadata metadata = registry.get(belly);
+		assertThat(metadata, notNullValue());
+		assertThat(metadata.getCodeRef(), equalTo(BellyStepdefs.class.getName() + ".I_have_cukes_in_my_belly"));
+		assertThat(metadata.getAttributes(), hasSize(1));
+		ItemAttributesRQ attribute = metadata.getAttributes().iterator().next();
+		assertThat(attribute.getKey(), equalTo("key"));
+		assertThat(attribute.getValue(), equalTo("value"));
+		assertThat(metadata.getTestCaseId(), nullValue());
+
+		Method testCaseId = TestCaseIdOnMethodSteps.class.getMethod("i_have_a_test_case_id_on_a_stepdef_method");
+		assertThat(registry.get(testCaseId).getTestCaseId().value(), equalTo(TestCaseIdOnMethodSteps.TEST_CASE_ID));
+	}
+
+	@Test
+	public void verify_glue_scan_does_not_hang_on_one_thread_executor() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			StepDefinitionRegistry registry = new StepDefinitionRegistry(executor, false);
+
+			// more packages than threads, every package has several classes
+			registry.scan(Arrays.asList(GLUE_PACKAGE, HOOKS_PACKAGE, GLUE_PACKAGE), getClass().getClassLoader()).get(1, TimeUnit.MINUTES);
+
+			Method belly = BellyStepdefs.class.getMethod("I_have_cukes_in_my_belly", int.class);
+			assertThat(registry.get(belly), notNullValue());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void verify_non_java_step_definition_code_reference_is_its_location() throws NoSuchMethodException {
+		StepDefinitionRegistry registry = new StepDefinitionRegistry(Runnable::run, false);
+		Method belly = BellyStepdefs.class.getMethod("I_have_cukes_in_my_belly", int.class);
+
+		StepDefinitionMetadata metadata = registry.resolve(new LambdaStepDefinition(belly));
+
+		assertThat(metadata.getCodeRef(), equalTo("com.example.Steps.lambda$new$0"));
+		assertThat(metadata.getMethod(), nullValue());
+		assertThat(metadata.getAttributes(), nullValue());
+	}
+}
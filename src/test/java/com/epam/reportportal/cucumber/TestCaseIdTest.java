@@ -18,6 +18,7 @@ package com.epam.reportportal.cucumber;
 
 import com.epam.reportportal.cucumber.integration.TestScenarioReporter;
 import com.epam.reportportal.cucumber.integration.TestStepReporter;
+import com.epam.reportportal.cucumber.integration.feature.OverloadedSteps;
 import com.epam.reportportal.cucumber.integration.feature.TestCaseIdOnMethodSteps;
 import com.epam.reportportal.cucumber.integration.util.TestUtils;
 import com.epam.reportportal.listeners.ListenerParameters;
@@ -65,6 +66,13 @@ public class TestCaseIdTest {
 
 	}
 
+	@CucumberOptions(features = "src/test/resources/features/OverloadedSteps.feature", glue = {
+			"com.epam.reportportal.cucumber.integration.feature" }, plugin = { "pretty",
+			"com.epam.reportportal.cucumber.integration.TestStepReporter" })
+	public static class OverloadedStepReporter extends AbstractTestNGCucumberTests {
+
+	}
+
 	private final String launchId = CommonUtils.namedId("launch_");
 	private final String suiteId = CommonUtils.namedId("suite_");
 	private final String testId = CommonUtils.namedId("test_");
@@ -131,5 +139,16 @@ public class TestCaseIdTest {
 		StartTestItemRQ step = captor.getValue();
 		assertThat(step.getTestCaseId(), equalTo(TestCaseIdOnMethodSteps.TEST_CASE_ID));
 	}
-}
 
+	@Test
+	public void verify_overloaded_step_definitions_have_own_test_case_ids() {
+		TestUtils.runTests(OverloadedStepReporter.class);
+		ArgumentCaptor<StartTestItemRQ> captor = ArgumentCaptor.forClass(StartTestItemRQ.class);
+		verify(client, times(2)).startTestItem(same(testId), captor.capture());
+
+		List<StartTestItemRQ> steps = captor.getAllValues();
+		assertThat(steps.get(0).getCodeRef(), equalTo(steps.get(1).getCodeRef()));
+		assertThat(steps.get(0).getTestCaseId(), equalTo(OverloadedSteps.NUMBER_TEST_CASE_ID));
+		assertThat(steps.get(1).getTestCaseId(), equalTo(OverloadedSteps.WORD_TEST_CASE_ID));
+	}
+}
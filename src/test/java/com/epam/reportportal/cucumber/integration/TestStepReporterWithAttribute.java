@@ -0,0 +1,50 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber.integration;
+
+import com.epam.reportportal.cucumber.StepReporter;
+import com.epam.reportportal.service.ReportPortal;
+import com.epam.ta.reportportal.ws.model.StartTestItemRQ;
+import com.epam.ta.reportportal.ws.model.attribute.ItemAttributesRQ;
+import cucumber.api.TestCase;
+import cucumber.api.TestStep;
+
+public class TestStepReporterWithAttribute extends StepReporter {
+	public static final ThreadLocal<ReportPortal> RP = new ThreadLocal<>();
+	public static final String KEY = "extra";
+	public static final String VALUE = "attribute";
+
+	@Override
+	protected ReportPortal buildReportPortal() {
+		return RP.get();
+	}
+
+	@Override
+	protected StartTestItemRQ buildStartScenarioRequest(TestCase testCase, String name, String uri, int line) {
+		StartTestItemRQ result = super.buildStartScenarioRequest(testCase, name, uri, line);
+		result.getAttributes().add(new ItemAttributesRQ(KEY, VALUE));
+		return result;
+	}
+
+	@Override
+	protected StartTestItemRQ buildStartStepRequest(TestStep testStep, String stepPrefix, String keyword) {
+		StartTestItemRQ result = super.buildStartStepRequest(testStep, stepPrefix, keyword);
+		if (result.getAttributes() != null) {
+			result.getAttributes().add(new ItemAttributesRQ(KEY, VALUE));
+		}
+		return result;
+	}
+}
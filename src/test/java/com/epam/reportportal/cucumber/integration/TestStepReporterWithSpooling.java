@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber.integration;
+
+import com.epam.reportportal.cucumber.StepReporter;
+import com.epam.reportportal.service.ReportPortal;
+import org.apache.commons.lang3.tuple.Pair;
+import rp.com.google.common.io.ByteSource;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class TestStepReporterWithSpooling extends StepReporter {
+	public static final ThreadLocal<ReportPortal> RP = new ThreadLocal<>();
+
+	// spool files in creation order
+	public static final List<Path> SPOOL_FILES = new CopyOnWriteArrayList<>();
+	// attachment data and the content of its spool file right after spooling
+	public static final List<Pair<byte[], byte[]>> SPOOLED_DATA = new CopyOnWriteArrayList<>();
+
+	@Override
+	protected ReportPortal buildReportPortal() {
+		return RP.get();
+	}
+
+	@Nonnull
+	@Override
+	protected Path createSpoolFile() throws IOException {
+		Path file = super.createSpoolFile();
+		SPOOL_FILES.add(file);
+		return file;
+	}
+
+	@Nonnull
+	@Override
+	protected ByteSource toByteSource(@Nonnull byte[] data) {
+		int spoolFileNumber = SPOOL_FILES.size();
+		ByteSource source = super.toByteSource(data);
+		if (SPOOL_FILES.size() > spoolFileNumber) {
+			try {
+				SPOOLED_DATA.add(Pair.of(data, Files.readAllBytes(SPOOL_FILES.get(SPOOL_FILES.size() - 1))));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return source;
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.integration.concurrent;
+
+import cucumber.api.java.en.Given;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ConcurrentSteps {
+	public static final int SCENARIO_NUMBER = 4;
+	public static final int STEP_NUMBER = 2;
+
+	// names of threads which ran the steps
+	public static final Set<String> THREADS = ConcurrentHashMap.newKeySet();
+
+	@Given("I run step {int} of scenario {int}")
+	public void i_run_step_of_scenario(int step, int scenario) throws InterruptedException {
+		THREADS.add(Thread.currentThread().getName());
+		// let scenarios of other threads run at the same time
+		Thread.sleep(100);
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.integration.embed.processing;
+
+import cucumber.api.Scenario;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+public class ImageProcessingSteps {
+	public static final int IMAGE_WIDTH = 200;
+	public static final int IMAGE_HEIGHT = 100;
+	// PNG signature followed by garbage
+	public static final byte[] BROKEN_PNG = new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 1, 2, 3, 4, 5, 6, 7, 8 };
+
+	private Scenario scenario;
+
+	@Before
+	public void setScenario(Scenario scenario) {
+		this.scenario = scenario;
+	}
+
+	private static byte[] png(boolean noisy) throws IOException {
+		BufferedImage image = new BufferedImage(IMAGE_WIDTH, IMAGE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = image.createGraphics();
+		try {
+			graphics.setColor(Color.RED);
+			graphics.fillRect(0, 0, IMAGE_WIDTH / 2, IMAGE_HEIGHT);
+		} finally {
+			graphics.dispose();
+		}
+		if (noisy) {
+			// noise does not compress, so the image gets smaller only if it's downscaled
+			Random random = new Random(IMAGE_WIDTH);
+			for (int x = 0; x < IMAGE_WIDTH; x++) {
+				for (int y = 0; y < IMAGE_HEIGHT; y++) {
+					image.setRGB(x, y, 0xff000000 | random.nextInt());
+				}
+			}
+		}
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", os);
+		return os.toByteArray();
+	}
+
+	public static byte[] png() throws IOException {
+		return png(true);
+	}
+
+	public static byte[] flatPng() throws IOException {
+		return png(false);
+	}
+
+	@Given("I attach a big PNG image")
+	public void i_attach_a_big_png_image() throws IOException {
+		scenario.embed(png(), "image/png");
+	}
+
+	@Given("I attach a broken PNG image")
+	public void i_attach_a_broken_png_image() {
+		scenario.embed(BROKEN_PNG, "image/png");
+	}
+
+	@Given("I attach a flat PNG image")
+	public void i_attach_a_flat_png_image() throws IOException {
+		scenario.embed(flatPng(), "image/png");
+	}
+}
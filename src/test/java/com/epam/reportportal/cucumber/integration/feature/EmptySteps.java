@@ -16,6 +16,7 @@
 
 package com.epam.reportportal.cucumber.integration.feature;
 
+import com.epam.reportportal.util.test.CommonUtils;
 import cucumber.api.java.en.Given;
 import cucumber.api.java.en.Then;
 import cucumber.api.java.en.When;
@@ -30,6 +31,12 @@ public class EmptySteps {
 		LOGGER.info("Inside 'I have empty step'");
 	}
 
+	@Given("I have a slow empty step")
+	public void i_have_a_slow_empty_step() throws InterruptedException {
+		LOGGER.info("Inside 'I have a slow empty step'");
+		Thread.sleep(CommonUtils.MINIMAL_TEST_PAUSE);
+	}
+
 	@Then("I have another empty step")
 	public void i_have_another_empty_step() {
 		LOGGER.info("Inside 'I have another empty step'");
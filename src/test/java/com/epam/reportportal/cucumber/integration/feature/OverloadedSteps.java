@@ -0,0 +1,39 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.epam.reportportal.cucumber.integration.feature;
+
+import com.epam.reportportal.annotations.TestCaseId;
+import cucumber.api.java.en.Given;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class OverloadedSteps {
+	private static final Logger LOGGER = LoggerFactory.getLogger(OverloadedSteps.class);
+	public static final String NUMBER_TEST_CASE_ID = "Overloaded step with a number";
+	public static final String WORD_TEST_CASE_ID = "Overloaded step with a word";
+
+	@Given("I have {int} as a number in an overloaded step")
+	@TestCaseId(NUMBER_TEST_CASE_ID)
+	public void i_have_an_overloaded_step(int number) {
+		LOGGER.info("Inside 'i_have_an_overloaded_step' method with a number: {}", number);
+	}
+
+	@Given("I have {word} as a word in an overloaded step")
+	@TestCaseId(WORD_TEST_CASE_ID)
+	public void i_have_an_overloaded_step(String word) {
+		LOGGER.info("Inside 'i_have_an_overloaded_step' method with a word: {}", word);
+	}
+}
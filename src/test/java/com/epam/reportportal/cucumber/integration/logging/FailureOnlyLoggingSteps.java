@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.integration.logging;
+
+import com.epam.reportportal.util.test.CommonUtils;
+import cucumber.api.Scenario;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+
+import java.nio.charset.StandardCharsets;
+
+public class FailureOnlyLoggingSteps {
+	public static final String FIRST_LOG = "A log of the first step";
+	public static final String SECOND_LOG = "A log of the second step";
+	public static final String ATTACHMENT = "An attachment of the second step";
+
+	private Scenario scenario;
+
+	@Before
+	public void setScenario(Scenario scenario) {
+		this.scenario = scenario;
+	}
+
+	@Given("I write a log in the first step")
+	public void i_write_a_log_in_the_first_step() throws InterruptedException {
+		scenario.write(FIRST_LOG);
+		Thread.sleep(CommonUtils.MINIMAL_TEST_PAUSE);
+	}
+
+	@Given("I write a log and attach a file in the second step")
+	public void i_write_a_log_and_attach_a_file_in_the_second_step() throws InterruptedException {
+		Thread.sleep(CommonUtils.MINIMAL_TEST_PAUSE);
+		scenario.write(SECOND_LOG);
+		scenario.embed(ATTACHMENT.getBytes(StandardCharsets.UTF_8), "text/plain");
+		Thread.sleep(CommonUtils.MINIMAL_TEST_PAUSE);
+	}
+
+	@Then("I fail after writing logs")
+	public void i_fail_after_writing_logs() {
+		throw new IllegalStateException("A failed step");
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.integration.release;
+
+import com.epam.reportportal.cucumber.AbstractReporter;
+import com.epam.reportportal.cucumber.LaunchSession;
+import cucumber.api.Scenario;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class FeatureReleaseSteps {
+	public static final int FEATURE_NUMBER = 4;
+	public static final List<String> FEATURES = IntStream.rangeClosed(1, FEATURE_NUMBER)
+			.mapToObj(i -> "src/test/resources/features/release/Release" + i + ".feature")
+			.collect(Collectors.toList());
+
+	// URI of every scenario and features held by the launch session while it runs
+	public static final List<Pair<String, List<String>>> HELD_FEATURES = new CopyOnWriteArrayList<>();
+
+	private String uri;
+
+	@Before
+	public void setUri(Scenario scenario) {
+		uri = scenario.getUri();
+	}
+
+	@Given("I remember which features are held by the launch session")
+	public void i_remember_which_features_are_held_by_the_launch_session() {
+		LaunchSession session = Objects.requireNonNull(AbstractReporter.getCurrentSession());
+		HELD_FEATURES.add(Pair.of(uri, FEATURES.stream().filter(f -> session.getFeatureIndex(f) != null).collect(Collectors.toList())));
+	}
+
+	@Given("I remember which features are held by the launch session with {word}")
+	public void i_remember_which_features_are_held_by_the_launch_session_with(String parameter) {
+		i_remember_which_features_are_held_by_the_launch_session();
+	}
+}
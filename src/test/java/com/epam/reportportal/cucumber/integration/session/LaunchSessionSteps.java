@@ -0,0 +1,43 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.integration.session;
+
+import com.epam.reportportal.cucumber.AbstractReporter;
+import com.epam.reportportal.cucumber.LaunchSession;
+import cucumber.api.java.en.Given;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class LaunchSessionSteps {
+	// sessions seen by step definitions and by threads started from them, by name of the thread which runs the step
+	public static final Map<String, Optional<LaunchSession>> STEP_SESSIONS = new ConcurrentHashMap<>();
+	public static final Map<String, Optional<LaunchSession>> FOREIGN_THREAD_SESSIONS = new ConcurrentHashMap<>();
+
+	@Given("I remember the launch session")
+	public void i_remember_the_launch_session() throws InterruptedException {
+		String thread = Thread.currentThread().getName();
+		STEP_SESSIONS.put(thread, Optional.ofNullable(AbstractReporter.getCurrentSession()));
+		AtomicReference<LaunchSession> foreignSession = new AtomicReference<>();
+		Thread foreignThread = new Thread(() -> foreignSession.set(AbstractReporter.getCurrentSession()));
+		foreignThread.start();
+		foreignThread.join();
+		FOREIGN_THREAD_SESSIONS.put(thread, Optional.ofNullable(foreignSession.get()));
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import com.epam.ta.reportportal.ws.model.attribute.ItemAttributesRQ;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CopyOnWriteAttributeSetTest {
+
+	private final ItemAttributesRQ smoke = new ItemAttributesRQ(null, "@smoke");
+	private final ItemAttributesRQ ui = new ItemAttributesRQ(null, "@ui");
+	private final Set<ItemAttributesRQ> shared = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(smoke, ui)));
+
+	@Test
+	public void verify_reads_use_shared_attributes() {
+		Set<ItemAttributesRQ> view = new CopyOnWriteAttributeSet(shared);
+
+		assertThat(view, hasSize(2));
+		assertThat(view, containsInAnyOrder(sameInstance(smoke), sameInstance(ui)));
+	}
+
+	@Test
+	public void verify_add_copies_attributes_and_keeps_shared_set() {
+		Set<ItemAttributesRQ> view = new CopyOnWriteAttributeSet(shared);
+
+		view.add(new ItemAttributesRQ("key", "value"));
+
+		assertThat(view, hasSize(3));
+		assertThat(view, not(hasItem(sameInstance(smoke))));
+		assertThat(view.stream().filter(a -> "@smoke".equals(a.getValue())).count(), equalTo(1L));
+		assertThat(shared, hasSize(2));
+	}
+
+	@Test
+	public void verify_shared_attribute_can_be_removed() {
+		Set<ItemAttributesRQ> view = new CopyOnWriteAttributeSet(shared);
+		view.add(new ItemAttributesRQ("key", "value"));
+
+		assertThat(view.remove(smoke), equalTo(true));
+
+		assertThat(view, hasSize(2));
+		assertThat(view.stream().noneMatch(a -> "@smoke".equals(a.getValue())), equalTo(true));
+		assertThat(shared, hasItem(sameInstance(smoke)));
+	}
+
+	@Test
+	public void verify_iterator_removal_keeps_shared_set() {
+		Set<ItemAttributesRQ> view = new CopyOnWriteAttributeSet(shared);
+
+		Iterator<ItemAttributesRQ> iterator = view.iterator();
+		while (iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+
+		assertThat(view, empty());
+		assertThat(shared, hasSize(2));
+	}
+}
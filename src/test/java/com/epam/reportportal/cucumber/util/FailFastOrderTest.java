@@ -0,0 +1,114 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+public class FailFastOrderTest {
+
+	@TempDir
+	public Path tempDir;
+
+	private Collection<ScenarioHistory.Entry> history;
+
+	@BeforeEach
+	public void recordHistory() throws IOException {
+		try (ScenarioHistory scenarioHistory = ScenarioHistory.open(tempDir.resolve("history"))) {
+			// failed two runs ago
+			scenarioHistory.record("features/a.feature:3", "FAILED", 10, 1);
+			scenarioHistory.record("features/a.feature:3", "PASSED", 10, 2);
+			scenarioHistory.record("features/a.feature:3", "PASSED", 10, 3);
+			// failed in the last run, but slow
+			scenarioHistory.record("features/b.feature:5", "FAILED", 5000, 3);
+			scenarioHistory.record("features/b.feature:12", "PASSED", 100, 3);
+			// never failed
+			scenarioHistory.record("features/c.feature:3", "PASSED", 300, 3);
+			scenarioHistory.record("features/d.feature:3", "PASSED", 50, 3);
+			history = scenarioHistory.getEntries().values();
+		}
+	}
+
+	@Test
+	public void verify_recently_failed_and_fast_scenarios_go_first() {
+		assertThat(FailFastOrder.orderScenarios(history),
+				contains("features/b.feature:5",
+						"features/a.feature:3",
+						"features/d.feature:3",
+						"features/b.feature:12",
+						"features/c.feature:3"
+				)
+		);
+	}
+
+	@Test
+	public void verify_features_are_ordered_by_their_most_recent_failure() {
+		assertThat(FailFastOrder.orderFeatures(history),
+				contains("features/b.feature", "features/a.feature", "features/d.feature", "features/c.feature")
+		);
+	}
+
+	@Test
+	public void verify_rerun_file_lists_features_in_order() throws IOException {
+		Path file = tempDir.resolve("rerun.txt");
+
+		FailFastOrder.writeRerunFile(history, file);
+
+		assertThat(Files.readAllLines(file, StandardCharsets.UTF_8),
+				contains("features/b.feature", "features/a.feature", "features/d.feature", "features/c.feature")
+		);
+	}
+
+	@Test
+	public void verify_feature_order_follows_rerun_file_and_puts_unknown_features_last() throws IOException {
+		Path file = tempDir.resolve("rerun.txt");
+		FailFastOrder.writeRerunFile(history, file);
+		List<String> features = Arrays.asList("features/a.feature",
+				"features/e.feature",
+				"features/b.feature",
+				"features/c.feature",
+				"features/d.feature"
+		);
+
+		features.sort(FailFastOrder.featureOrder(file));
+
+		assertThat(features,
+				contains("features/b.feature", "features/a.feature", "features/d.feature", "features/c.feature", "features/e.feature")
+		);
+	}
+
+	@Test
+	public void verify_feature_order_is_uri_order_without_rerun_file() throws IOException {
+		List<String> features = Arrays.asList("features/b.feature", "features/a.feature");
+
+		features.sort(FailFastOrder.featureOrder(tempDir.resolve("absent.txt")));
+
+		assertThat(features, contains("features/a.feature", "features/b.feature"));
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FailureIndexTest {
+
+	private static final StackTraceElement[] TRACE = new StackTraceElement[] {
+			new StackTraceElement("org.framework.Assert", "fail", "Assert.java", 5),
+			new StackTraceElement("com.example.app.Steps", "step", "Steps.java", 40) };
+
+	private static Exception exception(String message) {
+		Exception exception = new IllegalStateException(message);
+		exception.setStackTrace(TRACE);
+		return exception;
+	}
+
+	@Test
+	public void verify_message_normalization() {
+		assertThat(FailureIndex.normalizeMessage("Timed out after 30 seconds waiting for 0x1F\nsecond line"),
+				equalTo("Timed out after <n> seconds waiting for <hex>")
+		);
+		assertThat(FailureIndex.normalizeMessage("Order 123e4567-e89b-12d3-a456-426614174000 not found"), equalTo("Order <uuid> not found"));
+		assertThat(FailureIndex.normalizeMessage(null), equalTo(""));
+	}
+
+	@Test
+	public void verify_similar_failures_are_grouped() {
+		FailureIndex index = new FailureIndex(Collections.singletonList("org.framework."), 3, 2);
+
+		index.add(exception("Timed out after 30 seconds"), "a.feature:1");
+		index.add(exception("Timed out after 60 seconds"), "a.feature:5");
+		index.add(exception("Timed out after 90 seconds"), "b.feature:3");
+		index.add(exception("Element not found"), "c.feature:7");
+
+		List<FailureIndex.Cluster> clusters = index.getClusters();
+		assertThat(clusters, hasSize(2));
+		assertThat(clusters.get(0).getCount(), equalTo(3));
+		assertThat(clusters.get(0).getFrames(), contains("com.example.app.Steps.step(Steps.java:40)"));
+		assertThat(clusters.get(0).getRepresentatives(), contains("a.feature:1", "a.feature:5"));
+		assertThat(clusters.get(1).getCount(), equalTo(1));
+
+		String summary = index.summary();
+		assertThat(summary, startsWith("Failure clusters: 2 cluster(s), 4 failure(s)"));
+		assertThat(summary, containsString("#1: 3 failure(s) - java.lang.IllegalStateException: Timed out after <n> seconds"));
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FeatureDurationHistoryTest {
+
+	@TempDir
+	public Path tempDir;
+
+	@Test
+	public void verify_missing_history_is_empty() throws IOException {
+		assertThat(FeatureDurationHistory.read(tempDir.resolve("history")).entrySet(), empty());
+	}
+
+	@Test
+	public void verify_durations_are_merged_into_history() throws IOException {
+		Path file = tempDir.resolve("history");
+		Map<String, Long> durations = new HashMap<>();
+		durations.put("a.feature", 100L);
+		durations.put("b.feature", 200L);
+		FeatureDurationHistory.update(file, durations);
+		FeatureDurationHistory.update(file, Collections.singletonMap("a.feature", 150L));
+
+		Map<String, Long> history = FeatureDurationHistory.read(file);
+
+		assertThat(history, allOf(hasEntry("a.feature", 150L), hasEntry("b.feature", 200L)));
+		assertThat(history.size(), equalTo(2));
+	}
+
+	@Test
+	public void verify_broken_lines_are_skipped() throws IOException {
+		Path file = tempDir.resolve("history");
+		Files.write(file, "100\ta.feature\nbroken\n1x\tb.feature\n".getBytes(StandardCharsets.UTF_8));
+
+		Map<String, Long> history = FeatureDurationHistory.read(file);
+
+		assertThat(history, hasEntry("a.feature", 100L));
+		assertThat(history.size(), equalTo(1));
+	}
+
+	@Test
+	public void verify_concurrent_updates_of_one_jvm_are_serialized() throws Exception {
+		Path file = tempDir.resolve("history");
+		int threadNumber = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threadNumber);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<?>> updates = IntStream.range(0, threadNumber).mapToObj(i -> executor.submit(() -> {
+				start.await();
+				// the same file through a different path
+				Path path = i % 2 == 0 ? file : tempDir.resolve(".").resolve("history");
+				FeatureDurationHistory.update(path, Collections.singletonMap(i + ".feature", (long) i));
+				return null;
+			})).collect(Collectors.toList());
+			start.countDown();
+			for (Future<?> update : updates) {
+				update.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		Map<String, Long> history = FeatureDurationHistory.read(file);
+
+		assertThat(history.size(), equalTo(threadNumber));
+		IntStream.range(0, threadNumber).forEach(i -> assertThat(history, hasEntry(i + ".feature", (long) i)));
+	}
+}
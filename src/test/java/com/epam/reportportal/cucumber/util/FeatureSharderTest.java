@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FeatureSharderTest {
+
+	private static final List<String> FEATURES = Arrays.asList("a.feature", "b.feature", "c.feature", "d.feature", "e.feature");
+
+	private static Map<String, Long> durations() {
+		Map<String, Long> result = new HashMap<>();
+		result.put("a.feature", 10L);
+		result.put("b.feature", 7L);
+		result.put("c.feature", 5L);
+		result.put("d.feature", 4L);
+		result.put("e.feature", 3L);
+		return result;
+	}
+
+	@Test
+	public void verify_longest_features_are_assigned_to_least_loaded_shards() {
+		List<List<String>> shards = FeatureSharder.partition(FEATURES, durations(), 2);
+
+		assertThat(shards, hasSize(2));
+		assertThat(shards.get(0), contains("a.feature", "d.feature"));
+		assertThat(shards.get(1), contains("b.feature", "c.feature", "e.feature"));
+	}
+
+	@Test
+	public void verify_every_feature_is_assigned_once() {
+		List<String> features = new ArrayList<>(FEATURES);
+		features.add("unknown.feature");
+		features.add("a.feature");
+
+		List<List<String>> shards = FeatureSharder.partition(features, durations(), 3);
+
+		List<String> assigned = new ArrayList<>();
+		shards.forEach(assigned::addAll);
+		assertThat(assigned, containsInAnyOrder("a.feature", "b.feature", "c.feature", "d.feature", "e.feature", "unknown.feature"));
+	}
+
+	@Test
+	public void verify_shards_are_stable_without_history() {
+		List<String> shard = FeatureSharder.getShard(FEATURES, Collections.emptyMap(), 2, 1);
+
+		assertThat(shard, equalTo(FeatureSharder.getShard(FEATURES, Collections.emptyMap(), 2, 1)));
+		assertThat(shard, contains("b.feature", "d.feature"));
+	}
+
+	@Test
+	public void verify_invalid_shard_index_is_rejected() {
+		assertThrows(IllegalArgumentException.class, () -> FeatureSharder.getShard(FEATURES, durations(), 2, 2));
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class IntObjectMapTest {
+
+	@Test
+	public void verify_values_are_found_by_key() {
+		IntObjectMap.Builder<String> builder = IntObjectMap.builder();
+		IntStream.range(0, 1000).forEach(i -> builder.put(i * 7 - 300, "value" + i));
+
+		IntObjectMap<String> map = builder.build();
+
+		assertThat(map.size(), equalTo(1000));
+		IntStream.range(0, 1000).forEach(i -> assertThat(map.get(i * 7 - 300), equalTo("value" + i)));
+		assertThat(map.get(2), nullValue());
+		assertThat(map.containsKey(-300), equalTo(true));
+	}
+
+	@Test
+	public void verify_first_value_is_kept_for_duplicate_keys() {
+		IntObjectMap<String> map = IntObjectMap.<String>builder().put(5, "first").put(5, "second").build();
+
+		assertThat(map.size(), equalTo(1));
+		assertThat(map.get(5), equalTo("first"));
+	}
+
+	@Test
+	public void verify_empty_map() {
+		IntObjectMap<String> map = IntObjectMap.<String>builder().build();
+
+		assertThat(map.isEmpty(), equalTo(true));
+		assertThat(map.get(0), nullValue());
+	}
+}
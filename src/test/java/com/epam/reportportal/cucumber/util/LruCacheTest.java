@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class LruCacheTest {
+
+	@Test
+	public void verify_least_recently_used_entry_is_evicted() {
+		LruCache<String, String> cache = new LruCache<>(2);
+		cache.put("first", "1");
+		cache.put("second", "2");
+		cache.get("first");
+
+		cache.put("third", "3");
+
+		assertThat(cache.size(), equalTo(2));
+		assertThat(cache.get("first"), equalTo("1"));
+		assertThat(cache.get("second"), nullValue());
+		assertThat(cache.get("third"), equalTo("3"));
+	}
+
+	@Test
+	public void verify_value_is_computed_once() {
+		LruCache<String, String> cache = new LruCache<>(10);
+		AtomicInteger calls = new AtomicInteger();
+
+		for (int i = 0; i < 1000; i++) {
+			assertThat(cache.computeIfAbsent("key", k -> k + calls.incrementAndGet()), equalTo("key1"));
+		}
+
+		assertThat(calls.get(), equalTo(1));
+	}
+
+	@Test
+	public void verify_null_values_are_not_cached() {
+		LruCache<String, String> cache = new LruCache<>(10);
+		AtomicInteger calls = new AtomicInteger();
+
+		cache.computeIfAbsent("key", k -> {
+			calls.incrementAndGet();
+			return null;
+		});
+		cache.computeIfAbsent("key", k -> {
+			calls.incrementAndGet();
+			return null;
+		});
+
+		assertThat(calls.get(), equalTo(2));
+		assertThat(cache.size(), equalTo(0));
+	}
+
+	@Test
+	public void verify_zero_size_disables_caching() {
+		LruCache<String, String> cache = new LruCache<>(0);
+
+		cache.put("key", "value");
+
+		assertThat(cache.get("key"), nullValue());
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ScenarioHistoryTest {
+
+	private static final String CODE_REF = "features/belly.feature/[SCENARIO:a few cukes]";
+
+	@TempDir
+	public Path tempDir;
+
+	@Test
+	public void verify_history_is_restored_on_open() throws IOException {
+		Path file = tempDir.resolve("history");
+		try (ScenarioHistory history = ScenarioHistory.open(file)) {
+			history.record(CODE_REF, "PASSED", 100, 1000);
+			history.record(CODE_REF, "FAILED", 200, 2000);
+		}
+
+		try (ScenarioHistory history = ScenarioHistory.open(file)) {
+			ScenarioHistory.Entry entry = history.get(CODE_REF);
+			assertThat(entry, notNullValue());
+			assertThat(entry.getStatus(), equalTo("FAILED"));
+			assertThat(entry.isFailed(), equalTo(true));
+			assertThat(entry.getDuration(), equalTo(200L));
+			assertThat(entry.getTime(), equalTo(2000L));
+			assertThat(entry.getRuns(), equalTo(2));
+			assertThat(entry.getFailureCount(), equalTo(1));
+			assertThat(history.get("unknown"), nullValue());
+		}
+	}
+
+	@Test
+	public void verify_failure_history_is_shifted_on_every_run() throws IOException {
+		try (ScenarioHistory history = ScenarioHistory.open(tempDir.resolve("history"))) {
+			history.record(CODE_REF, "FAILED", 1, 1);
+			history.record(CODE_REF, "PASSED", 1, 2);
+			ScenarioHistory.Entry entry = history.record(CODE_REF, "PASSED", 1, 3);
+
+			assertThat(entry.isFailed(), equalTo(false));
+			assertThat(entry.getFailures(), equalTo(0b100));
+			assertThat(entry.getFailureCount(), equalTo(1));
+		}
+	}
+
+	@Test
+	public void verify_compaction_keeps_latest_entries() throws IOException {
+		Path file = tempDir.resolve("history");
+		try (ScenarioHistory history = ScenarioHistory.open(file)) {
+			for (int i = 0; i < 100; i++) {
+				history.record(CODE_REF, "PASSED", i, i);
+				history.record(CODE_REF + i, "PASSED", i, i);
+			}
+		}
+		long size = Files.size(file);
+
+		ScenarioHistory.compact(file);
+
+		assertThat(Files.size(file), lessThan(size));
+		Map<String, ScenarioHistory.Entry> entries = ScenarioHistory.read(file);
+		assertThat(entries.size(), equalTo(101));
+		assertThat(entries.get(CODE_REF).getDuration(), equalTo(99L));
+		assertThat(entries.get(CODE_REF).getRuns(), equalTo(32));
+	}
+
+	@Test
+	public void verify_partially_written_record_is_ignored() throws IOException {
+		Path file = tempDir.resolve("history");
+		try (ScenarioHistory history = ScenarioHistory.open(file)) {
+			history.record(CODE_REF, "PASSED", 1, 1);
+		}
+		Files.write(file, new byte[] { 0, 0, 0, 100, 1, 2 }, StandardOpenOption.APPEND);
+
+		assertThat(ScenarioHistory.read(file).keySet(), contains(CODE_REF));
+	}
+
+	@Test
+	public void verify_records_are_appended_after_truncated_record() throws IOException {
+		Path file = tempDir.resolve("history");
+		try (ScenarioHistory history = ScenarioHistory.open(file)) {
+			history.record(CODE_REF, "PASSED", 1, 1);
+			history.record(CODE_REF + 1, "FAILED", 2, 2);
+		}
+		// a crash in the middle of the second record
+		long size = Files.size(file);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(size - 5);
+		}
+
+		try (ScenarioHistory history = ScenarioHistory.open(file)) {
+			assertThat(history.getEntries().keySet(), contains(CODE_REF));
+			history.record(CODE_REF + 2, "PASSED", 3, 3);
+			history.record(CODE_REF, "FAILED", 4, 4);
+		}
+
+		Map<String, ScenarioHistory.Entry> entries = ScenarioHistory.read(file);
+		assertThat(entries.keySet(), containsInAnyOrder(CODE_REF, CODE_REF + 2));
+		assertThat(entries.get(CODE_REF).getStatus(), equalTo("FAILED"));
+		assertThat(entries.get(CODE_REF).getRuns(), equalTo(2));
+		ScenarioHistory.compact(file);
+		assertThat(ScenarioHistory.read(file).keySet(), containsInAnyOrder(CODE_REF, CODE_REF + 2));
+	}
+
+	@Test
+	public void verify_record_with_invalid_length_is_ignored() throws IOException {
+		Path file = tempDir.resolve("history");
+		try (ScenarioHistory history = ScenarioHistory.open(file)) {
+			history.record(CODE_REF, "PASSED", 1, 1);
+		}
+		Files.write(file, new byte[] { -1, -1, -1, -1, 1, 2, 3, 4 }, StandardOpenOption.APPEND);
+		assertThat(ScenarioHistory.read(file).keySet(), contains(CODE_REF));
+
+		Files.write(file, new byte[] { 0x7f, -1, -1, -1, 1, 2, 3, 4 }, StandardOpenOption.APPEND);
+		try (ScenarioHistory history = ScenarioHistory.open(file)) {
+			history.record(CODE_REF + 1, "PASSED", 2, 2);
+		}
+		assertThat(ScenarioHistory.read(file).keySet(), containsInAnyOrder(CODE_REF, CODE_REF + 1));
+	}
+
+	@Test
+	public void verify_undecodable_record_is_ignored() throws IOException {
+		Path file = tempDir.resolve("history");
+		try (ScenarioHistory history = ScenarioHistory.open(file)) {
+			history.record(CODE_REF, "PASSED", 1, 1);
+		}
+		// a record of a valid length with a string length pointing outside of it
+		Files.write(file, new byte[] { 0, 0, 0, 4, 0x7f, -1, 1, 2 }, StandardOpenOption.APPEND);
+
+		try (ScenarioHistory history = ScenarioHistory.open(file)) {
+			assertThat(history.getEntries().keySet(), contains(CODE_REF));
+			history.record(CODE_REF + 1, "PASSED", 2, 2);
+		}
+		assertThat(ScenarioHistory.read(file).keySet(), containsInAnyOrder(CODE_REF, CODE_REF + 1));
+	}
+
+	@Test
+	public void verify_foreign_file_is_rejected() throws IOException {
+		Path file = tempDir.resolve("history");
+		Files.write(file, new byte[] { 1, 2, 3, 4, 5 });
+
+		assertThrows(IOException.class, () -> ScenarioHistory.open(file));
+	}
+
+	@Test
+	public void verify_concurrent_writers_of_a_new_file_do_not_corrupt_it() throws Exception {
+		Path file = tempDir.resolve("history");
+		int writerNumber = 4;
+		int recordNumber = 50;
+		ExecutorService executor = Executors.newFixedThreadPool(writerNumber);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			// every writer is a separate history, like a shard, which opens the file at the same time as the others
+			List<Future<?>> writers = IntStream.range(0, writerNumber).mapToObj(w -> executor.submit(() -> {
+				start.await();
+				try (ScenarioHistory history = ScenarioHistory.open(file)) {
+					for (int i = 0; i < recordNumber; i++) {
+						history.record(CODE_REF + w + ":" + i, "PASSED", i, i);
+					}
+				}
+				return null;
+			})).collect(Collectors.toList());
+			start.countDown();
+			for (Future<?> writer : writers) {
+				writer.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(ScenarioHistory.read(file).size(), equalTo(writerNumber * recordNumber));
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ScenarioSamplerTest {
+	private static final String FEATURE = "classpath:features/first.feature";
+	private static final String OTHER_FEATURE = "classpath:features/second.feature";
+
+	@Test
+	public void verify_all_scenarios_are_sampled_if_sampling_is_disabled() {
+		ScenarioSampler sampler = new ScenarioSampler(-1, -1L);
+
+		assertThat(sampler.isEnabled(), equalTo(false));
+		assertThat(sampler.isSampled(FEATURE), equalTo(true));
+		assertThat(sampler.isSampled(FEATURE), equalTo(true));
+	}
+
+	@Test
+	public void verify_every_nth_scenario_of_a_feature_is_sampled() {
+		ScenarioSampler sampler = new ScenarioSampler(3, -1L);
+
+		assertThat(sampler.isSampled(FEATURE), equalTo(true));
+		assertThat(sampler.isSampled(FEATURE), equalTo(false));
+		assertThat(sampler.isSampled(OTHER_FEATURE), equalTo(true));
+		assertThat(sampler.isSampled(FEATURE), equalTo(false));
+		assertThat(sampler.isSampled(FEATURE), equalTo(true));
+	}
+
+	@Test
+	public void verify_one_scenario_of_a_feature_is_sampled_per_interval() {
+		AtomicLong time = new AtomicLong();
+		ScenarioSampler sampler = new ScenarioSampler(-1, 100L, time::get);
+
+		assertThat(sampler.isSampled(FEATURE), equalTo(true));
+		time.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+		assertThat(sampler.isSampled(FEATURE), equalTo(false));
+		assertThat(sampler.isSampled(OTHER_FEATURE), equalTo(true));
+		time.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+		assertThat(sampler.isSampled(FEATURE), equalTo(true));
+		assertThat(sampler.isSampled(FEATURE), equalTo(false));
+	}
+
+	@Test
+	public void verify_dropped_scenarios_are_counted_per_feature() {
+		ScenarioSampler sampler = new ScenarioSampler(2, -1L);
+
+		sampler.addDropped(FEATURE);
+		sampler.addDropped(FEATURE);
+		sampler.addDropped(OTHER_FEATURE);
+
+		assertThat(sampler.getDroppedCount(FEATURE), equalTo(2));
+		assertThat(sampler.getDroppedCount(OTHER_FEATURE), equalTo(1));
+		sampler.remove(FEATURE);
+		assertThat(sampler.getDroppedCount(FEATURE), equalTo(0));
+	}
+}
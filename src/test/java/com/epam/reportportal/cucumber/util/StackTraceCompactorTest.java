@@ -0,0 +1,97 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class StackTraceCompactorTest {
+
+	private static final StackTraceElement[] TRACE = new StackTraceElement[] {
+			new StackTraceElement("com.example.app.Service", "call", "Service.java", 10),
+			new StackTraceElement("org.framework.Proxy", "invoke", "Proxy.java", 20),
+			new StackTraceElement("org.framework.Interceptor", "invoke", "Interceptor.java", 30),
+			new StackTraceElement("com.example.app.Steps", "step", "Steps.java", 40) };
+
+	private static Exception exception(String message) {
+		Exception exception = new IllegalStateException(message);
+		exception.setStackTrace(TRACE);
+		return exception;
+	}
+
+	@Test
+	public void verify_framework_frames_are_collapsed() {
+		StackTraceCompactor compactor = new StackTraceCompactor(Collections.singletonList("org.framework."), 10);
+
+		String result = compactor.compact(exception("failure"));
+
+		assertThat(result, startsWith("java.lang.IllegalStateException: failure"));
+		assertThat(result, containsString("at com.example.app.Service.call(Service.java:10)"));
+		assertThat(result, containsString("... 2 framework frame(s) omitted"));
+		assertThat(result, containsString("at com.example.app.Steps.step(Steps.java:40)"));
+		assertThat(result, not(containsString("org.framework.Proxy")));
+	}
+
+	@Test
+	public void verify_top_frame_is_never_collapsed() {
+		StackTraceCompactor compactor = new StackTraceCompactor(Collections.singletonList("com.example.app.Service"), 10);
+
+		String result = compactor.compact(exception("failure"));
+
+		assertThat(result, containsString("at com.example.app.Service.call(Service.java:10)"));
+	}
+
+	@Test
+	public void verify_common_cause_frames_are_not_repeated() {
+		StackTraceCompactor compactor = new StackTraceCompactor(Collections.emptyList(), 10);
+		Exception cause = exception("cause");
+		Exception wrapper = new RuntimeException("wrapper", cause);
+		wrapper.setStackTrace(TRACE);
+
+		String result = compactor.compact(wrapper);
+
+		assertThat(result, containsString("Caused by: java.lang.IllegalStateException: cause"));
+		assertThat(result, containsString("... 4 more"));
+	}
+
+	@Test
+	public void verify_equal_failures_share_rendered_trace() {
+		StackTraceCompactor compactor = new StackTraceCompactor(Collections.emptyList(), 10);
+
+		String first = compactor.compact(exception("failure"));
+		String second = compactor.compact(exception("failure"));
+		String other = compactor.compact(exception("other failure"));
+
+		assertThat(second, sameInstance(first));
+		assertThat(other, not(equalTo(first)));
+	}
+
+	@Test
+	public void verify_least_recently_used_trace_is_evicted() {
+		StackTraceCompactor compactor = new StackTraceCompactor(Collections.emptyList(), 1);
+
+		String first = compactor.compact(exception("failure"));
+		String second = compactor.compact(exception("other failure"));
+
+		assertThat(compactor.compact(exception("other failure")), sameInstance(second));
+		assertThat(compactor.compact(exception("failure")), allOf(equalTo(first), not(sameInstance(first))));
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright 2020 EPAM Systems
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.epam.reportportal.cucumber.util;
+
+import com.epam.ta.reportportal.ws.model.attribute.ItemAttributesRQ;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TagAttributeCacheTest {
+
+	@Test
+	public void verify_equal_tag_lists_share_attributes() {
+		TagAttributeCache cache = new TagAttributeCache(false, 10);
+
+		Set<ItemAttributesRQ> first = cache.get(Arrays.asList("@smoke", "@ui"));
+		Set<ItemAttributesRQ> second = cache.get(Arrays.asList("@smoke", "@ui"));
+
+		assertThat(second, sameInstance(first));
+		assertThat(first, hasSize(2));
+		assertThrows(UnsupportedOperationException.class, () -> first.add(new ItemAttributesRQ(null, "@other")));
+	}
+
+	@Test
+	public void verify_tags_are_attribute_values_by_default() {
+		ItemAttributesRQ attribute = new TagAttributeCache(false, 10).get(Collections.singletonList("@priority:high"))
+				.iterator()
+				.next();
+
+		assertThat(attribute.getKey(), nullValue());
+		assertThat(attribute.getValue(), equalTo("@priority:high"));
+	}
+
+	@Test
+	public void verify_key_value_tags_are_parsed() {
+		List<String> tags = Arrays.asList("@priority:high", "@smoke", "@:value", "@key:");
+
+		Set<ItemAttributesRQ> attributes = new TagAttributeCache(true, 10).get(tags);
+
+		assertThat(attributes, hasSize(4));
+		assertThat(attributes.stream().filter(a -> "priority".equals(a.getKey()) && "high".equals(a.getValue())).count(), equalTo(1L));
+		assertThat(attributes.stream().filter(a -> a.getKey() == null).count(), equalTo(3L));
+	}
+
+	@Test
+	public void verify_least_recently_used_attributes_are_evicted() {
+		TagAttributeCache cache = new TagAttributeCache(false, 1);
+		Set<ItemAttributesRQ> first = cache.get(Collections.singletonList("@first"));
+		Set<ItemAttributesRQ> second = cache.get(Collections.singletonList("@second"));
+
+		assertThat(cache.get(Collections.singletonList("@second")), sameInstance(second));
+		assertThat(cache.get(Collections.singletonList("@first")), not(sameInstance(first)));
+		assertThat(cache.get(Collections.singletonList("@first")), hasSize(1));
+	}
+}
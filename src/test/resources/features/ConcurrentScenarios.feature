@@ -0,0 +1,17 @@
+Feature: Concurrent scenarios
+
+  Scenario: Concurrent scenario 1
+    Given I run step 1 of scenario 1
+    Then I run step 2 of scenario 1
+
+  Scenario: Concurrent scenario 2
+    Given I run step 1 of scenario 2
+    Then I run step 2 of scenario 2
+
+  Scenario: Concurrent scenario 3
+    Given I run step 1 of scenario 3
+    Then I run step 2 of scenario 3
+
+  Scenario: Concurrent scenario 4
+    Given I run step 1 of scenario 4
+    Then I run step 2 of scenario 4
@@ -0,0 +1,6 @@
+Feature: Test failed scenario with skipped steps
+
+  Scenario: The scenario
+    Given I have a failed step
+    Then I have another empty step
+    When I have one more empty step
@@ -0,0 +1,8 @@
+Feature: Test with a passed and a failed scenario
+
+  Scenario: The passed scenario
+    Given I have empty step
+
+  Scenario: The failed scenario
+    Given I have a slow empty step
+    Then I have a failed step
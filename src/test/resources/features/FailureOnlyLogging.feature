@@ -0,0 +1,6 @@
+Feature: Failure-only logging
+
+  Scenario: Logs of a failed scenario
+    Given I write a log in the first step
+    And I write a log and attach a file in the second step
+    Then I fail after writing logs
@@ -0,0 +1,10 @@
+Feature: Image processing feature
+
+  Scenario: Attach an image to downscale
+    Given I attach a big PNG image
+
+  Scenario: Attach an image which can't be read
+    Given I attach a broken PNG image
+
+  Scenario: Attach an image which is not smaller after processing
+    Given I attach a flat PNG image
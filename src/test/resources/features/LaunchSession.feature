@@ -0,0 +1,4 @@
+Feature: Launch session
+
+  Scenario: A step which uses the launch session
+    Given I remember the launch session
@@ -0,0 +1,5 @@
+Feature: Overloaded step definition methods
+
+  Scenario: Steps of overloaded methods with the same argument
+    Given I have 5 as a number in an overloaded step
+    And I have 5 as a word in an overloaded step
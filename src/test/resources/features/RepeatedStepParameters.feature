@@ -0,0 +1,5 @@
+Feature: Repeated step with parameters
+
+  Scenario: The same step twice
+    Given I have 100 "apples" in my pocket
+    Given I have 100 "apples" in my pocket
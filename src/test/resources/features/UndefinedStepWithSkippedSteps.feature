@@ -0,0 +1,6 @@
+Feature: Test undefined step with skipped steps
+
+  Scenario: The scenario
+    Given I have empty step
+    When I have an undefined step
+    Then I have another empty step
@@ -0,0 +1,12 @@
+Feature: Released feature 3
+
+  Scenario: The first scenario of feature 3
+    Given I remember which features are held by the launch session
+
+  Scenario Outline: The outline of feature 3
+    Given I remember which features are held by the launch session with <parameter>
+
+    Examples:
+      | parameter |
+      | one       |
+      | two       |